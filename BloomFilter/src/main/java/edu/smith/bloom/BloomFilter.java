@@ -1,9 +1,9 @@
 package edu.smith.bloom;
 
 import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
 
-import edu.smith.listADT.JavaList;
-import edu.smith.listADT.ListADT;
+import edu.smith.listADT.LongListADT;
 /**
  * A Bloom Filter is a probabilistic data structure.
  * It supports the methods insert and contains, however its contains method can return false positives.
@@ -17,8 +17,9 @@ public class BloomFilter<T>{
 	private BitSet bits;
 	// This variable keeps track of how many hashes the Bloom Filter is using.
 	private int numHash;
-	// This is a list of the hashes the Bloom Filter is using.
-	private ListADT<UniversalHash<T>> hashes;
+	// These are the hashes the Bloom Filter is using: the a and b of each UniversalHash, one after the other.
+	// Keeping the numbers in a LongListADT means no UniversalHash objects to chase on every lookup.
+	private LongListADT hashes;
 	
 	/**
 	 * Bloom Filter constructor.
@@ -31,10 +32,11 @@ public class BloomFilter<T>{
 		this.size = size;
 		bits = new BitSet(size);
 		this.numHash = numHash;
-		hashes = new JavaList<UniversalHash<T>>();
-		// Create the hash functions for the Bloom Filter.
+		hashes = new LongListADT(2 * numHash);
+		// Create the hash functions for the Bloom Filter (random numbers, like new UniversalHash<>() picks).
 		for (int i=0; i<numHash; i++) {
-			hashes.addBack(new UniversalHash<>());
+			hashes.addBack(ThreadLocalRandom.current().nextLong());
+			hashes.addBack(ThreadLocalRandom.current().nextLong());
 		}
 	}
 	
@@ -45,8 +47,9 @@ public class BloomFilter<T>{
 	public void insert(T value) {
 		// Hash the value to be inserted with all the hash functions.
 		// Take the newly obtained values and set those indices in the bits array to 1/true.
+		int hashCode = value.hashCode();
 		for (int i = 0; i < numHash; i++) {
-			int index = hashes.getIndex(i).hash(value) % size;
+			int index = UniversalHash.hash(hashes.getIndex(2 * i), hashes.getIndex(2 * i + 1), hashCode) % size;
 			bits.set(index, true);
 		}
 	}
@@ -60,8 +63,9 @@ public class BloomFilter<T>{
 		// Hash the value which we are checking if it is in the Bloom Filter with all the hash functions.
 		// If any of the index values generated from the hash in the bits array are set to 0/false,
 		// the item has definitely not been inserted, so return false.
+		int hashCode = value.hashCode();
 		for (int i = 0; i < numHash; i++) {
-			int index = hashes.getIndex(i).hash(value) % size;
+			int index = UniversalHash.hash(hashes.getIndex(2 * i), hashes.getIndex(2 * i + 1), hashCode) % size;
 			if (!bits.get(index)) {
 				return false;
 			}
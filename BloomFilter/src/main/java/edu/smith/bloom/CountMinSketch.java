@@ -0,0 +1,219 @@
+package edu.smith.bloom;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.smith.listADT.LongListADT;
+
+/**
+ * A Count-Min sketch counts how many times it has seen each item, approximately, in a fixed amount of memory
+ * (like a Bloom Filter, but with counters instead of bits).
+ * It has depth rows of width counters, and a hash function per row. Adding an item adds to its counter in every row;
+ * asking for its count returns the smallest of those counters. Other items share counters with it,
+ * so the answer can be too high, but never too low: with width = e/epsilon and depth = ln(1/delta),
+ * it is within epsilon * total() of the truth, except with probability delta.
+ *
+ * This sketch uses conservative update: adding an item only raises the counters that would otherwise be below its new count,
+ * which leaves the other items sharing them less wrong.
+ * Conservative update needs every row to agree on the item's current count, which two threads adding at once can't promise;
+ * so a sketch made with concurrent = true adds to every row atomically instead (any number of threads can add and estimate at once),
+ * and its counts are a bit higher.
+ *
+ * Sketches made with the same width, depth and seed can be merged, to count a stream in pieces.
+ * @author sivan
+ *
+ * @param <T> - the type of item counted; like BloomFilter, only its hashCode is used.
+ */
+public class CountMinSketch<T> {
+	// How many counters in each row.
+	private final int width;
+	// How many rows (and hash functions).
+	private final int depth;
+	// The a and b of each row's UniversalHash, one after the other.
+	private final LongListADT hashes;
+	// Row r's counters are counts[r*width] to counts[r*width + width - 1].
+	// (An AtomicLongArray so the concurrent mode can use it; without it, we only use plain gets and lazySets.)
+	private final AtomicLongArray counts;
+	// Whether more than one thread may add at once.
+	private final boolean concurrent;
+	// The sum of all counts added.
+	private final LongAdder total = new LongAdder();
+	// Where the item being added goes in each row, so conservative update only hashes it once per row.
+	private final int[] slots;
+
+	/**
+	 * Make an empty sketch with random hash functions.
+	 * @param width - counters per row; answers are within e/width * total() (usually).
+	 * @param depth - rows; answers are that close except with probability e^-depth.
+	 */
+	public CountMinSketch(int width, int depth) {
+		this(width, depth, ThreadLocalRandom.current().nextLong(), false);
+	}
+
+	/**
+	 * Make an empty sketch.
+	 * @param width - counters per row; answers are within e/width * total() (usually).
+	 * @param depth - rows; answers are that close except with probability e^-depth.
+	 * @param seed - picks the hash functions; sketches can only be merged if they used the same one.
+	 * @param concurrent - true if more than one thread will add at the same time.
+	 */
+	public CountMinSketch(int width, int depth, long seed, boolean concurrent) {
+		if (width <= 0 || depth <= 0 || (long) width * depth > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Bad width " + width + " or depth " + depth);
+		}
+		this.width = width;
+		this.depth = depth;
+		this.concurrent = concurrent;
+		this.counts = new AtomicLongArray(width * depth);
+		this.slots = new int[depth];
+		this.hashes = new LongListADT(2 * depth);
+		Random rand = new Random(seed);
+		for (int i = 0; i < depth; i++) {
+			hashes.addBack(rand.nextLong());
+			hashes.addBack(rand.nextLong());
+		}
+	}
+
+	/**
+	 * Make a sketch big enough for a given accuracy.
+	 * @param epsilon - how far off answers may be, as a fraction of total() (e.g. 0.001).
+	 * @param delta - how likely an answer is to be further off than that (e.g. 0.01).
+	 * @param seed - picks the hash functions.
+	 * @param concurrent - true if more than one thread will add at the same time.
+	 * @return the sketch.
+	 */
+	public static <T> CountMinSketch<T> forError(double epsilon, double delta, long seed, boolean concurrent) {
+		if (!(epsilon > 0 && epsilon < 1 && delta > 0 && delta < 1)) {
+			throw new IllegalArgumentException("epsilon and delta must be between 0 and 1");
+		}
+		int width = (int) Math.ceil(Math.E / epsilon);
+		int depth = (int) Math.ceil(Math.log(1 / delta));
+		return new CountMinSketch<>(width, depth, seed, concurrent);
+	}
+
+	/**
+	 * @return where item's counter is in row r.
+	 */
+	private int slot(int r, int hashCode) {
+		return r * width + UniversalHash.hash(hashes.getIndex(2 * r), hashes.getIndex(2 * r + 1), hashCode) % width;
+	}
+
+	/**
+	 * Count one more of item.
+	 * @param item - what was seen.
+	 */
+	public void add(T item) {
+		add(item, 1);
+	}
+
+	/**
+	 * Count more of item.
+	 * @param item - what was seen.
+	 * @param count - how many times (at least 0).
+	 */
+	public void add(T item, long count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Can't count down: " + count);
+		}
+		int hashCode = item.hashCode();
+		total.add(count);
+		if (concurrent) {
+			for (int r = 0; r < depth; r++) {
+				counts.getAndAdd(slot(r, hashCode), count);
+			}
+			return;
+		}
+		// conservative update: the item's new count is its old estimate plus count,
+		// and no counter needs to be higher than that
+		long estimate = Long.MAX_VALUE;
+		for (int r = 0; r < depth; r++) {
+			slots[r] = slot(r, hashCode);
+			estimate = Math.min(estimate, counts.get(slots[r]));
+		}
+		long target = estimate + count;
+		for (int r = 0; r < depth; r++) {
+			if (counts.get(slots[r]) < target) {
+				counts.lazySet(slots[r], target);
+			}
+		}
+	}
+
+	/**
+	 * @param item - what to look up.
+	 * @return how many times item was added: never less than the truth, and usually not much more.
+	 */
+	public long estimate(T item) {
+		int hashCode = item.hashCode();
+		long estimate = Long.MAX_VALUE;
+		for (int r = 0; r < depth; r++) {
+			estimate = Math.min(estimate, counts.get(slot(r, hashCode)));
+		}
+		return estimate;
+	}
+
+	/**
+	 * @return the sum of every count added (and merged in).
+	 */
+	public long total() {
+		return total.sum();
+	}
+
+	/**
+	 * @return how far above the truth an estimate may be (except with probability e^-depth): e/width * total().
+	 */
+	public double errorBound() {
+		return Math.E / width * total();
+	}
+
+	/**
+	 * Add another sketch's counts to this one, as if this one had seen everything it saw too.
+	 * Don't change other while this runs.
+	 * @param other - a sketch with the same width, depth and seed.
+	 * @throws IllegalArgumentException if other has different hash functions.
+	 */
+	public void merge(CountMinSketch<T> other) {
+		if (other.width != width || !other.hashes.equals(hashes)) {
+			throw new IllegalArgumentException("Can only merge sketches with the same width, depth and seed");
+		}
+		for (int i = 0; i < counts.length(); i++) {
+			long more = other.counts.get(i);
+			if (more == 0) {
+				continue;
+			}
+			if (concurrent) {
+				counts.getAndAdd(i, more);
+			} else {
+				counts.lazySet(i, counts.get(i) + more);
+			}
+		}
+		total.add(other.total());
+	}
+
+	/**
+	 * @return counters per row.
+	 */
+	public int width() {
+		return width;
+	}
+
+	/**
+	 * @return rows.
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * @return about how much memory this sketch takes: the counters, plus a little for the objects around them.
+	 */
+	public long estimatedBytes() {
+		return 8L * width * depth + 16L * depth + 128;
+	}
+
+	@Override
+	public String toString() {
+		return "CountMinSketch(" + width + "x" + depth + ", total=" + total() + (concurrent ? ", concurrent)" : ")");
+	}
+}
@@ -0,0 +1,322 @@
+package edu.smith.bloom;
+
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog estimates how many different items it has seen, in a few kilobytes, no matter how many there were.
+ * Each item is hashed; the first p bits of the hash pick one of m = 2^p registers, and the register remembers
+ * the longest run of leading zeros it has seen in the rest of the hash. Seeing a run of k zeros takes about 2^k different items,
+ * so the registers together give an estimate that is usually within relativeError() = 1.04/sqrt(m) of the truth.
+ *
+ * Like HyperLogLog++, it starts out sparse: while it has seen few items, it keeps a sorted list of
+ * (25-bit index, run of zeros) pairs instead of the registers, which is smaller and much more accurate for small counts.
+ * Once the list would take more memory than the registers, it switches to dense registers for good.
+ * Dense estimates use Ertl's "improved" estimator ("New cardinality estimation algorithms for HyperLogLog sketches", 2017),
+ * which is accurate from small counts to huge ones without HyperLogLog++'s tables of measured bias.
+ *
+ * Words are hashed from their characters, so a WordTokenizer.Token counts the same as the String it would become,
+ * and counting tokens allocates nothing (except, while sparse, when the list grows).
+ * Sketches with the same precision can be merged. One thread at a time, please.
+ * @author sivan
+ */
+public class HyperLogLog {
+	/**
+	 * The index size of the sparse list: 2^25 possible indices, so collisions are rare until we switch to dense.
+	 */
+	private static final int SPARSE_PRECISION = 25;
+	/**
+	 * The constant in Ertl's estimator: 1 / (2 ln 2).
+	 */
+	private static final double ALPHA_INF = 1 / (2 * Math.log(2));
+
+	// How many bits of the hash pick a register.
+	private final int p;
+	// How many registers: 2^p.
+	private final int m;
+	// The registers, once dense; null while sparse.
+	private byte[] registers;
+	// While sparse: entries (25-bit index << 6 | run of zeros), sorted by index, one per index.
+	private int[] sparse = new int[0];
+	private int sparseCount;
+	// While sparse: new entries, not sorted yet, so adding doesn't move the list every time.
+	private int[] buffer;
+	private int bufferCount;
+
+	/**
+	 * Make an empty sketch with 2^14 registers (16 KB dense; within about 0.8%).
+	 */
+	public HyperLogLog() {
+		this(14);
+	}
+
+	/**
+	 * Make an empty sketch.
+	 * @param precision - from 4 to 18: 2^precision registers, each one byte.
+	 */
+	public HyperLogLog(int precision) {
+		if (precision < 4 || precision > 18) {
+			throw new IllegalArgumentException("Precision must be from 4 to 18: " + precision);
+		}
+		this.p = precision;
+		this.m = 1 << precision;
+		this.buffer = new int[Math.max(16, m >>> 4)];
+	}
+
+	/**
+	 * A 64-bit hash of some characters (FNV-1a, then a mix so every bit depends on every character).
+	 * A String and a CharSequence with the same characters hash the same.
+	 * @param word - the characters.
+	 * @return the hash.
+	 */
+	public static long hash64(CharSequence word) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < word.length(); i++) {
+			h = (h ^ word.charAt(i)) * 0x100000001b3L;
+		}
+		// MurmurHash3's finalizer
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * Count a word.
+	 * @param word - the word (a String, a WordTokenizer.Token, ...).
+	 */
+	public void add(CharSequence word) {
+		addHash(hash64(word));
+	}
+
+	/**
+	 * Count an item you have hashed yourself.
+	 * @param hash - a 64-bit hash of the item, with all its bits well mixed.
+	 */
+	public void addHash(long hash) {
+		if (registers != null) {
+			// the sentinel bit stops the count of zeros at 64 - p + 1
+			int rho = Long.numberOfLeadingZeros((hash << p) | (1L << (p - 1))) + 1;
+			int index = (int) (hash >>> (64 - p));
+			if (registers[index] < rho) {
+				registers[index] = (byte) rho;
+			}
+			return;
+		}
+		int index = (int) (hash >>> (64 - SPARSE_PRECISION));
+		int rho = Long.numberOfLeadingZeros((hash << SPARSE_PRECISION) | (1L << (SPARSE_PRECISION - 1))) + 1;
+		addSparse(index << 6 | rho);
+	}
+
+	private void addSparse(int entry) {
+		buffer[bufferCount++] = entry;
+		if (bufferCount == buffer.length) {
+			flush();
+			// 4 bytes an entry against 1 byte a register
+			if (sparseCount > m / 4) {
+				toDense();
+			}
+		}
+	}
+
+	/**
+	 * Sort the buffer into the sparse list, keeping the longest run of zeros for each index.
+	 */
+	private void flush() {
+		if (bufferCount == 0) {
+			return;
+		}
+		Arrays.sort(buffer, 0, bufferCount);
+		int[] merged = new int[sparseCount + bufferCount];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while (i < sparseCount || j < bufferCount) {
+			int next;
+			if (j == bufferCount || (i < sparseCount && sparse[i] <= buffer[j])) {
+				next = sparse[i++];
+			} else {
+				next = buffer[j++];
+			}
+			// same index as the last one: entries are sorted, so this one's run is at least as long
+			if (n > 0 && (merged[n - 1] >>> 6) == (next >>> 6)) {
+				merged[n - 1] = next;
+			} else {
+				merged[n++] = next;
+			}
+		}
+		sparse = n == merged.length ? merged : Arrays.copyOf(merged, n);
+		sparseCount = n;
+		bufferCount = 0;
+	}
+
+	/**
+	 * Switch to registers, folding every sparse entry into them.
+	 */
+	private void toDense() {
+		flush();
+		registers = new byte[m];
+		for (int i = 0; i < sparseCount; i++) {
+			foldIntoRegisters(sparse[i]);
+		}
+		sparse = null;
+		buffer = null;
+		sparseCount = 0;
+	}
+
+	/**
+	 * Put a sparse entry into the register its hash would have gone to.
+	 */
+	private void foldIntoRegisters(int entry) {
+		int sparseIndex = entry >>> 6;
+		int extra = SPARSE_PRECISION - p;
+		int index = sparseIndex >>> extra;
+		// the bits between p and 25 are the start of the dense run of zeros
+		int middle = sparseIndex & ((1 << extra) - 1);
+		int rho;
+		if (middle != 0) {
+			rho = Integer.numberOfLeadingZeros(middle) - (32 - extra) + 1;
+		} else {
+			rho = extra + (entry & 0x3F);
+		}
+		if (registers[index] < rho) {
+			registers[index] = (byte) rho;
+		}
+	}
+
+	/**
+	 * @return about how many different items have been added.
+	 */
+	public long estimate() {
+		if (registers == null) {
+			flush();
+			// linear counting over the 2^25 sparse indices
+			double big = 1 << SPARSE_PRECISION;
+			return Math.round(big * Math.log(big / (big - sparseCount)));
+		}
+		int q = 64 - p;
+		int[] counts = new int[q + 2];
+		for (byte r : registers) {
+			counts[r]++;
+		}
+		double z = m * tau(1 - (double) counts[q + 1] / m);
+		for (int k = q; k >= 1; k--) {
+			z = 0.5 * (z + counts[k]);
+		}
+		z += m * sigma((double) counts[0] / m);
+		return Math.round(ALPHA_INF * m * m / z);
+	}
+
+	/**
+	 * Ertl's sigma: x + x^2 + 2x^4 + 4x^8 + ... (infinite when every register is empty).
+	 */
+	private static double sigma(double x) {
+		if (x == 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double y = 1;
+		double z = x;
+		double previous;
+		do {
+			x *= x;
+			previous = z;
+			z += x * y;
+			y += y;
+		} while (z != previous);
+		return z;
+	}
+
+	/**
+	 * Ertl's tau, the correction for registers that ran out of hash bits.
+	 */
+	private static double tau(double x) {
+		if (x == 0 || x == 1) {
+			return 0;
+		}
+		double y = 1;
+		double z = 1 - x;
+		double previous;
+		do {
+			x = Math.sqrt(x);
+			previous = z;
+			y *= 0.5;
+			z -= (1 - x) * (1 - x) * y;
+		} while (z != previous);
+		return z / 3;
+	}
+
+	/**
+	 * @return the typical relative error of estimate once dense: 1.04/sqrt(m). Sparse estimates are much closer.
+	 */
+	public double relativeError() {
+		return 1.04 / Math.sqrt(m);
+	}
+
+	/**
+	 * Count everything other has counted, as if this sketch had seen it too.
+	 * @param other - a sketch with the same precision.
+	 */
+	public void merge(HyperLogLog other) {
+		if (other == this) {
+			return;
+		}
+		if (other.p != p) {
+			throw new IllegalArgumentException("Can only merge sketches with the same precision: " + p + " and " + other.p);
+		}
+		if (other.registers == null) {
+			for (int i = 0; i < other.sparseCount; i++) {
+				mergeSparse(other.sparse[i]);
+			}
+			for (int i = 0; i < other.bufferCount; i++) {
+				mergeSparse(other.buffer[i]);
+			}
+			return;
+		}
+		if (registers == null) {
+			toDense();
+		}
+		for (int i = 0; i < m; i++) {
+			if (registers[i] < other.registers[i]) {
+				registers[i] = other.registers[i];
+			}
+		}
+	}
+
+	private void mergeSparse(int entry) {
+		if (registers == null) {
+			addSparse(entry);
+		} else {
+			foldIntoRegisters(entry);
+		}
+	}
+
+	/**
+	 * @return true while the sketch is still a sparse list, false once it has registers.
+	 */
+	public boolean isSparse() {
+		return registers == null;
+	}
+
+	/**
+	 * @return how many bits of the hash pick a register.
+	 */
+	public int precision() {
+		return p;
+	}
+
+	/**
+	 * @return about how much memory this sketch takes now.
+	 */
+	public long estimatedBytes() {
+		if (registers != null) {
+			return 16 + m + 64;
+		}
+		return 16 + 4L * sparse.length + 16 + 4L * buffer.length + 64;
+	}
+
+	@Override
+	public String toString() {
+		return "HyperLogLog(p=" + p + (isSparse() ? ", sparse" : ", dense") + ", estimate=" + estimate() + ")";
+	}
+}
@@ -13,7 +13,7 @@ import java.util.concurrent.ThreadLocalRandom;
  * @param <T>
  */
 public class UniversalHash<T> {
-	UniversalIntHash hasher;
+	final UniversalIntHash hasher;
 	
 	// just get random numbers
 	public UniversalHash() {
@@ -34,6 +34,12 @@ public class UniversalHash<T> {
 	public int hash(T object) {
 		return Math.abs(this.hasher.hash(object.hashCode()));
 	}
+
+	// the same hash, for code that keeps a and b in a primitive list instead of making UniversalHash objects.
+	// Never negative, so callers can just % their size: Math.abs of Integer.MIN_VALUE is still negative, so that one value becomes 0.
+	public static int hash(long a, long b, int hashCode) {
+		return Math.abs((int) (((a * hashCode) + b) % UniversalHash.UniversalIntHash.NinthMersennePrime)) & Integer.MAX_VALUE;
+	}
 	
 	/**
 	 * re-hash any int you want
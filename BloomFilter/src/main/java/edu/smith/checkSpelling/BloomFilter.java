@@ -1,30 +1,51 @@
 package edu.smith.checkSpelling;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.AbstractSet;
-import java.util.BitSet;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
 
+import edu.smith.bloom.HyperLogLog;
 import edu.smith.bloom.UniversalHash;
-import edu.smith.listADT.JavaList;
-import edu.smith.listADT.ListADT;
+import edu.smith.listADT.LongListADT;
 
 /**
  * A Bloom Filter is a probabilistic data structure.
  * It supports the methods insert and contains, however its contains method can return false positives.
  * This data structure is more space efficient than a HashSet because it does not retain the actual values it stores.
  * This version extends AbstractSet<String> so we can call the timeLookup method in the CheckSpelling class.
+ * Once you are done inserting, any number of threads may call contains at the same time.
+ *
+ * To keep copies of a filter up to date somewhere else (another process, another machine), send the whole thing once
+ * with toBytes/fromBytes; after that, deltaSince sends only the 64-bit words that changed, and applyDelta updates the copy.
+ * Every change bumps the version, and a delta says which version it starts from, so a copy can't apply one out of order.
  * @author sivan
  */
-public class BloomFilter extends AbstractSet<String>{
+public class BloomFilter extends AbstractSet<String> implements MemoryFootprint {
+	/**
+	 * The first byte of toBytes.
+	 */
+	private static final byte FULL = 1;
+	/**
+	 * The first byte of deltaSince.
+	 */
+	private static final byte DELTA = 2;
+
 	// This variable keeps track of the size of the Bloom Filter's bits array.
-	private int size;
-	// This is the bits array in which the Bloom Filter "stores" values inserted into it.
-	private BitSet bits;
+	private final int size;
+	// This is the bits array in which the Bloom Filter "stores" values inserted into it: bit i is bit i%64 of words[i/64].
+	// (A BitSet keeps its bits the same way; keeping the longs ourselves lets a delta copy them directly.)
+	private final long[] words;
 	// This variable keeps track of how many hashes the Bloom Filter is using.
-	private int numHash;
-	// This is a list of the hashes the Bloom Filter is using.
-	private ListADT<UniversalHash<String>> hashes;
-	
+	private final int numHash;
+	// These are the hashes the Bloom Filter is using: the a and b of each UniversalHash, one after the other.
+	// Keeping the numbers in a LongListADT means no UniversalHash objects to chase on every lookup.
+	private final LongListADT hashes;
+	// This counts changes: inserts that set a new bit, and deltas applied.
+	private long version;
+
 	/**
 	 * Bloom Filter constructor.
 	 * The user is responsible for picking a reasonable size and number of hash functions
@@ -34,32 +55,95 @@ public class BloomFilter extends AbstractSet<String>{
 	 */
 	public BloomFilter(int size, int numHash) {
 		this.size = size;
-		bits = new BitSet(size);
+		words = new long[(size + 63) >>> 6];
 		this.numHash = numHash;
-		hashes = new JavaList<UniversalHash<String>>();
-		// Create the hash functions for the Bloom Filter.
+		hashes = new LongListADT(2 * numHash);
+		// Create the hash functions for the Bloom Filter (random numbers, like new UniversalHash<>() picks).
 		for (int i=0; i<numHash; i++) {
-			hashes.addBack(new UniversalHash<>());
+			hashes.addBack(ThreadLocalRandom.current().nextLong());
+			hashes.addBack(ThreadLocalRandom.current().nextLong());
 		}
 	}
-	
+
+	/**
+	 * Make a filter the right size for a number of keys: m = -n ln(fpp) / (ln 2)^2 bits and k = (m/n) ln 2 hashes.
+	 * @param expectedKeys - how many different keys will be inserted.
+	 * @param falsePositiveRate - the fraction of non-keys contains may say yes to (e.g. 0.01).
+	 * @return an empty filter.
+	 */
+	public static BloomFilter forKeys(long expectedKeys, double falsePositiveRate) {
+		if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+			throw new IllegalArgumentException("The false positive rate must be between 0 and 1: " + falsePositiveRate);
+		}
+		long n = Math.max(1, expectedKeys);
+		double bits = Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		if (bits > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many keys for one filter: " + expectedKeys);
+		}
+		int numHash = Math.max(1, (int) Math.round(bits / n * Math.log(2)));
+		return new BloomFilter((int) bits, numHash);
+	}
+
+	/**
+	 * Make a filter the right size for the keys a HyperLogLog counted in a first pass over them.
+	 * It is sized for a few errors above the estimate, so an estimate that came out low doesn't raise the false positive rate.
+	 * @param distinctKeys - a sketch that has seen every key.
+	 * @param falsePositiveRate - the fraction of non-keys contains may say yes to (e.g. 0.01).
+	 * @return an empty filter.
+	 */
+	public static BloomFilter forKeys(HyperLogLog distinctKeys, double falsePositiveRate) {
+		long estimate = distinctKeys.estimate();
+		return forKeys((long) Math.ceil(estimate * (1 + 3 * distinctKeys.relativeError())), falsePositiveRate);
+	}
+
+	/**
+	 * For copy and fromBytes: a filter with the given hash functions and bits.
+	 */
+	private BloomFilter(int size, LongListADT hashes, long[] words, long version) {
+		this.size = size;
+		this.words = words;
+		this.numHash = hashes.size() / 2;
+		this.hashes = hashes;
+		this.version = version;
+	}
+
 	/**
 	 * Insert a value (in this case a word) into the Bloom Filter.
 	 * @param value - the value to be inserted
 	 */
 	public void insert(String value) {
+		add(value);
+	}
+
+	/**
+	 * Insert a value through the Set interface, so code that only knows about Collections can fill a filter.
+	 * @param value - the value to be inserted
+	 * @return true if any bit changed; false means the filter already said it might contain value.
+	 */
+	@Override
+	public boolean add(String value) {
 		// Hash the value to be inserted with all the hash functions.
-		// Take the newly obtained values and set those indices in the bits array to 1/true.		
+		// Take the newly obtained values and set those indices in the bits array to 1/true.
+		int hashCode = value.hashCode();
+		boolean changed = false;
 		for (int i = 0; i < numHash; i++) {
-			int index = hashes.getIndex(i).hash(value) % size;
-			bits.set(index, true);
+			int index = UniversalHash.hash(hashes.getIndex(2 * i), hashes.getIndex(2 * i + 1), hashCode) % size;
+			long bit = 1L << index;
+			if ((words[index >>> 6] & bit) == 0) {
+				words[index >>> 6] |= bit;
+				changed = true;
+			}
+		}
+		if (changed) {
+			version++;
 		}
+		return changed;
 	}
-	
+
 	/**
 	 * Check if the Bloom Filter maybe contains a certain value (in this case, a certain word).
 	 * @param obj - the value we want to know is in the Bloom Filter or not
-	 * @return true if all the index values that the value hashes to are set to 1/true in the bits array 
+	 * @return true if all the index values that the value hashes to are set to 1/true in the bits array
 	 */
 	@Override
 	public boolean contains(Object obj) {
@@ -67,10 +151,12 @@ public class BloomFilter extends AbstractSet<String>{
 		String value = (String) obj;
 		// Hash the value which we are checking if it is in the Bloom Filter with all the hash functions.
 		// If any of the index values generated from the hash in the bits array are set to 0/false,
-		// the item has definitely not been inserted, so return false.		
+		// the item has definitely not been inserted, so return false.
+		int hashCode = value.hashCode();
 		for (int i = 0; i < numHash; i++) {
-			int index = hashes.getIndex(i).hash(value) % size;
-			if (!bits.get(index)) {
+			int index = UniversalHash.hash(hashes.getIndex(2 * i), hashes.getIndex(2 * i + 1), hashCode) % size;
+			// (shifting a long by index only looks at the low 6 bits of index)
+			if ((words[index >>> 6] & (1L << index)) == 0) {
 				return false;
 			}
 		}
@@ -78,7 +164,7 @@ public class BloomFilter extends AbstractSet<String>{
 		// The user should realize that this may be a false positive.
 		return true;
 	}
-	
+
 	@Override
 	public Iterator<String> iterator() {
 		// cannot iterate over this data structure because it doesn't actually store its values
@@ -90,4 +176,230 @@ public class BloomFilter extends AbstractSet<String>{
 		// cannot return how many items are in the filter because there is no way to know without a Counting Filter.
 		return size;
 	}
+
+	/**
+	 * The bits array is nearly all of it: a filter keeps no words at all.
+	 */
+	@Override
+	public long estimatedBytes() {
+		// this object (size, numHash, version, two references), the bits, and the hashes in their LongListADT (array, front, size)
+		return MemoryFootprint.objectBytes(4 + 4 + 8 + 4 + 4) + MemoryFootprint.arrayBytes(words.length, 8)
+				+ MemoryFootprint.objectBytes(4 + 4 + 4) + MemoryFootprint.arrayBytes(hashes.capacity(), 8);
+	}
+
+	/**
+	 * @return how many changes this filter has had. Two filters with the same hashes and version have the same bits.
+	 */
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * @return a filter with the same hash functions, bits and version, which can change without changing this one.
+	 * Keep one to compute the next delta against.
+	 */
+	public BloomFilter copy() {
+		return new BloomFilter(size, hashes, words.clone(), version);
+	}
+
+	/**
+	 * The whole filter as bytes: FULL, the size and number of hashes (varints), the hashes (longs),
+	 * the version (varint), then every word of the bits array.
+	 * @return bytes for fromBytes.
+	 */
+	public byte[] toBytes() {
+		ByteBuffer out = ByteBuffer.allocate(1 + 5 + 5 + 16 * numHash + 10 + 8 * words.length);
+		out.put(FULL);
+		putVarLong(out, size);
+		putVarLong(out, numHash);
+		for (int i = 0; i < hashes.size(); i++) {
+			out.putLong(hashes.getIndex(i));
+		}
+		putVarLong(out, version);
+		for (long w : words) {
+			out.putLong(w);
+		}
+		return Arrays.copyOf(out.array(), out.position());
+	}
+
+	/**
+	 * Make a filter from toBytes's output: same hash functions, bits and version as the one that wrote it.
+	 * @param bytes - what toBytes returned.
+	 * @return the copy.
+	 * @throws IllegalArgumentException if bytes isn't from toBytes.
+	 */
+	public static BloomFilter fromBytes(byte[] bytes) {
+		ByteBuffer in = ByteBuffer.wrap(bytes);
+		try {
+			if (in.get() != FULL) {
+				throw new IllegalArgumentException("Not a whole filter");
+			}
+			long size = getVarLong(in);
+			long numHash = getVarLong(in);
+			if (size <= 0 || size > Integer.MAX_VALUE || numHash < 0 || numHash > in.remaining() / 16) {
+				throw new IllegalArgumentException("Bad filter size " + size + " or number of hashes " + numHash);
+			}
+			LongListADT hashes = new LongListADT(2 * (int) numHash);
+			for (int i = 0; i < 2 * numHash; i++) {
+				hashes.addBack(in.getLong());
+			}
+			long version = getVarLong(in);
+			long[] words = new long[(int) ((size + 63) >>> 6)];
+			if (in.remaining() != 8L * words.length) {
+				throw new IllegalArgumentException("Expected " + words.length + " words of bits but there are " + in.remaining() + " bytes");
+			}
+			in.asLongBuffer().get(words);
+			return new BloomFilter((int) size, hashes, words, version);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Filter bytes end early", e);
+		}
+	}
+
+	/**
+	 * What changed since an earlier copy of this filter: DELTA, the size (varint), a fingerprint of the hashes (long),
+	 * the two versions and the number of runs (varints), then each run of changed words:
+	 * how many unchanged words come before it (varint), how long it is (varint), and its new words (longs).
+	 * @param previous - a copy of this filter (from copy or fromBytes), from some earlier version.
+	 * @return bytes for applyDelta; only the runs make it grow, so it's small when few words changed.
+	 * @throws IllegalArgumentException if previous isn't an earlier copy of this filter.
+	 */
+	public byte[] deltaSince(BloomFilter previous) {
+		if (previous.size != size || previous.fingerprint() != fingerprint()) {
+			throw new IllegalArgumentException("Not a copy of this filter: it has different hash functions");
+		}
+		if (previous.version > version) {
+			throw new IllegalArgumentException("The copy is newer (version " + previous.version + ") than this filter (" + version + ")");
+		}
+		// first count, to know how big the delta will be
+		int changed = 0;
+		int runs = 0;
+		for (int i = 0; i < words.length; i++) {
+			if (words[i] != previous.words[i]) {
+				changed++;
+				if (i == 0 || words[i - 1] == previous.words[i - 1]) {
+					runs++;
+				}
+			}
+		}
+		ByteBuffer out = ByteBuffer.allocate(1 + 5 + 8 + 10 + 10 + 5 + runs * 10 + changed * 8);
+		out.put(DELTA);
+		putVarLong(out, size);
+		out.putLong(fingerprint());
+		putVarLong(out, previous.version);
+		putVarLong(out, version);
+		putVarLong(out, runs);
+		int i = 0;
+		int end = 0;
+		while (runs-- > 0) {
+			while (words[i] == previous.words[i]) {
+				i++;
+			}
+			int start = i;
+			while (i < words.length && words[i] != previous.words[i]) {
+				i++;
+			}
+			putVarLong(out, start - end);
+			putVarLong(out, i - start);
+			for (int j = start; j < i; j++) {
+				out.putLong(words[j]);
+			}
+			end = i;
+		}
+		return Arrays.copyOf(out.array(), out.position());
+	}
+
+	/**
+	 * Bring this copy up to date with a delta from the original's deltaSince.
+	 * Like insert, don't call it while other threads call contains.
+	 * @param delta - bytes from deltaSince.
+	 * @throws IllegalStateException if the delta starts from a different version than this filter has
+	 * (apply the ones in between first, or start over with fromBytes); the filter is unchanged.
+	 * @throws IllegalArgumentException if delta isn't a delta for this filter; the filter is unchanged.
+	 */
+	public void applyDelta(byte[] delta) {
+		ByteBuffer in = ByteBuffer.wrap(delta);
+		try {
+			if (in.get() != DELTA) {
+				throw new IllegalArgumentException("Not a delta");
+			}
+			if (getVarLong(in) != size || in.getLong() != fingerprint()) {
+				throw new IllegalArgumentException("The delta is for a different filter");
+			}
+			long from = getVarLong(in);
+			long to = getVarLong(in);
+			if (to < from) {
+				throw new IllegalArgumentException("The delta goes backwards, from version " + from + " to " + to);
+			}
+			if (from != version) {
+				throw new IllegalStateException("This filter is at version " + version + " but the delta goes from " + from + " to " + to);
+			}
+			long runs = getVarLong(in);
+			int body = in.position();
+			// Go through twice: first check every run fits, then copy the words,
+			// so a damaged delta can't leave the filter half changed.
+			for (int pass = 0; pass < 2; pass++) {
+				in.position(body);
+				long at = 0;
+				for (long r = 0; r < runs; r++) {
+					long gap = getVarLong(in);
+					long length = getVarLong(in);
+					if (gap < 0 || gap > words.length - at || length <= 0 || length > words.length - at - gap || length > in.remaining() / 8) {
+						throw new IllegalArgumentException("Damaged delta: a run doesn't fit");
+					}
+					at += gap;
+					if (pass == 0) {
+						in.position(in.position() + 8 * (int) length);
+					} else {
+						for (int j = 0; j < length; j++) {
+							words[(int) at + j] = in.getLong();
+						}
+					}
+					at += length;
+				}
+				if (in.hasRemaining()) {
+					throw new IllegalArgumentException("Damaged delta: extra bytes at the end");
+				}
+			}
+			version = to;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Delta ends early", e);
+		}
+	}
+
+	/**
+	 * @return a number that is (almost certainly) different for filters with different hash functions.
+	 */
+	private long fingerprint() {
+		long f = size;
+		for (int i = 0; i < hashes.size(); i++) {
+			f = f * 0x9E3779B97F4A7C15L + hashes.getIndex(i);
+		}
+		return f;
+	}
+
+	/**
+	 * Write a number 7 bits at a time, low bits first; the top bit of each byte says whether more follow.
+	 */
+	private static void putVarLong(ByteBuffer out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	/**
+	 * Read a number putVarLong wrote.
+	 */
+	private static long getVarLong(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Bad number: more than 10 bytes");
+	}
 }
@@ -1,40 +1,37 @@
 package edu.smith.checkSpelling;
 
 import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
 
 /**
  * This is a Character Trie that stores Strings!
+ * Once it is built, many threads may call contains at the same time.
  * @author jfoley
  *
  */
-public class CharTrie extends AbstractSet<String> {
+public class CharTrie extends AbstractSet<String> implements MemoryFootprint {
 	/**
 	 * The nodes don't actually store characters in them - the links do.
 	 */
-	Node root = new Node();
+	final Node root = new Node();
 	/**
 	 * This gets updated to account for the size.
 	 */
 	int size = 0;
 
 	public void insert(String word) {
-		LinkedList<Character> chars = new LinkedList<>();
-		for (char c : word.toCharArray()) {
-			chars.add(c);
-		}
-		root.insert(chars);
+		root.insert(word, 0);
 		size++;
 	}
 	
+	/**
+	 * Walking the String by position (instead of copying it into a list of Characters first) means a lookup allocates nothing.
+	 */
 	public boolean contains(Object o) {
 		String word = (String) o;
-		LinkedList<Character> chars = new LinkedList<>();
-		for (char c : word.toCharArray()) {
-			chars.add(c);
-		}
-		return root.find(chars);
+		return root.find(word, 0);
 	}
 	
 	/**
@@ -76,13 +73,14 @@ public class CharTrie extends AbstractSet<String> {
 		
 		/**
 		 * Insert a word in this trie (or a suffix of a word, because recursion).
-		 * @param chars - a list of characters that used to be a word.
+		 * @param word - the word.
+		 * @param at - where the suffix that belongs under this node starts.
 		 */
-		public void insert(LinkedList<Character> chars) {
-			if (chars.isEmpty()) {
+		public void insert(String word, int at) {
+			if (at == word.length()) {
 				this.terminal = true;
 			} else {
-				char c = chars.pollFirst();
+				char c = word.charAt(at);
 				int link = getLinkIndex(c);
 				if (link == -1) {
 					throw new RuntimeException("Bad Character: "+ c);
@@ -90,27 +88,28 @@ public class CharTrie extends AbstractSet<String> {
 				if (links[link] == null) {
 					links[link] = new Node();
 				}
-				links[link].insert(chars);
+				links[link].insert(word, at + 1);
 			}
 		}
 		
 		/**
 		 * Find a word in this trie (or a suffix of a word, because recursion).
-		 * @param chars - a list of characters that used to be a word.
+		 * @param word - the word.
+		 * @param at - where the suffix to look for under this node starts.
 		 * @return true if this trie contains that word.
 		 */
-		public boolean find(LinkedList<Character> chars) {
-			if (chars.isEmpty()) {
+		public boolean find(String word, int at) {
+			if (at == word.length()) {
 				return this.terminal;
 			} else {
-				int link = getLinkIndex(chars.pollFirst());
+				int link = getLinkIndex(word.charAt(at));
 				if (link == -1) {
 					return false;
 				}
 				if (links[link] == null) {
 					return false;
 				}
-				return links[link].find(chars);
+				return links[link].find(word, at + 1);
 			}
 		}
 		
@@ -147,12 +146,210 @@ public class CharTrie extends AbstractSet<String> {
 	}
 
 	/**
-	 * We would need to create an object that kept the recursion state around.
-	 * We will talk about depth-first search (part of the solution to this) next week.
+	 * Every node costs the same: the node (terminal, links) and its array of 27 links, used or not.
+	 * That is why this trie is so big.
+	 */
+	@Override
+	public long estimatedBytes() {
+		long perNode = MemoryFootprint.objectBytes(1 + 4) + MemoryFootprint.arrayBytes(27, 4);
+		// this object (root, size), then the nodes
+		return MemoryFootprint.objectBytes(4 + 4) + perNode * countNodes();
+	}
+
+	/**
+	 * We need an object that keeps the recursion state around: that is {@link TrieIterator}.
+	 * Words come out lower-case, in sorted order, each one once (so "Aaron" and "aaron" are one word,
+	 * even though size counted both inserts).
 	 */
 	@Override
 	public Iterator<String> iterator() {
-		throw new UnsupportedOperationException("Trie Traversal is really hard.");
+		return new TrieIterator(root, "");
+	}
+
+	/**
+	 * Walk down to the node for a prefix.
+	 * @param prefix - the start of some words.
+	 * @return the node, or null if no word starts with prefix.
+	 */
+	private Node findNode(String prefix) {
+		Node node = root;
+		for (int i = 0; i < prefix.length() && node != null; i++) {
+			int link = node.getLinkIndex(prefix.charAt(i));
+			if (link == -1) {
+				return null;
+			}
+			node = node.links[link];
+		}
+		return node;
+	}
+
+	/**
+	 * Every word that starts with a prefix, in sorted order, found lazily (good for autocomplete).
+	 * @param prefix - the start of the words we want.
+	 * @return an iterator over those words (lower-case).
+	 */
+	public Iterator<String> prefixIterator(String prefix) {
+		Node start = findNode(prefix);
+		if (start == null) {
+			return new TrieIterator(null, "");
+		}
+		// spell the prefix the way findNode walked it (String.toLowerCase depends on the locale, and can even change the length)
+		char[] walked = new char[prefix.length()];
+		for (int i = 0; i < walked.length; i++) {
+			walked[i] = TrieIterator.LETTERS[root.getLinkIndex(prefix.charAt(i))];
+		}
+		return new TrieIterator(start, new String(walked));
+	}
+
+	/**
+	 * Count the distinct words that start with a prefix.
+	 * This visits every node under the prefix, with our own stack instead of recursion.
+	 * @param prefix - the start of the words we want.
+	 * @return how many there are.
+	 */
+	public int countWithPrefix(String prefix) {
+		Node start = findNode(prefix);
+		if (start == null) {
+			return 0;
+		}
+		int count = 0;
+		Node[] stack = new Node[16];
+		stack[0] = start;
+		int top = 1;
+		while (top > 0) {
+			Node node = stack[--top];
+			if (node.terminal) {
+				count++;
+			}
+			for (Node child : node.links) {
+				if (child != null) {
+					if (top == stack.length) {
+						stack = Arrays.copyOf(stack, top * 2);
+					}
+					stack[top++] = child;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * A depth-first search that we can pause after every word.
+	 * Instead of recursion, it keeps its own stack: which node we are in at each depth,
+	 * and which of that node's links we try next. Each call to next does a bounded amount of work
+	 * per node it passes, and nothing is ever collected into a list.
+	 */
+	private static class TrieIterator implements Iterator<String> {
+		/**
+		 * The order to try links in, so words come out sorted: '-' sorts before 'a'.
+		 */
+		private static final int[] ORDER = {26, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12,
+				13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25};
+		/**
+		 * The character for each link index.
+		 */
+		private static final char[] LETTERS = "abcdefghijklmnopqrstuvwxyz-".toCharArray();
+
+		/**
+		 * nodes[d] is the node at depth d of the current path.
+		 */
+		private Node[] nodes = new Node[16];
+		/**
+		 * positions[d] is the next place in ORDER to try at depth d, or -1 if we haven't looked at nodes[d] yet.
+		 */
+		private int[] positions = new int[16];
+		/**
+		 * How many entries of nodes are in use.
+		 */
+		private int depth;
+		/**
+		 * The characters of the current path, after the prefix.
+		 */
+		private char[] path = new char[16];
+		/**
+		 * The prefix every word starts with.
+		 */
+		private final String prefix;
+		/**
+		 * The word next() will return, or null if we need to look for it.
+		 */
+		private String next;
+
+		/**
+		 * @param start - the node to search under (null for nothing at all).
+		 * @param prefix - the word that leads to start.
+		 */
+		TrieIterator(Node start, String prefix) {
+			this.prefix = prefix;
+			if (start != null) {
+				nodes[0] = start;
+				positions[0] = -1;
+				depth = 1;
+			}
+		}
+
+		/**
+		 * Run the search until it finds the next word (or runs out).
+		 */
+		private void advance() {
+			while (depth > 0) {
+				int d = depth - 1;
+				Node node = nodes[d];
+				int pos = positions[d];
+				if (pos == -1) {
+					// first visit: a word that ends here comes before every longer word below it
+					positions[d] = 0;
+					if (node.terminal) {
+						next = prefix + new String(path, 0, d);
+						return;
+					}
+					pos = 0;
+				}
+				while (pos < ORDER.length && node.links[ORDER[pos]] == null) {
+					pos++;
+				}
+				if (pos == ORDER.length) {
+					// nothing left under this node; go back up
+					depth--;
+					continue;
+				}
+				positions[d] = pos + 1;
+				push(node.links[ORDER[pos]], LETTERS[ORDER[pos]]);
+			}
+		}
+
+		/**
+		 * Go down one level.
+		 */
+		private void push(Node child, char c) {
+			if (depth == nodes.length) {
+				nodes = Arrays.copyOf(nodes, depth * 2);
+				positions = Arrays.copyOf(positions, depth * 2);
+				path = Arrays.copyOf(path, depth * 2);
+			}
+			path[depth - 1] = c;
+			nodes[depth] = child;
+			positions[depth] = -1;
+			depth++;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				advance();
+			}
+			return next != null;
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String word = next;
+			next = null;
+			return word;
+		}
 	}
 
 	/**
@@ -46,8 +46,9 @@ public class CheckSpelling {
 			throw new RuntimeException("Couldn't find the book.", e);
 		}
 		// split all that text into the individual words
+		WordTokenizer tokenizer = new WordTokenizer();
 		for (String s : lines) {
-			words.addAll(WordSplitter.splitTextToWords(s));
+			tokenizer.tokenize(s, token -> words.add(token.toString()));
 		}
 		long end = System.nanoTime();
 		double time = (end - start) / 1e9;
@@ -61,6 +62,16 @@ public class CheckSpelling {
 	 * @param dictionary - the data structure.
 	 */
 	public static void timeLookup(List<String> words, Collection<String> dictionary) {
+		timeLookup(words, dictionary, 0);
+	}
+	
+	/**
+	 * This method looks for all the words in a dictionary, and prints how big it is next to how fast it was.
+	 * @param words - the "queries"
+	 * @param dictionary - the data structure.
+	 * @param keys - how many words the dictionary was built from (0 to leave out its size).
+	 */
+	public static void timeLookup(List<String> words, Collection<String> dictionary, int keys) {
 		long startLookup = System.nanoTime();
 		
 		int found = 0;
@@ -74,7 +85,7 @@ public class CheckSpelling {
 		double fractionFound = found / (double) words.size();
 		double timeSpentPerItem = (endLookup - startLookup) / ((double) words.size());
 		int nsPerItem = (int) timeSpentPerItem;
-		System.out.println("Lookup of items found="+fractionFound+" time="+nsPerItem+" ns/item");
+		System.out.println("Lookup of items found="+fractionFound+" time="+nsPerItem+" ns/item"+footprint(dictionary, 0, keys));
 	}
 	
 	/**
@@ -87,6 +98,18 @@ public class CheckSpelling {
 	 * @param bloom - the assisting bloom filter.
 	 */
 	public static void timeLookupBloom(List<String> words, Collection<String> dictionary, BloomFilter bloom) {
+		timeLookupBloom(words, dictionary, bloom, 0);
+	}
+	
+	/**
+	 * This method looks for all the words in a dictionary with a bloom filter in front,
+	 * and prints how big the two are together next to how fast it was.
+	 * @param words - the "queries"
+	 * @param dictionary - the data structure.
+	 * @param bloom - the assisting bloom filter.
+	 * @param keys - how many words the dictionary was built from (0 to leave out its size).
+	 */
+	public static void timeLookupBloom(List<String> words, Collection<String> dictionary, BloomFilter bloom, int keys) {
 		long startLookup = System.nanoTime();
 		
 		int found = 0;
@@ -102,11 +125,27 @@ public class CheckSpelling {
 		double fractionFound = found / (double) words.size();
 		double timeSpentPerItem = (endLookup - startLookup) / ((double) words.size());
 		int nsPerItem = (int) timeSpentPerItem;
-		System.out.println(dictionary.getClass().getSimpleName()+" with Bloom assistance: Lookup of items found="+fractionFound+" time="+nsPerItem+" ns/item");
+		System.out.println(dictionary.getClass().getSimpleName()+" with Bloom assistance: Lookup of items found="+fractionFound+" time="+nsPerItem+" ns/item"+footprint(dictionary, bloom.estimatedBytes(), keys));
+	}
+	
+	/**
+	 * Say how much memory a dictionary takes (not counting the words themselves), for the end of a timing line.
+	 * @param dictionary - the data structure.
+	 * @param extraBytes - memory it needs besides its own (like a bloom filter in front of it).
+	 * @param keys - how many words it was built from.
+	 * @return " bytes=... bits/word=...", or "" if keys is 0 or it can't say (TreeSet and HashSet can't).
+	 */
+	private static String footprint(Collection<String> dictionary, long extraBytes, int keys) {
+		if (keys == 0 || !(dictionary instanceof MemoryFootprint)) {
+			return "";
+		}
+		long bytes = ((MemoryFootprint) dictionary).estimatedBytes() + extraBytes;
+		return String.format(" bytes=%d bits/word=%.1f", bytes, bytes * 8.0 / keys);
 	}
 	
 	/**
-	 * Creates a data set with some real and some not real words
+	 * Creates a data set with some real and some not real words.
+	 * This is unseeded and uniform; see {@link WorkloadGenerator} for repeatable, skewed, or very large data sets.
 	 * @param yesWords Words that are in the dictionary
 	 * @param numSamples the number of words you want in the dataset
 	 * @param fractionYes the fraction of real words you want in the data set
@@ -118,11 +157,13 @@ public class CheckSpelling {
 		int n = 0;
 		int yesWordsSize = yesWords.size();
 		// Add words from the dictionary to the output list randomly, without repeats
+		// (remembered in a HashSet, because output.contains would make this quadratic)
 		Random generator = new Random();
+		HashSet<String> used = new HashSet<>();
 		while (n < numSamples * fractionYes) {
 			int r = generator.nextInt(yesWordsSize);
 			String word = yesWords.get(r);
-			if (output.contains(word)) {
+			if (!used.add(word)) {
 				continue;
 			}
 			else {
@@ -209,26 +250,26 @@ public class CheckSpelling {
 		System.out.println("Looking up all the words in the dictionary: ");
 		// --- Make sure that every word in the dictionary is in the dictionary:
 		System.out.print("TreeSet: ");
-		timeLookup(listOfWords, treeOfWords);
+		timeLookup(listOfWords, treeOfWords, listOfWords.size());
 		System.out.print("HashSet: ");
-		timeLookup(listOfWords, hashOfWords);
+		timeLookup(listOfWords, hashOfWords, listOfWords.size());
 		System.out.print("SortedStringListSet: ");
-		timeLookup(listOfWords, bsl);
+		timeLookup(listOfWords, bsl, listOfWords.size());
 		System.out.print("CharTrie: ");
-		timeLookup(listOfWords, trie);
+		timeLookup(listOfWords, trie, listOfWords.size());
 		System.out.print("LLHash: ");
-		timeLookup(listOfWords, hm100k);
+		timeLookup(listOfWords, hm100k, listOfWords.size());
 		System.out.print("BloomFilter: ");
-		timeLookup(listOfWords, bloom);
+		timeLookup(listOfWords, bloom, listOfWords.size());
 		
 		// Test that every word in the dictionary is in the dictionary with the Bloom Filter.
 		System.out.println("");
 		System.out.println("Bloom filter assistance, looking up all the words in the dictionary: ");
-		timeLookupBloom(listOfWords, treeOfWords, bloom);
-		timeLookupBloom(listOfWords, hashOfWords, bloom);
-		timeLookupBloom(listOfWords, bsl, bloom);
-		timeLookupBloom(listOfWords, trie, bloom);
-		timeLookupBloom(listOfWords, hm100k, bloom);
+		timeLookupBloom(listOfWords, treeOfWords, bloom, listOfWords.size());
+		timeLookupBloom(listOfWords, hashOfWords, bloom, listOfWords.size());
+		timeLookupBloom(listOfWords, bsl, bloom, listOfWords.size());
+		timeLookupBloom(listOfWords, trie, bloom, listOfWords.size());
+		timeLookupBloom(listOfWords, hm100k, bloom, listOfWords.size());
 		
 		System.out.println("");
 		System.out.println("Mixed data set checking: ");
@@ -238,17 +279,17 @@ public class CheckSpelling {
 			
 			// --- Time the data structures.
 			System.out.print("TreeSet: ");
-			timeLookup(hitsAndMisses, treeOfWords);
+			timeLookup(hitsAndMisses, treeOfWords, listOfWords.size());
 			System.out.print("HashSet: ");
-			timeLookup(hitsAndMisses, hashOfWords);
+			timeLookup(hitsAndMisses, hashOfWords, listOfWords.size());
 			System.out.print("SortedStringListSet: ");
-			timeLookup(hitsAndMisses, bsl);
+			timeLookup(hitsAndMisses, bsl, listOfWords.size());
 			System.out.print("CharTrie: ");
-			timeLookup(hitsAndMisses, trie);
+			timeLookup(hitsAndMisses, trie, listOfWords.size());
 			System.out.print("LLHash: ");
-			timeLookup(hitsAndMisses, hm100k);
+			timeLookup(hitsAndMisses, hm100k, listOfWords.size());
 			System.out.print("BloomFilter: ");
-			timeLookup(hitsAndMisses, bloom);
+			timeLookup(hitsAndMisses, bloom, listOfWords.size());
 		}
 		
 		System.out.println("");
@@ -258,11 +299,11 @@ public class CheckSpelling {
 			List<String> hitsAndMisses = createMixedDataset(listOfWords, 10_000, i/10.0);
 			
 			// --- Time the data structures with assistance from the Bloom Filter
-			timeLookupBloom(hitsAndMisses, treeOfWords, bloom);
-			timeLookupBloom(hitsAndMisses, hashOfWords, bloom);
-			timeLookupBloom(hitsAndMisses, bsl, bloom);
-			timeLookupBloom(hitsAndMisses, trie, bloom);
-			timeLookupBloom(hitsAndMisses, hm100k, bloom);
+			timeLookupBloom(hitsAndMisses, treeOfWords, bloom, listOfWords.size());
+			timeLookupBloom(hitsAndMisses, hashOfWords, bloom, listOfWords.size());
+			timeLookupBloom(hitsAndMisses, bsl, bloom, listOfWords.size());
+			timeLookupBloom(hitsAndMisses, trie, bloom, listOfWords.size());
+			timeLookupBloom(hitsAndMisses, hm100k, bloom, listOfWords.size());
 		}
 		
 		// See how long it takes the data structures to find all the words in the book
@@ -270,26 +311,26 @@ public class CheckSpelling {
 		System.out.println("Looking for words in a book: ");
 		List<String> book = loadBook();
 		System.out.print("TreeSet: ");
-		timeLookup(book, treeOfWords);
+		timeLookup(book, treeOfWords, listOfWords.size());
 		System.out.print("HashSet: ");
-		timeLookup(book, hashOfWords);
+		timeLookup(book, hashOfWords, listOfWords.size());
 		System.out.print("SortedStringListSet: ");
-		timeLookup(book, bsl);
+		timeLookup(book, bsl, listOfWords.size());
 		System.out.print("CharTrie: ");
-		timeLookup(book, trie);
+		timeLookup(book, trie, listOfWords.size());
 		System.out.print("LLHash: ");
-		timeLookup(book, hm100k);
+		timeLookup(book, hm100k, listOfWords.size());
 		System.out.print("BloomFilter: ");
-		timeLookup(book, bloom);
+		timeLookup(book, bloom, listOfWords.size());
 		
 		// See how long it takes the data structures to find all the words in the book with assistance from the Bloom Filter
 		System.out.println("");
 		System.out.println("Bloom filter assistance, looking for words in a book: ");
-		timeLookupBloom(book, treeOfWords, bloom);
-		timeLookupBloom(book, hashOfWords, bloom);
-		timeLookupBloom(book, bsl, bloom);
-		timeLookupBloom(book, trie, bloom);
-		timeLookupBloom(book, hm100k, bloom);
+		timeLookupBloom(book, treeOfWords, bloom, listOfWords.size());
+		timeLookupBloom(book, hashOfWords, bloom, listOfWords.size());
+		timeLookupBloom(book, bsl, bloom, listOfWords.size());
+		timeLookupBloom(book, trie, bloom, listOfWords.size());
+		timeLookupBloom(book, hm100k, bloom, listOfWords.size());
 	}
 }
 
@@ -0,0 +1,480 @@
+package edu.smith.checkSpelling;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This is a Character Trie like {@link CharTrie}, but smaller and faster.
+ * CharTrie copies every word into a LinkedList of boxed Characters and gives every node its own object
+ * with room for 27 links, even though most nodes have zero or one child.
+ *
+ * Here there are no node objects at all. A node is just a number, and everything about it lives in flat arrays:
+ * the links of node n are the slots edgeStart[n] to edgeStart[n]+edgeCount[n] of labels (sorted) and targets.
+ * Lookups walk the word with a loop, touch only primitive arrays, and allocate nothing.
+ *
+ * When a node runs out of room for links, its links move to the end of the arrays with twice the room,
+ * which leaves holes behind. Call {@link #compact()} once you are done inserting: it squeezes out the holes
+ * and renumbers the nodes breadth-first, so the top of the trie (which every lookup goes through) sits together in memory.
+ * In that order the link in slot i always goes to node i+1, and node n's links end where node n+1's start,
+ * so a compacted trie throws away targets, edgeCount and edgeCapacity and keeps just edgeStart, labels and terminal.
+ * Inserting into a compacted trie rebuilds them first.
+ *
+ * Like CharTrie, letters are folded to lower case, so "Aaron" and "aaron" are the same word.
+ * Unlike CharTrie, any character is allowed, and size only counts distinct words.
+ * Once it is built, many threads may call contains at the same time.
+ * @author sivan
+ */
+public class CompactCharTrie extends AbstractSet<String> {
+	/**
+	 * Node 0 is the root.
+	 */
+	private static final int ROOT = 0;
+
+	// Everything about node n, by node number:
+	/**
+	 * Where node n's links start in labels and targets.
+	 * When compacted, this has one extra entry at the end, so node n's links end at edgeStart[n+1].
+	 */
+	private int[] edgeStart;
+	/**
+	 * How many links node n has (null when compacted).
+	 */
+	private int[] edgeCount;
+	/**
+	 * How many links node n has room for before they have to move (null when compacted).
+	 */
+	private int[] edgeCapacity;
+	/**
+	 * Did a word end at node n?
+	 */
+	private boolean[] terminal;
+	/**
+	 * How many nodes there are, root included.
+	 */
+	private int numNodes;
+
+	// Everything about the links, by slot:
+	/**
+	 * The character on each link; sorted within each node.
+	 */
+	private char[] labels;
+	/**
+	 * The node each link goes to (null when compacted, because it is always slot + 1).
+	 */
+	private int[] targets;
+	/**
+	 * The first slot no node has claimed yet.
+	 */
+	private int slotsUsed;
+
+	/**
+	 * How many distinct words are in here.
+	 */
+	private int size;
+
+	/**
+	 * Construct an empty trie.
+	 */
+	public CompactCharTrie() {
+		edgeStart = new int[16];
+		edgeCount = new int[16];
+		edgeCapacity = new int[16];
+		terminal = new boolean[16];
+		labels = new char[16];
+		targets = new int[16];
+		numNodes = 1;
+	}
+
+	/**
+	 * Construct a trie holding some words, already compacted.
+	 * @param words - the words to insert.
+	 */
+	public CompactCharTrie(Collection<String> words) {
+		this();
+		for (String w : words) {
+			insert(w);
+		}
+		compact();
+	}
+
+	/**
+	 * Fold a character the same way CharTrie does.
+	 */
+	static char fold(char c) {
+		if (c < 128) {
+			return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+		}
+		return Character.toLowerCase(c);
+	}
+
+	/**
+	 * Find the link for a character.
+	 * Most nodes have a handful of links, so a straight scan beats a binary search until they get wide.
+	 * @param node - the node to look in.
+	 * @param c - the (lower-case) character.
+	 * @return the slot of the link, or -(insertion slot) - 1 if there isn't one.
+	 */
+	private int findSlot(int node, char c) {
+		int start = edgeStart[node];
+		int end = targets == null ? edgeStart[node + 1] : start + edgeCount[node];
+		if (end - start > 8) {
+			return Arrays.binarySearch(labels, start, end, c);
+		}
+		for (int i = start; i < end; i++) {
+			char label = labels[i];
+			if (label == c) {
+				return i;
+			}
+			if (label > c) {
+				return -i - 1;
+			}
+		}
+		return -end - 1;
+	}
+
+	/**
+	 * Insert a word into the trie.
+	 * @param word - the word to add.
+	 * @return true if it was new.
+	 */
+	public boolean insert(CharSequence word) {
+		if (targets == null) {
+			expand();
+		}
+		int node = ROOT;
+		for (int i = 0; i < word.length(); i++) {
+			char c = fold(word.charAt(i));
+			int slot = findSlot(node, c);
+			if (slot >= 0) {
+				node = targets[slot];
+			} else {
+				node = addLink(node, -slot - 1, c);
+			}
+		}
+		if (terminal[node]) {
+			return false;
+		}
+		terminal[node] = true;
+		size++;
+		return true;
+	}
+
+	@Override
+	public boolean add(String word) {
+		return insert(word);
+	}
+
+	/**
+	 * Give a node a new link (to a brand-new node), keeping its labels sorted.
+	 * @param node - the parent.
+	 * @param slot - where the label goes (from findSlot).
+	 * @param c - the label.
+	 * @return the new child.
+	 */
+	private int addLink(int node, int slot, char c) {
+		int child = newNode();
+		int count = edgeCount[node];
+		if (count == edgeCapacity[node]) {
+			// no room: move this node's links to the end, with twice as much room.
+			int offset = slot - edgeStart[node];
+			int capacity = Math.max(1, count * 2);
+			int start = claimSlots(capacity);
+			System.arraycopy(labels, edgeStart[node], labels, start, count);
+			System.arraycopy(targets, edgeStart[node], targets, start, count);
+			edgeStart[node] = start;
+			edgeCapacity[node] = capacity;
+			slot = start + offset;
+		}
+		// shift the bigger labels over by one
+		int end = edgeStart[node] + count;
+		System.arraycopy(labels, slot, labels, slot + 1, end - slot);
+		System.arraycopy(targets, slot, targets, slot + 1, end - slot);
+		labels[slot] = c;
+		targets[slot] = child;
+		edgeCount[node] = count + 1;
+		return child;
+	}
+
+	/**
+	 * @return the number of a new node with no links.
+	 */
+	private int newNode() {
+		if (numNodes == edgeStart.length) {
+			int bigger = edgeStart.length * 2;
+			edgeStart = Arrays.copyOf(edgeStart, bigger);
+			edgeCount = Arrays.copyOf(edgeCount, bigger);
+			edgeCapacity = Arrays.copyOf(edgeCapacity, bigger);
+			terminal = Arrays.copyOf(terminal, bigger);
+		}
+		return numNodes++;
+	}
+
+	/**
+	 * @param count - how many link slots we need.
+	 * @return the first of count fresh slots at the end of the link arrays.
+	 */
+	private int claimSlots(int count) {
+		if (slotsUsed + count > labels.length) {
+			int bigger = Math.max(labels.length * 2, slotsUsed + count);
+			labels = Arrays.copyOf(labels, bigger);
+			targets = Arrays.copyOf(targets, bigger);
+		}
+		int start = slotsUsed;
+		slotsUsed += count;
+		return start;
+	}
+
+	/**
+	 * Squeeze out the holes left by growing nodes, and renumber the nodes breadth-first.
+	 * Every array ends up exactly as long as it needs to be, and the ones we can work out are dropped.
+	 * Inserting afterwards still works (it puts them back).
+	 */
+	public void compact() {
+		if (targets == null) {
+			return;
+		}
+		int[] newStart = new int[numNodes + 1];
+		boolean[] newTerminal = new boolean[numNodes];
+		char[] newLabels = new char[numNodes - 1];
+		// order[i] is the old number of the node that becomes node i; it doubles as the BFS queue.
+		int[] order = new int[numNodes];
+		order[0] = ROOT;
+		int next = 1;
+		for (int i = 0; i < numNodes; i++) {
+			int old = order[i];
+			int start = edgeStart[old];
+			int count = edgeCount[old];
+			// each node (but the root) has exactly one incoming link, so slot and new node number line up.
+			newStart[i] = next - 1;
+			newTerminal[i] = terminal[old];
+			for (int j = 0; j < count; j++) {
+				newLabels[next - 1] = labels[start + j];
+				order[next] = targets[start + j];
+				next++;
+			}
+		}
+		newStart[numNodes] = numNodes - 1;
+		edgeStart = newStart;
+		terminal = newTerminal;
+		labels = newLabels;
+		edgeCount = null;
+		edgeCapacity = null;
+		targets = null;
+		slotsUsed = newLabels.length;
+	}
+
+	/**
+	 * Undo the compacted form, so we can insert again.
+	 */
+	private void expand() {
+		// every per-node array has to be the same length for newNode
+		terminal = Arrays.copyOf(terminal, edgeStart.length);
+		edgeCount = new int[edgeStart.length];
+		for (int n = 0; n < numNodes; n++) {
+			edgeCount[n] = edgeStart[n + 1] - edgeStart[n];
+		}
+		// exactly full, so the next insert into any node moves its links
+		edgeCapacity = edgeCount.clone();
+		targets = new int[labels.length];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = i + 1;
+		}
+	}
+
+	/**
+	 * Walk down the trie one character at a time.
+	 * @param word - any CharSequence (a String, or a WordTokenizer.Token, without copying it).
+	 * @return the node the word leads to, or -1 if it falls off the trie.
+	 */
+	private int walk(CharSequence word) {
+		int[] targets = this.targets;
+		int node = ROOT;
+		for (int i = 0; i < word.length(); i++) {
+			int slot = findSlot(node, fold(word.charAt(i)));
+			if (slot < 0) {
+				return -1;
+			}
+			node = targets == null ? slot + 1 : targets[slot];
+		}
+		return node;
+	}
+
+	/**
+	 * Check for a word. This accepts any CharSequence, not just Strings.
+	 * @param o - the word.
+	 * @return true if it was inserted.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof CharSequence)) {
+			return false;
+		}
+		int node = walk((CharSequence) o);
+		return node >= 0 && terminal[node];
+	}
+
+	/**
+	 * @param prefix - the start of a word.
+	 * @return true if some word in the trie starts with prefix.
+	 */
+	public boolean containsPrefix(CharSequence prefix) {
+		return walk(prefix) >= 0;
+	}
+
+	// These let other classes in this package (like SpellingSuggester) walk the trie themselves.
+	// Nodes are numbers, the root is 0, and the links of a node are the slots linkStart to linkEnd.
+
+	/**
+	 * @return the first link slot of a node.
+	 */
+	int linkStart(int node) {
+		return edgeStart[node];
+	}
+
+	/**
+	 * @return one past the last link slot of a node.
+	 */
+	int linkEnd(int node) {
+		return targets == null ? edgeStart[node + 1] : edgeStart[node] + edgeCount[node];
+	}
+
+	/**
+	 * @return the character on the link in a slot.
+	 */
+	char label(int slot) {
+		return labels[slot];
+	}
+
+	/**
+	 * @return the node the link in a slot goes to.
+	 */
+	int target(int slot) {
+		return targets == null ? slot + 1 : targets[slot];
+	}
+
+	/**
+	 * @return true if a word ends at a node.
+	 */
+	boolean isTerminal(int node) {
+		return terminal[node];
+	}
+
+	/**
+	 * Counts the number of nodes, not characters, in the Trie.
+	 * This is the same count CharTrie.countNodes gives; only the cost of each node is different.
+	 * @return the number of nodes in the trie.
+	 */
+	public int countNodes() {
+		return numNodes;
+	}
+
+	/**
+	 * Words come out lower-case, each one once, sorted by character (labels are kept sorted within each node).
+	 * Don't insert while iterating.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return new TrieIterator();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * A depth-first search that we can pause after every word, like CharTrie's, but over link slots instead of Node objects.
+	 * It keeps its own stack: which node we are in at each depth, and which of that node's link slots we try next.
+	 */
+	private class TrieIterator implements Iterator<String> {
+		/**
+		 * nodes[d] is the node at depth d of the current path.
+		 */
+		private int[] nodes = new int[16];
+		/**
+		 * slots[d] is the next link slot to try at depth d, or -1 if we haven't looked at nodes[d] yet.
+		 */
+		private int[] slots = new int[16];
+		/**
+		 * The characters of the current path.
+		 */
+		private char[] path = new char[16];
+		/**
+		 * How many entries of nodes are in use.
+		 */
+		private int depth;
+		/**
+		 * The word next() will return, or null if we need to look for it.
+		 */
+		private String next;
+
+		TrieIterator() {
+			nodes[0] = ROOT;
+			slots[0] = -1;
+			depth = 1;
+		}
+
+		/**
+		 * Run the search until it finds the next word (or runs out).
+		 */
+		private void advance() {
+			while (depth > 0) {
+				int d = depth - 1;
+				int node = nodes[d];
+				int slot = slots[d];
+				if (slot == -1) {
+					// first visit: a word that ends here comes before every longer word below it
+					slot = linkStart(node);
+					slots[d] = slot;
+					if (terminal[node]) {
+						next = new String(path, 0, d);
+						return;
+					}
+				}
+				if (slot == linkEnd(node)) {
+					// nothing left under this node; go back up
+					depth--;
+					continue;
+				}
+				slots[d] = slot + 1;
+				push(target(slot), labels[slot]);
+			}
+		}
+
+		/**
+		 * Go down one level.
+		 */
+		private void push(int child, char c) {
+			if (depth == nodes.length) {
+				nodes = Arrays.copyOf(nodes, depth * 2);
+				slots = Arrays.copyOf(slots, depth * 2);
+				path = Arrays.copyOf(path, depth * 2);
+			}
+			path[depth - 1] = c;
+			nodes[depth] = child;
+			slots[depth] = -1;
+			depth++;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				advance();
+			}
+			return next != null;
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String word = next;
+			next = null;
+			return word;
+		}
+	}
+}
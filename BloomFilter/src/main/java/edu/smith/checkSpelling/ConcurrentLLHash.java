@@ -0,0 +1,200 @@
+package edu.smith.checkSpelling;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This is an {@link LLHash} that many threads may use at once, even while some of them are adding words.
+ * It is meant for a dictionary that is read all the time and added to once in a while.
+ *
+ * Readers never lock. Each bucket is a chain of Nodes that never change once they are made (all their fields are final);
+ * adding a word makes a new Node in front of the old chain and then swaps it into the bucket array.
+ * The buckets are an AtomicReferenceArray, so that swap is a volatile write and a reader's get is a volatile read:
+ * a reader sees either the old chain or the new one, and either way every Node on it is completely built.
+ *
+ * Writers do lock, but not the whole table: the buckets are split into numStripes ranges, each with its own lock,
+ * so two adds only wait for each other if they land in the same range.
+ * The writer checks the chain again once it holds the lock, so two threads adding the same word only add it once.
+ *
+ * Like LLHash, the number of buckets is fixed, and words can't be removed.
+ * @author sivan
+ */
+public class ConcurrentLLHash extends AbstractSet<String> {
+	/**
+	 * The head of each bucket's chain (null if it is empty).
+	 */
+	private final AtomicReferenceArray<Node> buckets;
+	/**
+	 * One lock per range of buckets.
+	 */
+	private final Object[] stripes;
+	/**
+	 * How many words are stored.
+	 */
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * One word in a bucket's chain. Nothing about it changes after it is constructed.
+	 */
+	private static final class Node {
+		final String word;
+		final int hash;
+		final Node next;
+
+		Node(String word, int hash, Node next) {
+			this.word = word;
+			this.hash = hash;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * Construct a set with one lock stripe per core (times four, so writers rarely meet).
+	 * @param numBuckets - the number of buckets to create.
+	 */
+	public ConcurrentLLHash(int numBuckets) {
+		this(numBuckets, 4 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Construct a set.
+	 * @param numBuckets - the number of buckets to create.
+	 * @param numStripes - how many locks to split the buckets between (at most numBuckets).
+	 */
+	public ConcurrentLLHash(int numBuckets, int numStripes) {
+		if (numBuckets <= 0) {
+			throw new IllegalArgumentException("numBuckets must be positive: " + numBuckets);
+		}
+		if (numStripes <= 0) {
+			throw new IllegalArgumentException("numStripes must be positive: " + numStripes);
+		}
+		this.buckets = new AtomicReferenceArray<>(numBuckets);
+		this.stripes = new Object[Math.min(numStripes, numBuckets)];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new Object();
+		}
+	}
+
+	/**
+	 * Pick a bucket the same way LLHash does.
+	 */
+	private int indexOf(int hash) {
+		return Math.abs(hash % buckets.length());
+	}
+
+	/**
+	 * @return the lock for the range of buckets that index is in.
+	 */
+	private Object stripeOf(int index) {
+		return stripes[(int) ((long) index * stripes.length / buckets.length())];
+	}
+
+	/**
+	 * Walk a chain looking for a word.
+	 * @return true if it is there.
+	 */
+	private static boolean find(Node node, CharSequence word, int hash) {
+		for (; node != null; node = node.next) {
+			if (node.hash == hash && (node.word == word || node.word.contentEquals(word))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add a word, if it is new. Safe to call from many threads.
+	 * @param word - the string to add.
+	 * @return true if it was new; if several threads add the same word, exactly one of them gets true.
+	 */
+	@Override
+	public boolean add(String word) {
+		int hash = word.hashCode();
+		int index = indexOf(hash);
+		// most adds of a word we already have never need the lock
+		if (find(buckets.get(index), word, hash)) {
+			return false;
+		}
+		synchronized (stripeOf(index)) {
+			// someone may have added it since we looked
+			Node head = buckets.get(index);
+			if (find(head, word, hash)) {
+				return false;
+			}
+			buckets.set(index, new Node(word, hash, head));
+		}
+		size.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Check for a word, without locking. This accepts any CharSequence, not just Strings.
+	 * @param obj - the word.
+	 * @return true if it has been added.
+	 */
+	@Override
+	public boolean contains(Object obj) {
+		if (!(obj instanceof CharSequence)) {
+			return false;
+		}
+		CharSequence word = (CharSequence) obj;
+		int hash = OpenHash.hashOf(word);
+		return find(buckets.get(indexOf(hash)), word, hash);
+	}
+
+	/**
+	 * Let us for-loop over all the values.
+	 * Words added while this is being built may or may not show up.
+	 * @return an iterator over a copy of the current items.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		ArrayList<String> items = new ArrayList<>(size());
+		for (int i = 0; i < buckets.length(); i++) {
+			for (Node n = buckets.get(i); n != null; n = n.next) {
+				items.add(n.word);
+			}
+		}
+		return items.iterator();
+	}
+
+	/**
+	 * @return the number of words, without counting them.
+	 */
+	@Override
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * Count how many buckets are holding more than one thing.
+	 * @return the number of buckets with more than one value.
+	 */
+	public int countCollisions() {
+		int count = 0;
+		for (int i = 0; i < buckets.length(); i++) {
+			Node head = buckets.get(i);
+			if (head != null && head.next != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Count how many buckets are being used.
+	 * @return the number of buckets with any value.
+	 */
+	public int countUsedBuckets() {
+		int count = 0;
+		for (int i = 0; i < buckets.length(); i++) {
+			if (buckets.get(i) != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,512 @@
+package edu.smith.checkSpelling;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A DAFSA (directed acyclic finite state automaton) is a trie where identical subtrees are stored only once.
+ * In a trie, every word ending in "-ness" has its own copy of "n", "e", "s", "s";
+ * here they all point at the same four states, so the dictionary takes a fraction of the nodes.
+ *
+ * It is built in one pass over the sorted words (Daciuk, Mihov, Watson and Watson, 2000):
+ * after each word, the part of the previous word that can no longer change is checked against a register
+ * of finished states, and replaced by an equal one if we already have it. The result is the smallest such automaton.
+ * Then it is laid out breadth-first in flat arrays, like a compacted {@link CompactCharTrie},
+ * except that a link can point anywhere, so the targets are stored.
+ *
+ * Like CharTrie, letters are folded to lower case. It cannot be changed once built.
+ * @author sivan
+ */
+public class Dafsa extends AbstractSet<String> implements MemoryFootprint {
+	/**
+	 * State 0 is where every word starts.
+	 */
+	private static final int ROOT = 0;
+
+	/**
+	 * The links of state s are slots stateStart[s] up to stateStart[s+1].
+	 */
+	private final int[] stateStart;
+	/**
+	 * Does a word end at state s?
+	 */
+	private final boolean[] terminal;
+	/**
+	 * The character on each link; sorted within each state.
+	 */
+	private final char[] labels;
+	/**
+	 * The state each link goes to.
+	 */
+	private final int[] targets;
+	/**
+	 * How many distinct (folded) words are accepted.
+	 */
+	private final int size;
+
+	/**
+	 * Compile a DAFSA from some words (in any order; they get folded, sorted and de-duplicated first).
+	 * @param words - the dictionary.
+	 */
+	public Dafsa(Collection<String> words) {
+		String[] sorted = new String[words.size()];
+		int n = 0;
+		for (String w : words) {
+			sorted[n++] = fold(w);
+		}
+		Arrays.sort(sorted);
+
+		Builder builder = new Builder();
+		String previous = null;
+		int count = 0;
+		for (String w : sorted) {
+			if (w.equals(previous)) {
+				continue;
+			}
+			builder.add(w);
+			previous = w;
+			count++;
+		}
+		State root = builder.finish();
+		this.size = count;
+
+		// number the states breadth-first, visiting each shared state only once
+		IdentityHashMap<State, Integer> numbers = new IdentityHashMap<>();
+		List<State> order = new ArrayList<>();
+		numbers.put(root, 0);
+		order.add(root);
+		int numEdges = 0;
+		for (int i = 0; i < order.size(); i++) {
+			State s = order.get(i);
+			numEdges += s.count;
+			for (int j = 0; j < s.count; j++) {
+				if (!numbers.containsKey(s.targets[j])) {
+					numbers.put(s.targets[j], order.size());
+					order.add(s.targets[j]);
+				}
+			}
+		}
+		this.stateStart = new int[order.size() + 1];
+		this.terminal = new boolean[order.size()];
+		this.labels = new char[numEdges];
+		this.targets = new int[numEdges];
+		int slot = 0;
+		for (int i = 0; i < order.size(); i++) {
+			State s = order.get(i);
+			stateStart[i] = slot;
+			terminal[i] = s.terminal;
+			for (int j = 0; j < s.count; j++) {
+				labels[slot] = s.labels[j];
+				targets[slot] = numbers.get(s.targets[j]);
+				slot++;
+			}
+		}
+		stateStart[order.size()] = slot;
+	}
+
+	/**
+	 * Fold a whole word the same way CompactCharTrie folds each character.
+	 */
+	private static String fold(String word) {
+		char[] chars = new char[word.length()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = CompactCharTrie.fold(word.charAt(i));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * A state while we are still building; after building it only exists as a number.
+	 */
+	private static class State {
+		boolean terminal;
+		char[] labels = new char[2];
+		State[] targets = new State[2];
+		int count;
+		/**
+		 * Cached once the state is registered (and can no longer change).
+		 */
+		int hash;
+
+		/**
+		 * Add a link; the words come in sorted order, so it always goes on the end.
+		 */
+		State addLink(char c) {
+			if (count == labels.length) {
+				labels = Arrays.copyOf(labels, count * 2);
+				targets = Arrays.copyOf(targets, count * 2);
+			}
+			State child = new State();
+			labels[count] = c;
+			targets[count] = child;
+			count++;
+			return child;
+		}
+
+		/**
+		 * @return the most recently added child (or null).
+		 */
+		State lastChild() {
+			return count == 0 ? null : targets[count - 1];
+		}
+
+		/**
+		 * Two states are equal if they accept exactly the same suffixes.
+		 * Their children are already registered (unique), so comparing them by identity is enough.
+		 */
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof State)) {
+				return false;
+			}
+			State other = (State) o;
+			if (terminal != other.terminal || count != other.count) {
+				return false;
+			}
+			for (int i = 0; i < count; i++) {
+				if (labels[i] != other.labels[i] || targets[i] != other.targets[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		/**
+		 * Work out the hash, once all the children are final.
+		 */
+		void computeHash() {
+			int h = terminal ? 1 : 0;
+			for (int i = 0; i < count; i++) {
+				h = 31 * h + labels[i];
+				h = 31 * h + System.identityHashCode(targets[i]);
+			}
+			hash = h;
+		}
+	}
+
+	/**
+	 * Daciuk's incremental algorithm for sorted input.
+	 */
+	private static class Builder {
+		/**
+		 * Every finished state, so we can find an equal one.
+		 */
+		final HashMap<State, State> register = new HashMap<>();
+		final State root = new State();
+		/**
+		 * The states along the previous word: path[i] is reached after i characters.
+		 */
+		final List<State> path = new ArrayList<>();
+		String previous = "";
+
+		Builder() {
+			path.add(root);
+		}
+
+		/**
+		 * Add the next word, which must sort after every word before it.
+		 */
+		void add(String word) {
+			// how much of the word is already there?
+			int common = 0;
+			int max = Math.min(word.length(), previous.length());
+			while (common < max && word.charAt(common) == previous.charAt(common)) {
+				common++;
+			}
+			// nothing below the common prefix can change any more
+			minimize(common);
+			State state = path.get(common);
+			for (int i = common; i < word.length(); i++) {
+				state = state.addLink(word.charAt(i));
+				path.add(state);
+			}
+			state.terminal = true;
+			previous = word;
+		}
+
+		/**
+		 * Register (or replace) the states of the previous word that are deeper than depth, deepest first.
+		 */
+		void minimize(int depth) {
+			for (int i = path.size() - 1; i > depth; i--) {
+				State child = path.get(i);
+				State parent = path.get(i - 1);
+				child.computeHash();
+				State existing = register.get(child);
+				if (existing != null) {
+					parent.targets[parent.count - 1] = existing;
+				} else {
+					register.put(child, child);
+				}
+				path.remove(i);
+			}
+		}
+
+		/**
+		 * @return the root, once everything is registered.
+		 */
+		State finish() {
+			minimize(0);
+			return root;
+		}
+	}
+
+	/**
+	 * Follow one link.
+	 * @return the next state, or -1 if there is no link labeled c.
+	 */
+	private int step(int state, char c) {
+		int start = stateStart[state];
+		int end = stateStart[state + 1];
+		if (end - start > 8) {
+			int slot = Arrays.binarySearch(labels, start, end, c);
+			return slot >= 0 ? targets[slot] : -1;
+		}
+		for (int i = start; i < end; i++) {
+			char label = labels[i];
+			if (label == c) {
+				return targets[i];
+			}
+			if (label > c) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the state the word leads to, or -1 if it falls off.
+	 */
+	private int walk(CharSequence word) {
+		int state = ROOT;
+		for (int i = 0; i < word.length() && state >= 0; i++) {
+			state = step(state, CompactCharTrie.fold(word.charAt(i)));
+		}
+		return state;
+	}
+
+	/**
+	 * Check for a word. This accepts any CharSequence, not just Strings.
+	 * @param o - the word.
+	 * @return true if it is in the dictionary.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof CharSequence)) {
+			return false;
+		}
+		int state = walk((CharSequence) o);
+		return state >= 0 && terminal[state];
+	}
+
+	/**
+	 * @param prefix - the start of a word.
+	 * @return true if some word in the dictionary starts with prefix.
+	 */
+	public boolean containsPrefix(CharSequence prefix) {
+		return walk(prefix) >= 0;
+	}
+
+	// These let other classes in this package (like DictionaryImage) copy the automaton out.
+	// States are numbers, the root is 0, and the links of a state are the slots linkStart to linkEnd.
+
+	/**
+	 * @return the first link slot of a state.
+	 */
+	int linkStart(int state) {
+		return stateStart[state];
+	}
+
+	/**
+	 * @return one past the last link slot of a state.
+	 */
+	int linkEnd(int state) {
+		return stateStart[state + 1];
+	}
+
+	/**
+	 * @return the character on the link in a slot.
+	 */
+	char label(int slot) {
+		return labels[slot];
+	}
+
+	/**
+	 * @return the state the link in a slot goes to.
+	 */
+	int target(int slot) {
+		return targets[slot];
+	}
+
+	/**
+	 * @return true if a word ends at a state.
+	 */
+	boolean isTerminal(int state) {
+		return terminal[state];
+	}
+
+	/**
+	 * @return how many states the automaton has (compare with CharTrie.countNodes).
+	 */
+	public int countStates() {
+		return terminal.length;
+	}
+
+	/**
+	 * @return how many links the automaton has.
+	 */
+	public int countEdges() {
+		return labels.length;
+	}
+
+	/**
+	 * Just four arrays: one entry per state in two of them, one per edge in the other two.
+	 */
+	@Override
+	public long estimatedBytes() {
+		// this object (four arrays and size), then the arrays
+		return MemoryFootprint.objectBytes(4 * 4 + 4) + MemoryFootprint.arrayBytes(stateStart.length, 4)
+				+ MemoryFootprint.arrayBytes(terminal.length, 1) + MemoryFootprint.arrayBytes(labels.length, 2)
+				+ MemoryFootprint.arrayBytes(targets.length, 4);
+	}
+
+	/**
+	 * Words come out folded to lower case, each one once, in sorted order (labels are sorted within each state).
+	 * Shared states are walked again for every path into them, so this spells out each word in full.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return new WordIterator();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * A depth-first search over the flat arrays that we can pause after every word, like CompactCharTrie's.
+	 * It keeps its own stack: which state we are in at each depth, and which of that state's link slots we try next.
+	 */
+	private class WordIterator implements Iterator<String> {
+		/**
+		 * states[d] is the state at depth d of the current path.
+		 */
+		private int[] states = new int[16];
+		/**
+		 * slots[d] is the next link slot to try at depth d, or -1 if we haven't looked at states[d] yet.
+		 */
+		private int[] slots = new int[16];
+		/**
+		 * The characters of the current path.
+		 */
+		private char[] path = new char[16];
+		/**
+		 * How many entries of states are in use.
+		 */
+		private int depth;
+		/**
+		 * The word next() will return, or null if we need to look for it.
+		 */
+		private String next;
+
+		WordIterator() {
+			states[0] = ROOT;
+			slots[0] = -1;
+			depth = 1;
+		}
+
+		/**
+		 * Run the search until it finds the next word (or runs out).
+		 */
+		private void advance() {
+			while (depth > 0) {
+				int d = depth - 1;
+				int state = states[d];
+				int slot = slots[d];
+				if (slot == -1) {
+					// first visit: a word that ends here comes before every longer word below it
+					slot = stateStart[state];
+					slots[d] = slot;
+					if (terminal[state]) {
+						next = new String(path, 0, d);
+						return;
+					}
+				}
+				if (slot == stateStart[state + 1]) {
+					// nothing left under this state; go back up
+					depth--;
+					continue;
+				}
+				slots[d] = slot + 1;
+				push(targets[slot], labels[slot]);
+			}
+		}
+
+		/**
+		 * Go down one level.
+		 */
+		private void push(int child, char c) {
+			if (depth == states.length) {
+				states = Arrays.copyOf(states, depth * 2);
+				slots = Arrays.copyOf(slots, depth * 2);
+				path = Arrays.copyOf(path, depth * 2);
+			}
+			path[depth - 1] = c;
+			states[depth] = child;
+			slots[depth] = -1;
+			depth++;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				advance();
+			}
+			return next != null;
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String word = next;
+			next = null;
+			return word;
+		}
+	}
+
+	/**
+	 * Compile the dictionary and compare it with the tries.
+	 */
+	public static void main(String[] args) {
+		List<String> words = CheckSpelling.loadDictionary();
+		long start = System.nanoTime();
+		CharTrie trie = new CharTrie();
+		for (String w : words) {
+			trie.insert(w);
+		}
+		long end = System.nanoTime();
+		System.out.println("CharTrie: " + trie.countNodes() + " nodes in " + (end - start) / 1e9 + " seconds.");
+
+		start = System.nanoTime();
+		Dafsa dafsa = new Dafsa(words);
+		end = System.nanoTime();
+		System.out.println("Dafsa: " + dafsa.countStates() + " states, " + dafsa.countEdges() + " edges, "
+				+ dafsa.estimatedBytes() + " bytes in " + (end - start) / 1e9 + " seconds.");
+		System.out.println("States per trie node: " + dafsa.countStates() / (double) trie.countNodes());
+	}
+}
@@ -0,0 +1,603 @@
+package edu.smith.checkSpelling;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * A dictionary compiled ahead of time into one binary file (an "image"), so a program can start using it
+ * without reading the words and building anything.
+ *
+ * The image holds three things, as flat arrays:
+ * a Bloom Filter (its bits and the parameters of its hash functions),
+ * every word sorted, with all their characters in one arena like {@link PackedStringListSet},
+ * and a {@link Dafsa} of the words (for prefix checks).
+ * Opening an image maps the file into memory (FileChannel.map), so the operating system reads it in as pages are touched,
+ * and processes on the same machine share the same pages. Lookups read the mapped arrays directly; no Strings are made.
+ *
+ * The header says which format version it is, and holds two checksums (CRC32):
+ * one of the whole image (header included, with this checksum's own field counted as zeros), checked when it is opened,
+ * so a damaged file is noticed even when the damage is in a count or size in the header;
+ * and one of the words file it was compiled from, so {@link #load} can tell when the words have changed and compile it again.
+ *
+ * Build step: java edu.smith.checkSpelling.DictionaryImage [words] [image]
+ * (by default src/main/resources/words and target/words.dict).
+ *
+ * It never changes after it is opened, so many threads may share it.
+ * @author sivan
+ */
+public class DictionaryImage extends AbstractSet<String> {
+	/**
+	 * "DICT", at the start of every image.
+	 */
+	public static final int MAGIC = 0x44494354;
+	/**
+	 * Change this whenever the layout changes, so old images get rebuilt instead of misread.
+	 */
+	public static final int FORMAT_VERSION = 2;
+	/**
+	 * Bloom Filter bits per word (about what CheckSpelling uses).
+	 */
+	public static final int BITS_PER_KEY = 12;
+	/**
+	 * Bloom Filter hash functions.
+	 */
+	public static final int NUM_HASH = 5;
+	/**
+	 * The same prime UniversalHash uses.
+	 */
+	private static final long PRIME = 2305843009213693951L;
+
+	// Where things are in the header.
+	private static final int HEADER_SIZE = 128;
+	private static final int AT_MAGIC = 0;
+	private static final int AT_VERSION = 4;
+	private static final int AT_SOURCE_LENGTH = 8;
+	private static final int AT_SOURCE_CRC = 16;
+	private static final int AT_IMAGE_CRC = 24;
+	private static final int AT_WORDS = 32;
+	private static final int AT_BLOOM_BITS = 36;
+	private static final int AT_NUM_HASH = 40;
+	private static final int AT_STATES = 44;
+	private static final int AT_EDGES = 48;
+	private static final int AT_ARENA_CHARS = 52;
+	/**
+	 * Then the start of each section, in this order, and where the last one ends.
+	 */
+	private static final int AT_SECTIONS = 56;
+	private static final int HASHES = 0, BLOOM = 1, OFFSETS = 2, ARENA = 3, STATE_START = 4, TARGETS = 5, LABELS = 6, TERMINAL = 7, END = 8;
+
+	/**
+	 * How many (distinct) words.
+	 */
+	private final int n;
+	private final int bloomBits;
+	/**
+	 * a and b of each hash function, like UniversalHash (copied out of the image; there are only NUM_HASH of them).
+	 */
+	private final long[] hashA;
+	private final long[] hashB;
+	// The rest are views of the mapped file.
+	private final LongBuffer bloom;
+	/**
+	 * Word i is arena[offsets[i]] up to arena[offsets[i+1]], in sorted order.
+	 */
+	private final IntBuffer offsets;
+	private final CharBuffer arena;
+	/**
+	 * The Dafsa: the links of state s are slots stateStart[s] up to stateStart[s+1].
+	 */
+	private final IntBuffer stateStart;
+	private final IntBuffer targets;
+	private final CharBuffer labels;
+	/**
+	 * One bit per state: does a word end there?
+	 */
+	private final ByteBuffer terminal;
+	private final long sourceLength;
+	private final long sourceCrc;
+	/**
+	 * How this image came to be, for printing.
+	 */
+	private String origin;
+
+	/**
+	 * Check an image and make views of its sections.
+	 * @param image - the whole image, positioned at 0.
+	 * @throws IOException if it isn't an image, is another format version, or is damaged.
+	 */
+	private DictionaryImage(ByteBuffer image) throws IOException {
+		if (image.limit() < HEADER_SIZE || image.getInt(AT_MAGIC) != MAGIC) {
+			throw new IOException("not a dictionary image");
+		}
+		if (image.getInt(AT_VERSION) != FORMAT_VERSION) {
+			throw new IOException("image is format version " + image.getInt(AT_VERSION) + ", not " + FORMAT_VERSION);
+		}
+		int[] sections = new int[END + 1];
+		for (int i = 0; i <= END; i++) {
+			sections[i] = image.getInt(AT_SECTIONS + 4 * i);
+			if (sections[i] < HEADER_SIZE || (i > 0 && sections[i] < sections[i - 1])) {
+				throw new IOException("image sections are out of order");
+			}
+		}
+		if (sections[END] != image.limit()) {
+			throw new IOException("image is " + image.limit() + " bytes, but should be " + sections[END]);
+		}
+		if (checksum(image) != image.getLong(AT_IMAGE_CRC)) {
+			throw new IOException("image checksum does not match; it is damaged");
+		}
+		this.n = image.getInt(AT_WORDS);
+		this.bloomBits = image.getInt(AT_BLOOM_BITS);
+		int numHash = image.getInt(AT_NUM_HASH);
+		// the checksum should have caught it, but a Bloom Filter of the wrong shape fails quietly (real words go missing), so be sure
+		if (n < 0 || bloomBits != bloomBitsFor(n) || numHash != NUM_HASH) {
+			throw new IOException("image header does not agree with its word count; it is damaged");
+		}
+		int states = image.getInt(AT_STATES);
+		int edges = image.getInt(AT_EDGES);
+		int arenaChars = image.getInt(AT_ARENA_CHARS);
+		this.sourceLength = image.getLong(AT_SOURCE_LENGTH);
+		this.sourceCrc = image.getLong(AT_SOURCE_CRC);
+
+		LongBuffer hashes = section(image, sections, HASHES, 16L * numHash).asLongBuffer();
+		this.hashA = new long[numHash];
+		this.hashB = new long[numHash];
+		for (int i = 0; i < numHash; i++) {
+			hashA[i] = hashes.get(2 * i);
+			hashB[i] = hashes.get(2 * i + 1);
+		}
+		this.bloom = section(image, sections, BLOOM, 8L * ((bloomBits + 63) / 64)).asLongBuffer();
+		this.offsets = section(image, sections, OFFSETS, 4L * (n + 1)).asIntBuffer();
+		this.arena = section(image, sections, ARENA, 2L * arenaChars).asCharBuffer();
+		this.stateStart = section(image, sections, STATE_START, 4L * (states + 1)).asIntBuffer();
+		this.targets = section(image, sections, TARGETS, 4L * edges).asIntBuffer();
+		this.labels = section(image, sections, LABELS, 2L * edges).asCharBuffer();
+		this.terminal = section(image, sections, TERMINAL, (states + 7) / 8);
+		if (offsets.get(n) != arenaChars || stateStart.get(states) != edges) {
+			throw new IOException("image sections do not agree with the header");
+		}
+	}
+
+	/**
+	 * @return a view of one section, after checking it is as big as the header says.
+	 */
+	private static ByteBuffer section(ByteBuffer image, int[] sections, int which, long bytes) throws IOException {
+		if (bytes < 0 || sections[which] + bytes > sections[which + 1]) {
+			throw new IOException("image section " + which + " is too small");
+		}
+		ByteBuffer view = image.duplicate();
+		view.position(sections[which]);
+		view.limit((int) (sections[which] + bytes));
+		return view.slice();
+	}
+
+	/**
+	 * Map an image file and check it.
+	 * @param image - the file.
+	 * @return the dictionary in it.
+	 * @throws IOException if it can't be read, isn't an image, is another format version, or is damaged.
+	 */
+	public static DictionaryImage open(Path image) throws IOException {
+		try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("image is too big: " + channel.size());
+			}
+			// the mapping stays valid after the channel is closed
+			DictionaryImage dictionary = new DictionaryImage(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			dictionary.origin = "mapped " + image;
+			return dictionary;
+		}
+	}
+
+	/**
+	 * Open an image if it is up to date with its words file; otherwise compile it again (and save it, if we can).
+	 * @param image - the image file (it need not exist yet).
+	 * @param source - the words file, one word per line.
+	 * @return the dictionary; {@link #origin} says which way it went.
+	 * @throws IOException if the words file can't be read.
+	 */
+	public static DictionaryImage load(Path image, Path source) throws IOException {
+		byte[] bytes = Files.readAllBytes(source);
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		String why;
+		try {
+			DictionaryImage dictionary = open(image);
+			if (dictionary.sourceLength == bytes.length && dictionary.sourceCrc == crc.getValue()) {
+				return dictionary;
+			}
+			why = "the words have changed";
+		} catch (NoSuchFileException e) {
+			why = "there was no image yet";
+		} catch (IOException e) {
+			why = e.getMessage();
+		}
+
+		List<String> words;
+		try (BufferedReader lines = new BufferedReader(new StringReader(new String(bytes, StandardCharsets.UTF_8)))) {
+			words = lines.lines().collect(Collectors.toList());
+		}
+		ByteBuffer compiled = compile(words, bytes.length, crc.getValue());
+		DictionaryImage dictionary;
+		try {
+			write(compiled, image);
+			dictionary = open(image);
+			dictionary.origin = "rebuilt " + image + " (" + why + ")";
+		} catch (IOException e) {
+			// we can still use it; it just isn't saved for next time
+			dictionary = new DictionaryImage(compiled);
+			dictionary.origin = "rebuilt in memory (" + why + "; could not save: " + e.getMessage() + ")";
+		}
+		return dictionary;
+	}
+
+	/**
+	 * Compile a words file into an image file.
+	 * @param source - the words file, one word per line.
+	 * @param image - where to put the image.
+	 * @throws IOException if either file can't be read or written.
+	 */
+	public static void compile(Path source, Path image) throws IOException {
+		byte[] bytes = Files.readAllBytes(source);
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		List<String> words = Files.readAllLines(source);
+		write(compile(words, bytes.length, crc.getValue()), image);
+	}
+
+	/**
+	 * Compile words into an image in memory, without any files (it is not mapped, so not shared between processes).
+	 * @param words - the dictionary.
+	 * @return the dictionary, as if it had been compiled and opened.
+	 */
+	public static DictionaryImage build(Collection<String> words) {
+		try {
+			DictionaryImage dictionary = new DictionaryImage(compile(words, 0, 0));
+			dictionary.origin = "built in memory";
+			return dictionary;
+		} catch (IOException e) {
+			throw new IllegalStateException("compile made a bad image", e);
+		}
+	}
+
+	/**
+	 * Save an image next to where it goes, then move it into place, so nobody ever maps half of one.
+	 */
+	private static void write(ByteBuffer compiled, Path image) throws IOException {
+		Path parent = image.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		Path temp = Files.createTempFile(parent, image.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				ByteBuffer all = compiled.duplicate();
+				all.position(0);
+				while (all.hasRemaining()) {
+					channel.write(all);
+				}
+			}
+			Files.move(temp, image, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Lay out an image in memory.
+	 * @param words - the dictionary (in any order, with duplicates or not).
+	 * @param sourceLength - how long the words file is.
+	 * @param sourceCrc - the CRC32 of the words file.
+	 * @return the whole image.
+	 */
+	static ByteBuffer compile(Collection<String> words, long sourceLength, long sourceCrc) {
+		String[] sorted = words.toArray(new String[0]);
+		Arrays.sort(sorted);
+		int n = 0;
+		long chars = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (n == 0 || !sorted[n - 1].equals(sorted[i])) {
+				sorted[n++] = sorted[i];
+				chars += sorted[i].length();
+			}
+		}
+		Dafsa dafsa = new Dafsa(Arrays.asList(sorted).subList(0, n));
+		int states = dafsa.countStates();
+		int edges = dafsa.countEdges();
+		int bloomBits = bloomBitsFor(n);
+
+		long[] sizes = new long[END];
+		sizes[HASHES] = 16L * NUM_HASH;
+		sizes[BLOOM] = 8L * ((bloomBits + 63) / 64);
+		sizes[OFFSETS] = 4L * (n + 1);
+		sizes[ARENA] = 2L * chars;
+		sizes[STATE_START] = 4L * (states + 1);
+		sizes[TARGETS] = 4L * edges;
+		sizes[LABELS] = 2L * edges;
+		sizes[TERMINAL] = (states + 7) / 8;
+		int[] sections = new int[END + 1];
+		long at = HEADER_SIZE;
+		for (int i = 0; i < END; i++) {
+			sections[i] = (int) at;
+			// start every section on 8 bytes
+			at = (at + sizes[i] + 7) & ~7L;
+			if (at > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many words for one image: " + n);
+			}
+		}
+		sections[END] = (int) at;
+
+		ByteBuffer image = ByteBuffer.allocate(sections[END]);
+		image.putInt(AT_MAGIC, MAGIC);
+		image.putInt(AT_VERSION, FORMAT_VERSION);
+		image.putLong(AT_SOURCE_LENGTH, sourceLength);
+		image.putLong(AT_SOURCE_CRC, sourceCrc);
+		image.putInt(AT_WORDS, n);
+		image.putInt(AT_BLOOM_BITS, bloomBits);
+		image.putInt(AT_NUM_HASH, NUM_HASH);
+		image.putInt(AT_STATES, states);
+		image.putInt(AT_EDGES, edges);
+		image.putInt(AT_ARENA_CHARS, (int) chars);
+		for (int i = 0; i <= END; i++) {
+			image.putInt(AT_SECTIONS + 4 * i, sections[i]);
+		}
+
+		// the same words always give the same image, so the hash functions come from a fixed seed
+		Random rand = new Random(n);
+		long[] a = new long[NUM_HASH];
+		long[] b = new long[NUM_HASH];
+		for (int i = 0; i < NUM_HASH; i++) {
+			a[i] = rand.nextLong();
+			b[i] = rand.nextLong();
+			image.putLong(sections[HASHES] + 16 * i, a[i]);
+			image.putLong(sections[HASHES] + 16 * i + 8, b[i]);
+		}
+		long[] bits = new long[(bloomBits + 63) / 64];
+		int arenaAt = sections[ARENA];
+		int offset = 0;
+		for (int i = 0; i < n; i++) {
+			String w = sorted[i];
+			int h = w.hashCode();
+			for (int k = 0; k < NUM_HASH; k++) {
+				int bit = bitOf(a[k], b[k], h, bloomBits);
+				bits[bit >>> 6] |= 1L << bit;
+			}
+			image.putInt(sections[OFFSETS] + 4 * i, offset);
+			for (int c = 0; c < w.length(); c++) {
+				image.putChar(arenaAt + 2 * (offset + c), w.charAt(c));
+			}
+			offset += w.length();
+		}
+		image.putInt(sections[OFFSETS] + 4 * n, offset);
+		for (int i = 0; i < bits.length; i++) {
+			image.putLong(sections[BLOOM] + 8 * i, bits[i]);
+		}
+		for (int s = 0; s <= states; s++) {
+			image.putInt(sections[STATE_START] + 4 * s, s < states ? dafsa.linkStart(s) : edges);
+			if (s < states && dafsa.isTerminal(s)) {
+				int at8 = sections[TERMINAL] + (s >>> 3);
+				image.put(at8, (byte) (image.get(at8) | (1 << (s & 7))));
+			}
+		}
+		for (int e = 0; e < edges; e++) {
+			image.putInt(sections[TARGETS] + 4 * e, dafsa.target(e));
+			image.putChar(sections[LABELS] + 2 * e, dafsa.label(e));
+		}
+
+		image.putLong(AT_IMAGE_CRC, checksum(image));
+		return image;
+	}
+
+	/**
+	 * @param n - how many distinct words.
+	 * @return how many bits the Bloom Filter gets.
+	 */
+	private static int bloomBitsFor(int n) {
+		return (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64L, (long) BITS_PER_KEY * n));
+	}
+
+	/**
+	 * The CRC32 of a whole image, with the 8 bytes that hold it counted as zeros.
+	 * @param image - the image, positioned at 0.
+	 * @return the checksum.
+	 */
+	private static long checksum(ByteBuffer image) {
+		byte[] header = new byte[HEADER_SIZE];
+		image.duplicate().get(header);
+		Arrays.fill(header, AT_IMAGE_CRC, AT_IMAGE_CRC + 8, (byte) 0);
+		CRC32 crc = new CRC32();
+		crc.update(header);
+		ByteBuffer payload = image.duplicate();
+		payload.position(HEADER_SIZE);
+		crc.update(payload);
+		return crc.getValue();
+	}
+
+	/**
+	 * Which bit one hash function picks: the same arithmetic as UniversalHash, then mod the number of bits
+	 * (floorMod, since Math.abs of the smallest int is still negative).
+	 */
+	private static int bitOf(long a, long b, int hash, int bloomBits) {
+		return Math.floorMod((int) ((a * hash + b) % PRIME), bloomBits);
+	}
+
+	/**
+	 * Ask the Bloom Filter.
+	 * @return false if the word is definitely not here.
+	 */
+	public boolean mightContain(CharSequence word) {
+		int h = OpenHash.hashOf(word);
+		for (int k = 0; k < hashA.length; k++) {
+			int bit = bitOf(hashA[k], hashB[k], h, bloomBits);
+			if ((bloom.get(bit >>> 6) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compare word i with a query, like String.compareTo.
+	 */
+	private int compare(int i, CharSequence query) {
+		int start = offsets.get(i);
+		int length = offsets.get(i + 1) - start;
+		int min = Math.min(length, query.length());
+		for (int c = 0; c < min; c++) {
+			int diff = arena.get(start + c) - query.charAt(c);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return length - query.length();
+	}
+
+	/**
+	 * Check for a word: the Bloom Filter first, then a binary search of the sorted words.
+	 * This accepts any CharSequence, not just Strings, and is case-sensitive.
+	 * @param obj - the word.
+	 * @return true if it is in the dictionary.
+	 */
+	@Override
+	public boolean contains(Object obj) {
+		if (!(obj instanceof CharSequence)) {
+			return false;
+		}
+		CharSequence word = (CharSequence) obj;
+		if (!mightContain(word)) {
+			return false;
+		}
+		int lo = 0;
+		int hi = n - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int cmp = compare(mid, word);
+			if (cmp < 0) {
+				lo = mid + 1;
+			} else if (cmp > 0) {
+				hi = mid - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Follow a word through the Dafsa. Letters are folded to lower case, like Dafsa does.
+	 * @return the state it leads to, or -1 if it falls off.
+	 */
+	private int walk(CharSequence word) {
+		int state = 0;
+		for (int i = 0; i < word.length(); i++) {
+			char c = CompactCharTrie.fold(word.charAt(i));
+			int slot = stateStart.get(state);
+			int end = stateStart.get(state + 1);
+			// the labels are sorted
+			while (slot < end && labels.get(slot) < c) {
+				slot++;
+			}
+			if (slot == end || labels.get(slot) != c) {
+				return -1;
+			}
+			state = targets.get(slot);
+		}
+		return state;
+	}
+
+	/**
+	 * @param prefix - the start of a word (any case).
+	 * @return true if some word in the dictionary starts with prefix.
+	 */
+	public boolean containsPrefix(CharSequence prefix) {
+		return walk(prefix) >= 0;
+	}
+
+	/**
+	 * @param word - the word (any case).
+	 * @return true if the word is in the dictionary, ignoring case; like {@link Dafsa#contains}.
+	 */
+	public boolean containsIgnoreCase(CharSequence word) {
+		int state = walk(word);
+		return state >= 0 && (terminal.get(state >>> 3) & (1 << (state & 7))) != 0;
+	}
+
+	/**
+	 * @return where this came from: "mapped" and the file, or "rebuilt" and why.
+	 */
+	public String origin() {
+		return origin;
+	}
+
+	/**
+	 * The words in sorted order. Each one is a new String, because the image doesn't keep any.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+			int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return i < n;
+			}
+
+			@Override
+			public String next() {
+				if (i >= n) {
+					throw new NoSuchElementException();
+				}
+				int start = offsets.get(i);
+				int end = offsets.get(i + 1);
+				i++;
+				char[] chars = new char[end - start];
+				for (int c = 0; c < chars.length; c++) {
+					chars[c] = arena.get(start + c);
+				}
+				return new String(chars);
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Compile the words into an image, then time opening it (what a service does when it starts).
+	 * @param args - the words file and the image file, if not the defaults.
+	 */
+	public static void main(String[] args) throws IOException {
+		Path source = Paths.get(args.length > 0 ? args[0] : "src/main/resources/words");
+		Path image = Paths.get(args.length > 1 ? args[1] : "target/words.dict");
+		long start = System.nanoTime();
+		compile(source, image);
+		long end = System.nanoTime();
+		System.out.println("Compiled " + image + " (" + Files.size(image) + " bytes) in " + (end - start) / 1e9 + " seconds.");
+
+		start = System.nanoTime();
+		DictionaryImage dictionary = load(image, source);
+		end = System.nanoTime();
+		System.out.println("Loaded " + dictionary.size() + " words (" + dictionary.origin() + ") in " + (end - start) / 1e9 + " seconds.");
+	}
+}
@@ -0,0 +1,425 @@
+package edu.smith.checkSpelling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Picking a size and a number of hashes for a {@link BloomFilter} is guesswork, so this tries lots of them.
+ * For every bits-per-key and number of hashes it builds a filter from the keys, then runs a query workload
+ * (from {@link WorkloadGenerator}) and measures:
+ * the real false positive rate, the memory the bits take, the time per filter lookup,
+ * and the time per lookup with the dictionary checked behind the filter (like CheckSpelling.timeLookupBloom).
+ * It prints every result, which ones are on the Pareto frontier (nothing else is at least as good
+ * at all three of false positives, memory and time), and a recommendation, as JSON.
+ *
+ * The timings are a few warm passes with System.nanoTime; use FilterBenchmark in BloomFilterBenchmarks for careful ones.
+ *
+ * Usage: FilterTuner [keys=path] [queries=200000] [hitRatio=0.5] [zipf=1.0] [seed=1]
+ *   [bitsPerKey=4,6,8,10,12,16,20] [numHash=1,2,3,4,5,6,7,8] [dictionary=HashSet] [targetFpp=0.01] [out=path]
+ * @author sivan
+ */
+public class FilterTuner {
+	/**
+	 * The only filter implementation we have; results carry it so we can add more later.
+	 */
+	public static final String VARIANT = "BloomFilter";
+
+	/**
+	 * What one configuration did.
+	 */
+	public static class Result {
+		public final String variant;
+		public final int bitsPerKey;
+		public final int numHash;
+		/**
+		 * The size of the bits array.
+		 */
+		public final int sizeBits;
+		/**
+		 * The memory the bits take (a BitSet stores them in 64-bit longs).
+		 */
+		public final long bytes;
+		/**
+		 * What the formula (1 - e^(-kn/m))^k predicts.
+		 */
+		public final double expectedFpp;
+		/**
+		 * The fraction of non-words the filter said maybe to.
+		 */
+		public final double measuredFpp;
+		/**
+		 * Time per filter contains, over the whole workload.
+		 */
+		public final double nsPerLookup;
+		/**
+		 * Time per lookup when the dictionary is asked whenever the filter says maybe.
+		 */
+		public final double nsPerGuardedLookup;
+		/**
+		 * Set by paretoFrontier.
+		 */
+		boolean pareto;
+
+		Result(int bitsPerKey, int numHash, int sizeBits, double expectedFpp, double measuredFpp,
+				double nsPerLookup, double nsPerGuardedLookup) {
+			this.variant = VARIANT;
+			this.bitsPerKey = bitsPerKey;
+			this.numHash = numHash;
+			this.sizeBits = sizeBits;
+			this.bytes = ((sizeBits + 63L) / 64) * 8;
+			this.expectedFpp = expectedFpp;
+			this.measuredFpp = measuredFpp;
+			this.nsPerLookup = nsPerLookup;
+			this.nsPerGuardedLookup = nsPerGuardedLookup;
+		}
+
+		/**
+		 * @return true if this is on the Pareto frontier of its sweep.
+		 */
+		public boolean isPareto() {
+			return pareto;
+		}
+
+		/**
+		 * @return true if this is at least as good as other at everything, and better at something.
+		 */
+		boolean dominates(Result other) {
+			boolean noWorse = measuredFpp <= other.measuredFpp && bytes <= other.bytes
+					&& nsPerGuardedLookup <= other.nsPerGuardedLookup;
+			boolean better = measuredFpp < other.measuredFpp || bytes < other.bytes
+					|| nsPerGuardedLookup < other.nsPerGuardedLookup;
+			return noWorse && better;
+		}
+
+		/**
+		 * @return this result as a JSON object.
+		 */
+		public String toJson() {
+			return String.format(Locale.ROOT,
+					"{\"variant\":\"%s\",\"bitsPerKey\":%d,\"numHash\":%d,\"sizeBits\":%d,\"bytes\":%d,"
+					+ "\"expectedFpp\":%.6g,\"measuredFpp\":%.6g,\"nsPerLookup\":%.2f,\"nsPerGuardedLookup\":%.2f,\"pareto\":%b}",
+					variant, bitsPerKey, numHash, sizeBits, bytes, expectedFpp, measuredFpp,
+					nsPerLookup, nsPerGuardedLookup, pareto);
+		}
+	}
+
+	/**
+	 * The words that go into every filter.
+	 */
+	private final List<String> keys;
+	/**
+	 * What the filter guards; asked whenever the filter says maybe.
+	 */
+	private final Collection<String> dictionary;
+	/**
+	 * The queries, all of them (we run them several times for timing).
+	 */
+	private final String[] queries;
+	/**
+	 * Which queries are real words.
+	 */
+	private final boolean[] real;
+	/**
+	 * How many of the queries are non-words.
+	 */
+	private final int numFake;
+	/**
+	 * How many timed passes to take the best of.
+	 */
+	private int passes = 3;
+	/**
+	 * Where measure puts its lookup counts, so the JIT cannot skip the lookups.
+	 */
+	private volatile int blackhole;
+
+	/**
+	 * Get ready to sweep.
+	 * @param keys - the words to insert into every filter.
+	 * @param dictionary - the structure behind the filter (holding the same words).
+	 * @param workload - where the queries come from.
+	 * @param numQueries - how many queries to run per configuration.
+	 */
+	public FilterTuner(List<String> keys, Collection<String> dictionary, WorkloadGenerator workload, int numQueries) {
+		this.keys = keys;
+		this.dictionary = dictionary;
+		this.queries = new String[numQueries];
+		this.real = new boolean[numQueries];
+		int[] i = new int[1];
+		int[] fake = new int[1];
+		workload.generate(numQueries, (query, isReal) -> {
+			queries[i[0]] = query;
+			real[i[0]] = isReal;
+			i[0]++;
+			if (!isReal) {
+				fake[0]++;
+			}
+		});
+		this.numFake = fake[0];
+	}
+
+	/**
+	 * @param passes - how many timed passes to take the best of (at least 1).
+	 */
+	public void setPasses(int passes) {
+		this.passes = Math.max(1, passes);
+	}
+
+	/**
+	 * Try one configuration.
+	 * @param bitsPerKey - bits in the filter per key.
+	 * @param numHash - number of hash functions.
+	 * @return what happened.
+	 */
+	public Result measure(int bitsPerKey, int numHash) {
+		int n = keys.size();
+		int size = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, (long) bitsPerKey * n));
+		BloomFilter bloom = new BloomFilter(size, numHash);
+		for (String w : keys) {
+			bloom.insert(w);
+		}
+		double expected = Math.pow(1 - Math.exp(-numHash * (double) n / size), numHash);
+
+		// false positives: every non-word the filter says maybe to
+		int falsePositives = 0;
+		for (int i = 0; i < queries.length; i++) {
+			if (!real[i] && bloom.contains(queries[i])) {
+				falsePositives++;
+			}
+		}
+		double measured = numFake == 0 ? 0 : falsePositives / (double) numFake;
+
+		// one untimed pass of each to warm up, then the best of a few passes
+		long bestFilter = Long.MAX_VALUE;
+		long bestGuarded = Long.MAX_VALUE;
+		int sink = filterPass(bloom) + guardedPass(bloom);
+		for (int p = 0; p < passes; p++) {
+			long start = System.nanoTime();
+			sink += filterPass(bloom);
+			long middle = System.nanoTime();
+			sink += guardedPass(bloom);
+			long end = System.nanoTime();
+			bestFilter = Math.min(bestFilter, middle - start);
+			bestGuarded = Math.min(bestGuarded, end - middle);
+		}
+		// writing the counts somewhere visible stops the passes from being optimized away
+		blackhole = sink;
+		return new Result(bitsPerKey, numHash, size, expected, measured,
+				bestFilter / (double) queries.length, bestGuarded / (double) queries.length);
+	}
+
+	/**
+	 * @return how many queries the filter says maybe to.
+	 */
+	private int filterPass(BloomFilter bloom) {
+		int found = 0;
+		for (String q : queries) {
+			if (bloom.contains(q)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @return how many queries are really in the dictionary, asking the filter first.
+	 */
+	private int guardedPass(BloomFilter bloom) {
+		int found = 0;
+		for (String q : queries) {
+			if (bloom.contains(q) && dictionary.contains(q)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Try every combination.
+	 * @param bitsPerKey - the sizes to try.
+	 * @param numHash - the numbers of hash functions to try.
+	 * @return every result, with the Pareto frontier marked.
+	 */
+	public List<Result> sweep(int[] bitsPerKey, int[] numHash) {
+		List<Result> results = new ArrayList<>();
+		for (int b : bitsPerKey) {
+			for (int k : numHash) {
+				results.add(measure(b, k));
+			}
+		}
+		paretoFrontier(results);
+		return results;
+	}
+
+	/**
+	 * Mark (and return) every result that no other result dominates.
+	 * @param results - the sweep.
+	 * @return the frontier, in sweep order.
+	 */
+	public static List<Result> paretoFrontier(List<Result> results) {
+		List<Result> frontier = new ArrayList<>();
+		for (Result r : results) {
+			r.pareto = true;
+			for (Result other : results) {
+				if (other.dominates(r)) {
+					r.pareto = false;
+					break;
+				}
+			}
+			if (r.pareto) {
+				frontier.add(r);
+			}
+		}
+		return frontier;
+	}
+
+	/**
+	 * Pick the smallest filter that meets the false positive target, breaking ties by speed.
+	 * If nothing meets it, pick the one with the fewest false positives.
+	 * @param results - the sweep.
+	 * @param targetFpp - the highest false positive rate we can live with.
+	 * @return the recommendation, or null if there are no results.
+	 */
+	public static Result recommend(List<Result> results, double targetFpp) {
+		Result best = null;
+		for (Result r : results) {
+			if (r.measuredFpp > targetFpp) {
+				continue;
+			}
+			if (best == null || r.bytes < best.bytes
+					|| (r.bytes == best.bytes && r.nsPerGuardedLookup < best.nsPerGuardedLookup)) {
+				best = r;
+			}
+		}
+		if (best != null) {
+			return best;
+		}
+		for (Result r : results) {
+			if (best == null || r.measuredFpp < best.measuredFpp) {
+				best = r;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Write a whole sweep as one JSON document.
+	 * @param out - where to write.
+	 * @param settings - the settings, already as JSON members (like "\"queries\":1000").
+	 * @param results - the sweep.
+	 * @param recommended - the recommendation (may be null).
+	 */
+	public static void writeJson(PrintStream out, String settings, List<Result> results, Result recommended) {
+		out.println("{");
+		out.println("  \"settings\":{" + settings + "},");
+		out.println("  \"results\":[");
+		for (int i = 0; i < results.size(); i++) {
+			out.println("    " + results.get(i).toJson() + (i + 1 < results.size() ? "," : ""));
+		}
+		out.println("  ],");
+		out.println("  \"recommended\":" + (recommended == null ? "null" : recommended.toJson()));
+		out.println("}");
+	}
+
+	/**
+	 * Parse "1,2,3".
+	 */
+	private static int[] parseInts(String list) {
+		String[] parts = list.split(",");
+		int[] out = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			out[i] = Integer.parseInt(parts[i].trim());
+		}
+		return out;
+	}
+
+	/**
+	 * Build the structure the filter guards.
+	 */
+	private static Collection<String> buildDictionary(String name, List<String> words) {
+		switch (name) {
+		case "HashSet":
+			return new HashSet<>(words);
+		case "TreeSet":
+			return new TreeSet<>(words);
+		case "SortedStringListSet":
+			return new SortedStringListSet(words);
+		case "CharTrie":
+			CharTrie trie = new CharTrie();
+			for (String w : words) {
+				trie.insert(w);
+			}
+			return trie;
+		case "LLHash":
+			LLHash hash = new LLHash(100000);
+			for (String w : words) {
+				hash.add(w);
+			}
+			return hash;
+		default:
+			throw new IllegalArgumentException("Unknown dictionary: " + name);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		String keysPath = "src/main/resources/words";
+		int numQueries = 200_000;
+		double hitRatio = 0.5;
+		double zipf = 1.0;
+		long seed = 1;
+		int[] bitsPerKey = {4, 6, 8, 10, 12, 16, 20};
+		int[] numHash = {1, 2, 3, 4, 5, 6, 7, 8};
+		String dictionaryName = "HashSet";
+		double targetFpp = 0.01;
+		String outPath = null;
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0) {
+				throw new IllegalArgumentException("Expected key=value, got: " + arg);
+			}
+			String key = arg.substring(0, eq);
+			String value = arg.substring(eq + 1);
+			switch (key) {
+			case "keys": keysPath = value; break;
+			case "queries": numQueries = Integer.parseInt(value); break;
+			case "hitRatio": hitRatio = Double.parseDouble(value); break;
+			case "zipf": zipf = Double.parseDouble(value); break;
+			case "seed": seed = Long.parseLong(value); break;
+			case "bitsPerKey": bitsPerKey = parseInts(value); break;
+			case "numHash": numHash = parseInts(value); break;
+			case "dictionary": dictionaryName = value; break;
+			case "targetFpp": targetFpp = Double.parseDouble(value); break;
+			case "out": outPath = value; break;
+			default: throw new IllegalArgumentException("Unknown setting: " + key);
+			}
+		}
+
+		List<String> keys = Files.readAllLines(new File(keysPath).toPath());
+		Collection<String> dictionary = buildDictionary(dictionaryName, keys);
+		WorkloadGenerator workload = new WorkloadGenerator(keys, hitRatio, zipf, seed);
+		FilterTuner tuner = new FilterTuner(keys, dictionary, workload, numQueries);
+		List<Result> results = tuner.sweep(bitsPerKey, numHash);
+		Result recommended = recommend(results, targetFpp);
+
+		String settings = String.format(Locale.ROOT,
+				"\"keys\":%d,\"queries\":%d,\"hitRatio\":%s,\"zipf\":%s,\"seed\":%d,\"dictionary\":\"%s\",\"targetFpp\":%s,\"java\":\"%s\"",
+				keys.size(), numQueries, hitRatio, zipf, seed, dictionaryName, targetFpp,
+				System.getProperty("java.version"));
+		if (outPath == null) {
+			writeJson(System.out, settings, results, recommended);
+		} else {
+			try (PrintStream out = new PrintStream(new File(outPath), "UTF-8")) {
+				writeJson(out, settings, results, recommended);
+			}
+			System.out.println("Wrote " + results.size() + " results to " + outPath);
+			System.out.println("Recommended: " + (recommended == null ? "nothing" : recommended.toJson()));
+		}
+	}
+}
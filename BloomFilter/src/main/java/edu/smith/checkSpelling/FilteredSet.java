@@ -0,0 +1,283 @@
+package edu.smith.checkSpelling;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * This puts a Bloom Filter in front of any dictionary, like CheckSpelling.timeLookupBloom does,
+ * but as a Set you can hand to the rest of the program.
+ *
+ * A word the filter says no to is definitely not in the dictionary, so we skip the (slower) dictionary.
+ * That only pays off if a good share of the queries get turned away. When most queries are real words,
+ * they all pass the filter, and checking it first is pure overhead (the mixed data set runs in CheckSpelling show this).
+ * So this keeps count of what happens, and every WINDOW observed queries it decides whether to keep using the filter:
+ * if the filter turned away less than bypassBelow of them, it stops checking the filter;
+ * if it would have turned away more than resumeAbove, it starts again. (The gap between the two keeps it from flip-flopping.)
+ * While bypassing, it still checks the filter on one query in SAMPLE_EVERY, so it notices when the traffic changes.
+ *
+ * The answers are always exactly the dictionary's: the filter never says no to a word that is there.
+ * add puts the word in both.
+ * Many threads may call contains at the same time (if the dictionary allows it); the counters are then approximate,
+ * because updates from different threads can be lost, but that only affects when the decision is made.
+ * @author sivan
+ */
+public class FilteredSet extends AbstractSet<String> {
+	/**
+	 * How many observed queries go into each decision.
+	 */
+	public static final int WINDOW = 1024;
+	/**
+	 * While bypassing, the filter is still checked on one query in this many.
+	 */
+	public static final int SAMPLE_EVERY = 16;
+
+	/**
+	 * The real answers.
+	 */
+	private final Collection<String> dictionary;
+	/**
+	 * Holds everything the dictionary does (and says "maybe" to some things it doesn't).
+	 */
+	private final BloomFilter filter;
+	/**
+	 * Stop using the filter if it turns away less than this fraction of queries.
+	 */
+	private final double bypassBelow;
+	/**
+	 * Start using it again if it would turn away more than this fraction.
+	 */
+	private final double resumeAbove;
+
+	/**
+	 * Are we skipping the filter right now?
+	 */
+	private volatile boolean bypassing;
+
+	// The current window: queries we checked the filter for, and what happened to them.
+	private int observed;
+	private int rejected;
+	private int falsePositives;
+	// Queries since the last sample, while bypassing.
+	private int sinceSample;
+
+	// Running totals, for the counters below.
+	private long queries;
+	private long filterChecks;
+	private long filterRejects;
+	private long totalFalsePositives;
+	private long dictionaryLookups;
+	private long decisions;
+	private long switches;
+	// What the last decision was, and the window it was made on.
+	// (lastDecision() builds the sentence from these, so contains itself never makes a String.)
+	private volatile String lastWhy = null;
+	private int lastObserved;
+	private int lastRejected;
+	private int lastFalsePositives;
+
+	/**
+	 * Put a filter in front of a dictionary, with the default thresholds (bypass below 20% rejected, resume above 30%).
+	 * Every word of the dictionary is inserted into the filter, so they agree from the start.
+	 * @param dictionary - the real set of words.
+	 * @param filter - a Bloom Filter sized for the dictionary.
+	 */
+	public FilteredSet(Collection<String> dictionary, BloomFilter filter) {
+		this(dictionary, filter, 0.2, 0.3);
+	}
+
+	/**
+	 * Put a filter in front of a dictionary.
+	 * Every word of the dictionary is inserted into the filter, so they agree from the start.
+	 * @param dictionary - the real set of words.
+	 * @param filter - a Bloom Filter sized for the dictionary.
+	 * @param bypassBelow - stop using the filter if it turns away less than this fraction of queries.
+	 * @param resumeAbove - start using it again if it would turn away more than this (at least bypassBelow).
+	 */
+	public FilteredSet(Collection<String> dictionary, BloomFilter filter, double bypassBelow, double resumeAbove) {
+		if (bypassBelow < 0 || resumeAbove < bypassBelow || resumeAbove > 1) {
+			throw new IllegalArgumentException("Need 0 <= bypassBelow <= resumeAbove <= 1: " + bypassBelow + ", " + resumeAbove);
+		}
+		this.dictionary = dictionary;
+		this.filter = filter;
+		this.bypassBelow = bypassBelow;
+		this.resumeAbove = resumeAbove;
+		for (String w : dictionary) {
+			filter.insert(w);
+		}
+	}
+
+	/**
+	 * Check for a word: the filter first (unless we are bypassing it), then the dictionary.
+	 * @param obj - the word.
+	 * @return exactly what the dictionary says.
+	 */
+	@Override
+	public boolean contains(Object obj) {
+		if (!(obj instanceof String)) {
+			return false;
+		}
+		queries++;
+		if (bypassing && ++sinceSample < SAMPLE_EVERY) {
+			dictionaryLookups++;
+			return dictionary.contains(obj);
+		}
+		sinceSample = 0;
+		filterChecks++;
+		boolean found;
+		if (!filter.contains(obj)) {
+			filterRejects++;
+			rejected++;
+			found = false;
+		} else {
+			dictionaryLookups++;
+			found = dictionary.contains(obj);
+			if (!found) {
+				totalFalsePositives++;
+				falsePositives++;
+			}
+		}
+		if (++observed >= WINDOW) {
+			decide();
+		}
+		return found;
+	}
+
+	/**
+	 * Look at the last window and decide whether to use the filter for the next one.
+	 */
+	private synchronized void decide() {
+		if (observed < WINDOW) {
+			// another thread just decided
+			return;
+		}
+		double rejectRate = rejected / (double) observed;
+		boolean wasBypassing = bypassing;
+		String why;
+		if (!wasBypassing && rejectRate < bypassBelow) {
+			bypassing = true;
+			why = "bypassing: the filter turned away only ";
+		} else if (wasBypassing && rejectRate > resumeAbove) {
+			bypassing = false;
+			why = "filtering again: the filter would have turned away ";
+		} else {
+			why = (wasBypassing ? "still bypassing: the filter would have turned away " : "still filtering: the filter turned away ");
+		}
+		lastObserved = observed;
+		lastRejected = rejected;
+		lastFalsePositives = falsePositives;
+		lastWhy = why;
+		decisions++;
+		if (bypassing != wasBypassing) {
+			switches++;
+		}
+		observed = 0;
+		rejected = 0;
+		falsePositives = 0;
+	}
+
+	/**
+	 * Add a word to both the filter and the dictionary.
+	 * @param word - the word to add.
+	 * @return what the dictionary's add says.
+	 */
+	@Override
+	public boolean add(String word) {
+		filter.insert(word);
+		return dictionary.add(word);
+	}
+
+	/**
+	 * @return true if contains is skipping the filter right now.
+	 */
+	public boolean isBypassing() {
+		return bypassing;
+	}
+
+	/**
+	 * @return a sentence about the last decision: what the filter did in that window and what we chose.
+	 */
+	public String lastDecision() {
+		String why = lastWhy;
+		if (why == null) {
+			return "no decision yet (filtering)";
+		}
+		// the false positive rate is out of the queries that weren't words: the rejected ones and the false positives
+		int misses = lastRejected + lastFalsePositives;
+		double fpRate = misses == 0 ? 0 : lastFalsePositives / (double) misses;
+		return String.format("%s%.1f%% of %d sampled queries (bypass below %.0f%%, resume above %.0f%%); "
+				+ "%.1f%% were words, false positive rate %.2f%%",
+				why, 100.0 * lastRejected / lastObserved, lastObserved, 100 * bypassBelow, 100 * resumeAbove,
+				100.0 * (lastObserved - misses) / lastObserved, 100 * fpRate);
+	}
+
+	/**
+	 * @return how many times contains was called.
+	 */
+	public long queries() {
+		return queries;
+	}
+
+	/**
+	 * @return how many of those checked the filter.
+	 */
+	public long filterChecks() {
+		return filterChecks;
+	}
+
+	/**
+	 * @return how many the filter turned away (never reaching the dictionary).
+	 */
+	public long filterRejects() {
+		return filterRejects;
+	}
+
+	/**
+	 * @return how many passed the filter but weren't in the dictionary.
+	 */
+	public long falsePositives() {
+		return totalFalsePositives;
+	}
+
+	/**
+	 * @return how many went to the dictionary.
+	 */
+	public long dictionaryLookups() {
+		return dictionaryLookups;
+	}
+
+	/**
+	 * @return how many times we decided whether to use the filter.
+	 */
+	public long decisions() {
+		return decisions;
+	}
+
+	/**
+	 * @return how many of those decisions changed our mind.
+	 */
+	public long switches() {
+		return switches;
+	}
+
+	/**
+	 * @return all the counters and the last decision, for printing.
+	 */
+	@Override
+	public String toString() {
+		return "FilteredSet[" + (bypassing ? "bypassing" : "filtering") + ", queries=" + queries
+				+ ", filterChecks=" + filterChecks + ", filterRejects=" + filterRejects
+				+ ", falsePositives=" + totalFalsePositives + ", dictionaryLookups=" + dictionaryLookups
+				+ ", decisions=" + decisions + ", switches=" + switches + ", last: " + lastDecision() + "]";
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return dictionary.iterator();
+	}
+
+	@Override
+	public int size() {
+		return dictionary.size();
+	}
+}
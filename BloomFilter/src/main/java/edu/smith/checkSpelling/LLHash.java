@@ -8,14 +8,15 @@ import java.util.List;
 
 /**
  * This is a simple HashSet that resolves collisions with a LinkedList.
+ * Once it is built, many threads may call contains at the same time.
  * @author jfoley
  *
  */
-public class LLHash extends AbstractSet<String> {
+public class LLHash extends AbstractSet<String> implements MemoryFootprint {
 	/**
 	 * All the buckets, whether used or not.
 	 */
-	List<Bucket> buckets;
+	final List<Bucket> buckets;
 	
 	/**
 	 * A LLHash is of a fixed-size.
@@ -118,6 +119,19 @@ public class LLHash extends AbstractSet<String> {
 		return count;
 	}
 	
+	/**
+	 * Every bucket is a Bucket and a LinkedList, even the empty ones, and every word adds a LinkedList node.
+	 */
+	@Override
+	public long estimatedBytes() {
+		// this object, the ArrayList (modCount, size, array) and its array of buckets (ArrayList(numBuckets) makes it exactly that big)
+		long bytes = MemoryFootprint.objectBytes(4) + MemoryFootprint.objectBytes(4 + 4 + 4) + MemoryFootprint.arrayBytes(buckets.size(), 4);
+		// each Bucket, and its LinkedList (modCount, size, first, last)
+		bytes += buckets.size() * (MemoryFootprint.objectBytes(4) + MemoryFootprint.objectBytes(4 + 4 + 4 + 4));
+		// each LinkedList node (item, next, prev)
+		return bytes + size() * MemoryFootprint.objectBytes(4 + 4 + 4);
+	}
+
 	/**
 	 * This is a bucket! It has a list of the values that collided here.
 	 */
@@ -0,0 +1,276 @@
+package edu.smith.checkSpelling;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small cache of recent answers in front of any dictionary.
+ * Real text says the same few hundred words over and over, so most lookups of the book can be answered
+ * from here without searching the dictionary again. Both answers are kept: "yes, it's a word" and "no, it isn't".
+ *
+ * The cache is a fixed number of slots, made when it is constructed; nothing is allocated per entry.
+ * A word's hash picks a set of WAYS neighboring slots, and it can only be stored in that set (so a lookup checks at most WAYS slots).
+ * When a set is full, the CLOCK rule picks what to throw out: each slot has a "recently used" bit, set whenever it answers a lookup.
+ * A hand goes around the set; a slot with the bit set gets it cleared and a second chance, and the first slot without it is replaced.
+ * So words that keep coming up stay, and words seen once go first.
+ *
+ * Each slot is a word (keys) and a long (meta) that packs the word's hash, the answer, the recently-used bit, a "busy" bit, and a version.
+ * Many threads may look things up at once, without locks:
+ * a thread filling a slot first sets busy (with compareAndSet, so only one thread fills it), writes the word, then writes the new meta
+ * with the version increased. A reader reads meta, then the word, then meta again; if anything but the recently-used bit changed
+ * in between, it doesn't trust what it saw and asks the dictionary instead. The worst a race can do is cost a dictionary lookup.
+ *
+ * The dictionary itself must allow many readers if the cache is shared (they all are, if nobody is adding).
+ * @author sivan
+ */
+public class LookupCache extends AbstractSet<String> {
+	/**
+	 * How many slots a word may be stored in.
+	 */
+	public static final int WAYS = 8;
+
+	// The parts of a slot's meta.
+	private static final long BUSY = 1;
+	private static final long FULL = 2;
+	private static final long ANSWER = 4;
+	private static final long RECENT = 8;
+	private static final int VERSION_SHIFT = 4;
+	private static final long VERSION_MASK = 0xFFFFFFFL;
+
+	/**
+	 * Where the real answers come from.
+	 */
+	private final Collection<String> dictionary;
+	/**
+	 * The number of sets, minus one (there is a power of two of them).
+	 */
+	private final int setMask;
+	/**
+	 * The word in each slot (only meaningful if its meta says FULL).
+	 */
+	private final AtomicReferenceArray<String> keys;
+	/**
+	 * hash (top 32 bits) | version | RECENT | ANSWER | FULL | BUSY, for each slot.
+	 */
+	private final AtomicLongArray meta;
+	/**
+	 * Where each set's CLOCK hand is. Two threads may move a hand at once; then it just skips or repeats a slot.
+	 */
+	private final int[] hands;
+	/**
+	 * Goes up on every add, so a lookup that raced with an add doesn't cache an answer that is out of date.
+	 */
+	private final AtomicInteger epoch = new AtomicInteger();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder negativeHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Put a cache in front of a dictionary.
+	 * @param dictionary - where the answers come from.
+	 * @param capacity - about how many answers to keep (rounded up to a power of two, at least WAYS).
+	 */
+	public LookupCache(Collection<String> dictionary, int capacity) {
+		if (capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+		}
+		int sets = 1;
+		while (sets * WAYS < capacity) {
+			sets <<= 1;
+		}
+		this.dictionary = dictionary;
+		this.setMask = sets - 1;
+		this.keys = new AtomicReferenceArray<>(sets * WAYS);
+		this.meta = new AtomicLongArray(sets * WAYS);
+		this.hands = new int[sets];
+	}
+
+	/**
+	 * Check for a word: in the cache if we've seen it lately, otherwise in the dictionary (and remember the answer).
+	 * Anything but a String goes straight to the dictionary.
+	 * @param obj - the word.
+	 * @return what the dictionary says.
+	 */
+	@Override
+	public boolean contains(Object obj) {
+		if (!(obj instanceof String)) {
+			return dictionary.contains(obj);
+		}
+		String word = (String) obj;
+		int hash = OpenHash.mix(word.hashCode());
+		int base = (hash & setMask) * WAYS;
+		for (int i = base; i < base + WAYS; i++) {
+			long m = meta.get(i);
+			if ((m & (FULL | BUSY)) != FULL || (int) (m >>> 32) != hash) {
+				continue;
+			}
+			String key = keys.get(i);
+			if (key != word && !word.equals(key)) {
+				continue;
+			}
+			long again = meta.get(i);
+			if ((again & ~RECENT) != (m & ~RECENT)) {
+				// it changed while we looked; don't trust it
+				break;
+			}
+			if ((again & RECENT) == 0) {
+				// if this fails, someone else changed it; that's fine
+				meta.compareAndSet(i, again, again | RECENT);
+			}
+			hits.increment();
+			if ((m & ANSWER) == 0) {
+				negativeHits.increment();
+			}
+			return (m & ANSWER) != 0;
+		}
+		misses.increment();
+		int before = epoch.get();
+		boolean answer = dictionary.contains(word);
+		remember(word, hash, base, answer, before);
+		return answer;
+	}
+
+	/**
+	 * Put an answer in its set, throwing out whatever the CLOCK hand picks.
+	 * @param before - the epoch when the dictionary was asked; if there has been an add since, don't store anything.
+	 */
+	private void remember(String word, int hash, int base, boolean answer, int before) {
+		int set = base / WAYS;
+		int hand = hands[set];
+		// twice around is enough: the first pass clears every RECENT bit
+		for (int step = 0; step < 2 * WAYS + 1; step++, hand++) {
+			int i = base + (hand & (WAYS - 1));
+			long m = meta.get(i);
+			if ((m & BUSY) != 0) {
+				continue;
+			}
+			if ((m & (FULL | RECENT)) == (FULL | RECENT)) {
+				meta.compareAndSet(i, m, m & ~RECENT);
+				continue;
+			}
+			if (!meta.compareAndSet(i, m, m | BUSY)) {
+				continue;
+			}
+			if (epoch.get() != before) {
+				// an add happened while we asked the dictionary; put the slot back as it was
+				meta.set(i, m);
+				return;
+			}
+			keys.set(i, word);
+			long version = ((m >>> VERSION_SHIFT) + 1) & VERSION_MASK;
+			meta.set(i, ((long) hash << 32) | (version << VERSION_SHIFT) | FULL | (answer ? ANSWER : 0));
+			if ((m & FULL) != 0) {
+				evictions.increment();
+			}
+			hands[set] = hand + 1;
+			return;
+		}
+		// everything was busy; just don't cache it
+	}
+
+	/**
+	 * Add a word to the dictionary, and forget any cached "no" for it.
+	 * Only do this while other threads are reading if the dictionary allows it.
+	 * @param word - the word to add.
+	 * @return what the dictionary's add says.
+	 */
+	@Override
+	public boolean add(String word) {
+		boolean added = dictionary.add(word);
+		epoch.incrementAndGet();
+		int hash = OpenHash.mix(word.hashCode());
+		int base = (hash & setMask) * WAYS;
+		for (int i = base; i < base + WAYS; i++) {
+			while (true) {
+				long m = meta.get(i);
+				if ((m & BUSY) != 0) {
+					// someone is filling it; it may be our word
+					Thread.yield();
+					continue;
+				}
+				if ((m & FULL) == 0 || (int) (m >>> 32) != hash || !word.equals(keys.get(i))) {
+					break;
+				}
+				long version = ((m >>> VERSION_SHIFT) + 1) & VERSION_MASK;
+				if (meta.compareAndSet(i, m, version << VERSION_SHIFT)) {
+					break;
+				}
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * @return how many lookups were answered from the cache.
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return how many of those hits were a cached "not a word".
+	 */
+	public long negativeHits() {
+		return negativeHits.sum();
+	}
+
+	/**
+	 * @return how many lookups had to ask the dictionary.
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return how many cached answers were thrown out to make room.
+	 */
+	public long evictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return the fraction of lookups answered from the cache (0 if there have been none).
+	 */
+	public double hitRatio() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : h / (double) total;
+	}
+
+	/**
+	 * @return how many answers the cache can hold.
+	 */
+	public int capacity() {
+		return meta.length();
+	}
+
+	/**
+	 * @return the counters, for printing.
+	 */
+	@Override
+	public String toString() {
+		return String.format("LookupCache[capacity=%d, hits=%d (%d negative), misses=%d, evictions=%d, hitRatio=%.3f]",
+				capacity(), hits(), negativeHits(), misses(), evictions(), hitRatio());
+	}
+
+	/**
+	 * The dictionary's words. Removing through this is not allowed, since the cache wouldn't know.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return Collections.unmodifiableCollection(dictionary).iterator();
+	}
+
+	@Override
+	public int size() {
+		return dictionary.size();
+	}
+}
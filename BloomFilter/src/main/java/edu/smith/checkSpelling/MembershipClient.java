@@ -0,0 +1,241 @@
+package edu.smith.checkSpelling;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Asks a {@link MembershipServer} about words.
+ *
+ * The simple way is contains or insert, which send one batch and wait for its answer.
+ * To save round trips, send several batches with sendContains/sendInsert, then call receive once per batch;
+ * the answers come back in the order the batches were sent. Nothing is sent until receive (or flush) is called,
+ * so a run of sends goes out in as few writes as possible.
+ *
+ * One client is one connection; use it from one thread at a time.
+ * @author sivan
+ */
+public class MembershipClient implements AutoCloseable {
+	/**
+	 * Read answers before sending more once this many bytes of them could be waiting at the server,
+	 * so the server never has to stop reading from us (see MembershipServer's OUT_LIMIT).
+	 */
+	private static final int MAX_UNREAD = 256 << 10;
+
+	private final SocketChannel channel;
+	/**
+	 * Requests not sent yet (write mode).
+	 */
+	private ByteBuffer out = ByteBuffer.allocate(16 << 10);
+	/**
+	 * For reading answers.
+	 */
+	private ByteBuffer in = ByteBuffer.allocate(16 << 10);
+	/**
+	 * The answer size of each batch sent (or queued) whose answer hasn't been read off the connection.
+	 */
+	private final ArrayDeque<Integer> notRead = new ArrayDeque<>();
+	/**
+	 * The total of notRead.
+	 */
+	private long unread;
+	/**
+	 * Answers we had to read early (to keep the server reading), waiting for receive.
+	 * An IOException in here is an error answer.
+	 */
+	private final ArrayDeque<Object> early = new ArrayDeque<>();
+
+	/**
+	 * Connect to a server on this machine.
+	 * @param port - the server's port.
+	 * @throws IOException if nothing is listening there.
+	 */
+	public MembershipClient(int port) throws IOException {
+		this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+	}
+
+	/**
+	 * Connect to a server.
+	 * @param address - where it is listening.
+	 * @throws IOException if nothing is listening there.
+	 */
+	public MembershipClient(InetSocketAddress address) throws IOException {
+		this.channel = SocketChannel.open(address);
+		channel.socket().setTcpNoDelay(true);
+	}
+
+	/**
+	 * Queue a batch of lookups.
+	 * @param words - the words to look up.
+	 */
+	public void sendContains(Collection<? extends CharSequence> words) throws IOException {
+		send(MembershipProtocol.CONTAINS, words);
+	}
+
+	/**
+	 * Queue a batch of inserts.
+	 * @param words - the words to add.
+	 */
+	public void sendInsert(Collection<? extends CharSequence> words) throws IOException {
+		send(MembershipProtocol.INSERT, words);
+	}
+
+	private void send(byte op, Collection<? extends CharSequence> words) throws IOException {
+		int answerSize = 4 + 1 + 4 + (words.size() + 7) / 8;
+		if (unread + answerSize > MAX_UNREAD) {
+			// the server could fill up with answers for us; read some first
+			flush();
+			while (unread > 0 && unread + answerSize > MAX_UNREAD) {
+				early.add(readAnswer());
+			}
+		}
+		int start = out.position();
+		out = MembershipProtocol.ensureRoom(out, 4 + 1 + 4);
+		out.putInt(0);
+		out.put(op);
+		out.putInt(words.size());
+		for (CharSequence w : words) {
+			out = MembershipProtocol.putWord(out, w);
+		}
+		int length = out.position() - start - 4;
+		if (length > MembershipProtocol.MAX_FRAME) {
+			out.position(start);
+			throw new IllegalArgumentException("Batch is too big to send: " + length + " bytes");
+		}
+		out.putInt(start, length);
+		notRead.add(answerSize);
+		unread += answerSize;
+	}
+
+	/**
+	 * Send everything queued so far.
+	 */
+	public void flush() throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	/**
+	 * @return how many batches have been sent (or queued) whose answers haven't been received.
+	 */
+	public int pending() {
+		return early.size() + notRead.size();
+	}
+
+	/**
+	 * Get the answer to the oldest batch we haven't received yet (sending anything still queued first).
+	 * @return one boolean per word: for lookups, was it there; for inserts, did it change anything.
+	 * @throws IOException if the server answered with an error, or the connection broke.
+	 */
+	public boolean[] receive() throws IOException {
+		if (pending() == 0) {
+			throw new IllegalStateException("Nothing to receive");
+		}
+		Object answer;
+		if (!early.isEmpty()) {
+			answer = early.poll();
+		} else {
+			flush();
+			answer = readAnswer();
+		}
+		if (answer instanceof IOException) {
+			throw (IOException) answer;
+		}
+		return (boolean[]) answer;
+	}
+
+	/**
+	 * Read the next answer off the connection.
+	 * @return a boolean[], or an IOException if the server sent an error.
+	 */
+	private Object readAnswer() throws IOException {
+		unread -= notRead.poll();
+		readFully(4);
+		int length = in.getInt(0);
+		if (length < 1 || length > MembershipProtocol.MAX_FRAME) {
+			throw new IOException("Bad answer length " + length);
+		}
+		readFully(length);
+		if (in.get(0) == MembershipProtocol.ERROR) {
+			int messageLength = in.getShort(1) & 0xFFFF;
+			return new IOException("Server error: " + new String(in.array(), 3, messageLength, StandardCharsets.UTF_8));
+		}
+		int count = in.getInt(1);
+		boolean[] result = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = (in.get(5 + (i >>> 3)) & (1 << (i & 7))) != 0;
+		}
+		return result;
+	}
+
+	/**
+	 * Read exactly n bytes into the start of in.
+	 */
+	private void readFully(int n) throws IOException {
+		if (in.capacity() < n) {
+			in = ByteBuffer.allocate(n);
+		}
+		in.clear();
+		in.limit(n);
+		while (in.hasRemaining()) {
+			if (channel.read(in) < 0) {
+				throw new EOFException("Server closed the connection");
+			}
+		}
+	}
+
+	/**
+	 * Look up a batch of words and wait for the answer.
+	 * @param words - the words.
+	 * @return for each word, whether the server's dictionary contains it.
+	 */
+	public boolean[] contains(Collection<? extends CharSequence> words) throws IOException {
+		checkNothingPending();
+		sendContains(words);
+		return receive();
+	}
+
+	/**
+	 * Look up one word (a whole round trip; batches are much cheaper per word).
+	 * @param word - the word.
+	 * @return whether the server's dictionary contains it.
+	 */
+	public boolean contains(CharSequence word) throws IOException {
+		return contains(Collections.singletonList(word))[0];
+	}
+
+	/**
+	 * Add a batch of words and wait for the answer.
+	 * @param words - the words.
+	 * @return for each word, whether adding it changed the server's dictionary.
+	 */
+	public boolean[] insert(Collection<? extends CharSequence> words) throws IOException {
+		checkNothingPending();
+		sendInsert(words);
+		return receive();
+	}
+
+	/**
+	 * The one-batch methods would get some earlier batch's answer if any were still pending.
+	 */
+	private void checkNothingPending() {
+		if (pending() > 0) {
+			throw new IllegalStateException(pending() + " batches still need receive()");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
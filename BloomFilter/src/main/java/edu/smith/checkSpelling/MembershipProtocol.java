@@ -0,0 +1,77 @@
+package edu.smith.checkSpelling;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The bytes {@link MembershipServer} and {@link MembershipClient} send each other.
+ *
+ * Every message is a frame: an int (big-endian) giving how many bytes follow, then those bytes.
+ * A request is: one byte saying what to do (CONTAINS or INSERT), an int count, then count words,
+ * each an unsigned short length and that many bytes of UTF-8.
+ * A response is: one byte status; if it is OK, an int count and one bit per word (word i is bit i%8 of byte i/8);
+ * if it is ERROR, an unsigned short length and a UTF-8 message.
+ * Responses come back in the order the requests were sent, so a client can send many before reading any.
+ * @author sivan
+ */
+final class MembershipProtocol {
+	static final byte CONTAINS = 1;
+	static final byte INSERT = 2;
+	static final byte OK = 0;
+	static final byte ERROR = 1;
+	/**
+	 * Frames bigger than this are refused (the connection is closed), so a bad client can't make the server allocate anything huge.
+	 */
+	static final int MAX_FRAME = 16 << 20;
+	/**
+	 * The longest word, in UTF-8 bytes.
+	 */
+	static final int MAX_WORD = 0xFFFF;
+
+	private MembershipProtocol() {
+	}
+
+	/**
+	 * @return a buffer with room for at least need more bytes: buffer itself if it has room, otherwise a bigger copy.
+	 */
+	static ByteBuffer ensureRoom(ByteBuffer buffer, int need) {
+		if (buffer.remaining() >= need) {
+			return buffer;
+		}
+		long wanted = Math.max(2L * buffer.capacity(), (long) buffer.position() + need);
+		ByteBuffer bigger = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, wanted));
+		buffer.flip();
+		bigger.put(buffer);
+		return bigger;
+	}
+
+	/**
+	 * Append one word to a request being written.
+	 * @return the buffer (maybe a bigger one).
+	 */
+	static ByteBuffer putWord(ByteBuffer out, CharSequence word) {
+		byte[] bytes = word.toString().getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > MAX_WORD) {
+			throw new IllegalArgumentException("Word is too long to send: " + bytes.length + " bytes");
+		}
+		out = ensureRoom(out, 2 + bytes.length);
+		out.putShort((short) bytes.length);
+		out.put(bytes);
+		return out;
+	}
+
+	/**
+	 * Read one word of a request.
+	 * @throws BufferUnderflowException if the frame ends in the middle of it.
+	 */
+	static String getWord(ByteBuffer in) {
+		int length = in.getShort() & 0xFFFF;
+		if (length > in.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		String word = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return word;
+	}
+}
@@ -0,0 +1,309 @@
+package edu.smith.checkSpelling;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This shares one dictionary (or filter) with every process on the machine, over TCP on the loopback address,
+ * so they don't each have to load their own copy. {@link MembershipClient} is the other end;
+ * {@link MembershipProtocol} describes the bytes.
+ *
+ * Clients send batches of words, and may send many batches before reading any answers,
+ * so one round trip (and one pair of system calls) covers many lookups.
+ *
+ * One thread does everything: a Selector tells it which connections have bytes to read or room to write,
+ * and it answers every complete request it has, in order. Since only that thread touches the dictionary,
+ * inserts need no locking, and any Collection works (a BloomFilter, a HashSet, ...).
+ * @author sivan
+ */
+public class MembershipServer implements AutoCloseable {
+	/**
+	 * Stop reading from a client once this many bytes of answers are waiting for it.
+	 */
+	private static final int OUT_LIMIT = 1 << 20;
+
+	/**
+	 * What we answer questions about.
+	 */
+	private final Collection<String> dictionary;
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	// Running totals.
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong words = new AtomicLong();
+	private final AtomicLong connections = new AtomicLong();
+
+	/**
+	 * What the server knows about one client.
+	 */
+	private static class Connection {
+		/**
+		 * Bytes read but not yet answered (in write mode: data is from 0 to position).
+		 */
+		ByteBuffer in = ByteBuffer.allocate(64 << 10);
+		/**
+		 * Answers not yet written (in write mode, too).
+		 */
+		ByteBuffer out = ByteBuffer.allocate(16 << 10);
+	}
+
+	/**
+	 * Start serving a dictionary on the loopback address.
+	 * @param dictionary - the words; nobody else may change it while the server runs.
+	 * @param port - the port to listen on, or 0 for any free one (see getPort).
+	 * @throws IOException if it can't listen there.
+	 */
+	public MembershipServer(Collection<String> dictionary, int port) throws IOException {
+		this.dictionary = dictionary;
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		this.thread = new Thread(this::run, "membership-server");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * @return the port clients should connect to.
+	 */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	/**
+	 * @return how many requests (batches) have been answered.
+	 */
+	public long requests() {
+		return requests.get();
+	}
+
+	/**
+	 * @return how many words were in those requests.
+	 */
+	public long words() {
+		return words.get();
+	}
+
+	/**
+	 * @return how many clients have connected.
+	 */
+	public long connections() {
+		return connections.get();
+	}
+
+	/**
+	 * The server thread: wait for something to do, do it, repeat.
+	 */
+	private void run() {
+		try {
+			while (running) {
+				selector.select();
+				Iterator<SelectionKey> ready = selector.selectedKeys().iterator();
+				while (ready.hasNext()) {
+					SelectionKey key = ready.next();
+					ready.remove();
+					try {
+						if (key.isAcceptable()) {
+							accept();
+						} else {
+							if (key.isReadable()) {
+								read(key);
+							}
+							if (key.isValid() && key.isWritable()) {
+								pump(key);
+							}
+						}
+					} catch (IOException e) {
+						// that client is gone; the others carry on
+						drop(key);
+					}
+				}
+			}
+		} catch (IOException | ClosedSelectorException e) {
+			// closed
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel client = server.accept();
+		if (client == null) {
+			return;
+		}
+		client.configureBlocking(false);
+		client.socket().setTcpNoDelay(true);
+		client.register(selector, SelectionKey.OP_READ, new Connection());
+		connections.incrementAndGet();
+	}
+
+	private void drop(SelectionKey key) {
+		key.cancel();
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			// nothing more to do
+		}
+	}
+
+	/**
+	 * Read what has arrived, then answer it.
+	 */
+	private void read(SelectionKey key) throws IOException {
+		Connection c = (Connection) key.attachment();
+		if (((SocketChannel) key.channel()).read(c.in) < 0) {
+			drop(key);
+			return;
+		}
+		pump(key);
+	}
+
+	/**
+	 * Answer complete requests and write the answers, until we run out of requests or the client stops taking answers.
+	 * If a client sends requests without reading the answers, we stop reading from it once OUT_LIMIT bytes of answers are waiting,
+	 * so it can't make us buffer without end.
+	 */
+	private void pump(SelectionKey key) throws IOException {
+		Connection c = (Connection) key.attachment();
+		SocketChannel channel = (SocketChannel) key.channel();
+		while (true) {
+			boolean answered = false;
+			c.in.flip();
+			while (c.out.position() < OUT_LIMIT && c.in.remaining() >= 4) {
+				int length = c.in.getInt(c.in.position());
+				if (length < 0 || length > MembershipProtocol.MAX_FRAME) {
+					drop(key);
+					return;
+				}
+				if (c.in.remaining() < 4 + length) {
+					break;
+				}
+				ByteBuffer frame = c.in.duplicate();
+				frame.position(c.in.position() + 4);
+				frame.limit(c.in.position() + 4 + length);
+				c.in.position(c.in.position() + 4 + length);
+				c.out = answer(frame.slice(), c.out);
+				answered = true;
+			}
+			c.in.compact();
+
+			c.out.flip();
+			channel.write(c.out);
+			c.out.compact();
+			if (c.out.position() > 0 || !answered) {
+				break;
+			}
+		}
+		// make sure the next frame will fit
+		if (c.in.position() >= 4) {
+			int length = c.in.getInt(0);
+			if (length >= 0 && length <= MembershipProtocol.MAX_FRAME) {
+				c.in = MembershipProtocol.ensureRoom(c.in, 4 + length - c.in.position());
+			}
+		}
+		int interest = 0;
+		if (c.out.position() > 0) {
+			interest |= SelectionKey.OP_WRITE;
+		}
+		if (c.out.position() < OUT_LIMIT) {
+			interest |= SelectionKey.OP_READ;
+		}
+		key.interestOps(interest);
+	}
+
+	/**
+	 * Answer one request.
+	 * @param request - the frame, without its length.
+	 * @param out - where answers go.
+	 * @return out (maybe a bigger one).
+	 */
+	private ByteBuffer answer(ByteBuffer request, ByteBuffer out) {
+		int start = out.position();
+		try {
+			byte op = request.get();
+			if (op != MembershipProtocol.CONTAINS && op != MembershipProtocol.INSERT) {
+				return error(out, "unknown request " + op);
+			}
+			int count = request.getInt();
+			// each word takes at least 2 bytes, so a bad count can't make us allocate much
+			if (count < 0 || count > request.remaining() / 2) {
+				return error(out, "bad word count " + count);
+			}
+			int bytes = (count + 7) / 8;
+			out = MembershipProtocol.ensureRoom(out, 4 + 1 + 4 + bytes);
+			start = out.position();
+			out.putInt(1 + 4 + bytes);
+			out.put(MembershipProtocol.OK);
+			out.putInt(count);
+			int bits = 0;
+			for (int i = 0; i < count; i++) {
+				String word = MembershipProtocol.getWord(request);
+				boolean yes = op == MembershipProtocol.CONTAINS ? dictionary.contains(word) : dictionary.add(word);
+				if (yes) {
+					bits |= 1 << (i & 7);
+				}
+				if ((i & 7) == 7 || i == count - 1) {
+					out.put((byte) bits);
+					bits = 0;
+				}
+			}
+			requests.incrementAndGet();
+			words.addAndGet(count);
+			return out;
+		} catch (BufferUnderflowException e) {
+			// throw away the partial answer
+			out.position(start);
+			return error(out, "request ended early");
+		} catch (RuntimeException e) {
+			out.position(start);
+			return error(out, e.toString());
+		}
+	}
+
+	/**
+	 * Append an error answer.
+	 */
+	private static ByteBuffer error(ByteBuffer out, String message) {
+		byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(bytes.length, MembershipProtocol.MAX_WORD);
+		out = MembershipProtocol.ensureRoom(out, 4 + 1 + 2 + length);
+		out.putInt(1 + 2 + length);
+		out.put(MembershipProtocol.ERROR);
+		out.putShort((short) length);
+		out.put(bytes, 0, length);
+		return out;
+	}
+
+	/**
+	 * Stop serving and close every connection.
+	 */
+	@Override
+	public void close() throws IOException {
+		running = false;
+		selector.wakeup();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (SelectionKey key : selector.keys()) {
+			key.channel().close();
+		}
+		selector.close();
+	}
+}
@@ -0,0 +1,54 @@
+package edu.smith.checkSpelling;
+
+/**
+ * A dictionary structure that can say roughly how much memory it takes,
+ * so we can pick structures by bytes per key as well as by speed.
+ *
+ * The numbers assume a 64-bit JVM with compressed references (the default for heaps under 32 GB):
+ * an object is a 12-byte header plus its fields, an array is a 16-byte header plus its elements,
+ * a reference is 4 bytes, and everything is rounded up to a multiple of 8.
+ * The word Strings themselves are not counted: structures that keep them share them with the list they were built from.
+ * @author sivan
+ */
+public interface MemoryFootprint {
+	/**
+	 * @return roughly how many bytes this structure keeps alive, headers included, not counting the word Strings.
+	 */
+	long estimatedBytes();
+
+	/**
+	 * @param structure - a dictionary structure.
+	 * @param keys - how many words were put into it.
+	 * @return its memory, in bits per word.
+	 */
+	static double bitsPerKey(MemoryFootprint structure, long keys) {
+		if (keys == 0) {
+			return 0;
+		}
+		return structure.estimatedBytes() * 8.0 / keys;
+	}
+
+	/**
+	 * @param fieldBytes - the total size of an object's fields (4 for a reference or an int, 8 for a long, ...).
+	 * @return the size of the object.
+	 */
+	static long objectBytes(int fieldBytes) {
+		return align(12 + fieldBytes);
+	}
+
+	/**
+	 * @param length - how many elements.
+	 * @param elementBytes - the size of one (4 for a reference or an int, 8 for a long, ...).
+	 * @return the size of the array.
+	 */
+	static long arrayBytes(long length, int elementBytes) {
+		return align(16 + length * elementBytes);
+	}
+
+	/**
+	 * @return bytes rounded up to a multiple of 8, like the JVM lays out objects.
+	 */
+	static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+}
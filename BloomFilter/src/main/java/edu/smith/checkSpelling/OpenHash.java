@@ -0,0 +1,439 @@
+package edu.smith.checkSpelling;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * This is a HashSet of Strings like {@link LLHash}, but without the LinkedLists.
+ * LLHash has a fixed number of buckets (so 235k words in 100k buckets means chains),
+ * a LinkedList node for every word, and it walks every bucket to find its size.
+ *
+ * Here the words live right in an array of slots ("open addressing"). A word goes in the slot its hash picks,
+ * or if that is taken, the next free slot after it ("linear probing"); a lookup walks the same way until it finds
+ * the word or an empty slot. Next to each word we keep its hash, so a slot holding a different word is almost
+ * always rejected by comparing two ints, without touching the String at all.
+ * When the table gets more than maxLoad full, it doubles and every word moves to its new slot.
+ *
+ * Moving every word at once means one unlucky add takes milliseconds instead of nanoseconds.
+ * In incremental mode (see the constructor), growing only allocates the new table; the old one stays around,
+ * and each add after that moves the next {@link #MIGRATE_SLOTS} slots of it across, until it is empty and dropped.
+ * While both tables are live, lookups check the new one and then the old one.
+ * The new table is twice as big, so the old one is always finished long before the new one needs to grow.
+ *
+ * countCollisions and countUsedBuckets still work, but here they are about probing:
+ * see {@link #countCollisions()}, {@link #maxProbeLength()} and {@link #averageProbeLength()}.
+ *
+ * Words can't be removed. Once it is built, many threads may call contains at the same time.
+ * @author sivan
+ */
+public class OpenHash extends AbstractSet<String> {
+	/**
+	 * How full the table may get before it grows, unless the constructor says otherwise.
+	 */
+	public static final double DEFAULT_MAX_LOAD = 0.6;
+	/**
+	 * In incremental mode, how many old slots each add moves to the new table.
+	 */
+	public static final int MIGRATE_SLOTS = 16;
+
+	/**
+	 * The words; null means the slot is empty. The length is always a power of two.
+	 */
+	private String[] keys;
+	/**
+	 * hashes[i] is the (mixed) hash of keys[i], or 0 if the slot is empty (no word's hash is ever 0).
+	 * Probing only reads this array until a hash matches, so it never has to look at a word that isn't the one we want.
+	 */
+	private int[] hashes;
+	/**
+	 * How many words are stored.
+	 */
+	private int size;
+	/**
+	 * Grow when size reaches this.
+	 */
+	private int threshold;
+	/**
+	 * The fraction of slots that may be used.
+	 */
+	private final double maxLoad;
+	/**
+	 * Grow a little at a time, rather than all at once?
+	 */
+	private final boolean incremental;
+
+	// While an incremental resize is going on, the old table (null otherwise):
+	/**
+	 * The words of the old table. Moved words are left where they are, so probing it still works.
+	 */
+	private String[] oldKeys;
+	/**
+	 * The hashes of the old table.
+	 */
+	private int[] oldHashes;
+	/**
+	 * Old slots before this one have been moved to the new table.
+	 */
+	private int migrated;
+
+	/**
+	 * Construct an empty set.
+	 */
+	public OpenHash() {
+		this(16, DEFAULT_MAX_LOAD);
+	}
+
+	/**
+	 * Construct a set big enough for some number of words, so it doesn't need to grow while you fill it.
+	 * @param expectedSize - how many words you expect to add.
+	 */
+	public OpenHash(int expectedSize) {
+		this(expectedSize, DEFAULT_MAX_LOAD);
+	}
+
+	/**
+	 * Construct a set.
+	 * @param expectedSize - how many words you expect to add.
+	 * @param maxLoad - how full the table may get before it grows, between 0 and 1 (not including 1).
+	 */
+	public OpenHash(int expectedSize, double maxLoad) {
+		this(expectedSize, maxLoad, false);
+	}
+
+	/**
+	 * Construct a set.
+	 * @param expectedSize - how many words you expect to add.
+	 * @param maxLoad - how full the table may get before it grows, between 0 and 1 (not including 1).
+	 * @param incremental - true to spread the work of growing over the adds that follow it.
+	 */
+	public OpenHash(int expectedSize, double maxLoad, boolean incremental) {
+		if (maxLoad <= 0 || maxLoad >= 1) {
+			throw new IllegalArgumentException("maxLoad must be between 0 and 1: " + maxLoad);
+		}
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+		}
+		this.maxLoad = maxLoad;
+		this.incremental = incremental;
+		int capacity = 16;
+		while (capacity * maxLoad <= expectedSize) {
+			capacity *= 2;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Make a fresh, empty table.
+	 */
+	private void allocate(int capacity) {
+		keys = new String[capacity];
+		hashes = new int[capacity];
+		threshold = (int) (capacity * maxLoad);
+	}
+
+	/**
+	 * String.hashCode is poor in the low bits for short words, and we pick slots with the low bits,
+	 * so mix the high bits down first.
+	 */
+	static int mix(int h) {
+		h *= 0x9E3779B9;
+		h ^= h >>> 16;
+		// 0 means empty
+		return h == 0 ? 1 : h;
+	}
+
+	/**
+	 * The same number String.hashCode would give, for any CharSequence.
+	 */
+	static int hashOf(CharSequence cs) {
+		if (cs instanceof String) {
+			return cs.hashCode();
+		}
+		int h = 0;
+		for (int i = 0; i < cs.length(); i++) {
+			h = 31 * h + cs.charAt(i);
+		}
+		return h;
+	}
+
+	/**
+	 * Find a word, or where it would go.
+	 * @param word - what to look for.
+	 * @param hash - its mixed hash.
+	 * @return the slot holding word, or -(empty slot) - 1 if it isn't here.
+	 */
+	private int findSlot(CharSequence word, int hash) {
+		return findSlot(keys, hashes, word, hash);
+	}
+
+	/**
+	 * Find a word, or where it would go, in either table.
+	 */
+	private static int findSlot(String[] keys, int[] hashes, CharSequence word, int hash) {
+		int mask = keys.length - 1;
+		int i = hash & mask;
+		while (true) {
+			int h = hashes[i];
+			if (h == hash) {
+				String k = keys[i];
+				if (k == word || (word instanceof String ? k.equals(word) : k.contentEquals(word))) {
+					return i;
+				}
+			} else if (h == 0) {
+				return -i - 1;
+			}
+			i = (i + 1) & mask;
+		}
+	}
+
+	/**
+	 * Add a word, if it is new.
+	 * @param word - the string to add.
+	 * @return true if it was new.
+	 */
+	@Override
+	public boolean add(String word) {
+		int hash = mix(word.hashCode());
+		if (findSlot(word, hash) >= 0 || (oldKeys != null && findSlot(oldKeys, oldHashes, word, hash) >= 0)) {
+			return false;
+		}
+		if (oldKeys != null) {
+			migrate(MIGRATE_SLOTS);
+		}
+		if (size >= threshold) {
+			grow();
+		}
+		place(keys, hashes, word, hash);
+		size++;
+		return true;
+	}
+
+	/**
+	 * Put a word that isn't there yet into the first free slot of its probe sequence.
+	 */
+	private static void place(String[] keys, int[] hashes, String word, int hash) {
+		int mask = keys.length - 1;
+		int i = hash & mask;
+		while (hashes[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		keys[i] = word;
+		hashes[i] = hash;
+	}
+
+	/**
+	 * Double the table. Normally every word moves to its slot in the new one right now;
+	 * in incremental mode, the old table is kept and the words move over during later adds.
+	 * We kept the hashes, so nothing gets hashed again.
+	 */
+	private void grow() {
+		if (oldKeys != null) {
+			// only happens if someone set a tiny maxLoad; finish the last resize first.
+			migrate(oldKeys.length);
+		}
+		oldKeys = keys;
+		oldHashes = hashes;
+		migrated = 0;
+		allocate(oldKeys.length * 2);
+		if (!incremental) {
+			migrate(oldKeys.length);
+		}
+	}
+
+	/**
+	 * Move the next few slots of the old table into the new one, and drop the old table once it is done.
+	 * @param slots - how many old slots to move.
+	 */
+	private void migrate(int slots) {
+		int end = Math.min(migrated + slots, oldKeys.length);
+		for (int j = migrated; j < end; j++) {
+			if (oldHashes[j] != 0) {
+				place(keys, hashes, oldKeys[j], oldHashes[j]);
+			}
+		}
+		migrated = end;
+		if (migrated == oldKeys.length) {
+			oldKeys = null;
+			oldHashes = null;
+		}
+	}
+
+	/**
+	 * If a resize is still going on, finish it now, so lookups only have one table to check.
+	 * Call this once you are done adding (like CompactCharTrie.compact).
+	 */
+	public void finishResize() {
+		if (oldKeys != null) {
+			migrate(oldKeys.length);
+		}
+	}
+
+	/**
+	 * @return true while an incremental resize has two tables live.
+	 */
+	public boolean isResizing() {
+		return oldKeys != null;
+	}
+
+	/**
+	 * Check for a word. This accepts any CharSequence, not just Strings.
+	 * @param obj - the word.
+	 * @return true if it was added.
+	 */
+	@Override
+	public boolean contains(Object obj) {
+		if (!(obj instanceof CharSequence)) {
+			return false;
+		}
+		CharSequence word = (CharSequence) obj;
+		int hash = mix(hashOf(word));
+		return findSlot(word, hash) >= 0 || (oldKeys != null && findSlot(oldKeys, oldHashes, word, hash) >= 0);
+	}
+
+	/**
+	 * @return the number of words, without counting them.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return how many slots the table has right now.
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Tell a visitor how far each word is from its home slot (the one its hash picks): 0 if it is right there.
+	 * During an incremental resize, the words not moved yet are measured in the old table.
+	 */
+	private void visitProbeLengths(IntConsumer visitor) {
+		visitProbeLengths(keys, hashes, 0, visitor);
+		if (oldKeys != null) {
+			visitProbeLengths(oldKeys, oldHashes, migrated, visitor);
+		}
+	}
+
+	private static void visitProbeLengths(String[] keys, int[] hashes, int from, IntConsumer visitor) {
+		int mask = keys.length - 1;
+		for (int i = from; i < keys.length; i++) {
+			if (hashes[i] != 0) {
+				visitor.accept((i - hashes[i]) & mask);
+			}
+		}
+	}
+
+	/**
+	 * Count how many words had to probe: the ones that aren't in their home slot.
+	 * In LLHash this counts buckets with a chain; here a word that collided moves along instead.
+	 * @return the number of words not in their home slot.
+	 */
+	public int countCollisions() {
+		int[] count = new int[1];
+		visitProbeLengths(length -> {
+			if (length > 0) {
+				count[0]++;
+			}
+		});
+		return count[0];
+	}
+
+	/**
+	 * Count how many slots are being used. There's one word per slot, so this is the same as size.
+	 * @return the number of slots holding a word.
+	 */
+	public int countUsedBuckets() {
+		return size;
+	}
+
+	/**
+	 * @return the longest distance any word is from its home slot (a successful lookup looks at one more slot than this).
+	 */
+	public int maxProbeLength() {
+		int[] max = new int[1];
+		visitProbeLengths(length -> max[0] = Math.max(max[0], length));
+		return max[0];
+	}
+
+	/**
+	 * @return the average distance of a word from its home slot.
+	 */
+	public double averageProbeLength() {
+		if (size == 0) {
+			return 0;
+		}
+		long[] total = new long[1];
+		visitProbeLengths(length -> total[0] += length);
+		return total[0] / (double) size;
+	}
+
+	/**
+	 * Let us for-loop over all the words: the table in slot order, then anything the old table hasn't moved yet.
+	 * @return an iterator that can't remove.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+			String[] table = keys;
+			String[] rest = oldKeys;
+			int restFrom = migrated;
+			int next = advance(0);
+
+			/**
+			 * @return the next full slot from here on, switching to the old table at the end of the new one.
+			 */
+			int advance(int from) {
+				while (true) {
+					while (from < table.length && table[from] == null) {
+						from++;
+					}
+					if (from < table.length || rest == null) {
+						return from;
+					}
+					table = rest;
+					rest = null;
+					from = restFrom;
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next < table.length;
+			}
+
+			@Override
+			public String next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				String k = table[next];
+				next = advance(next + 1);
+				return k;
+			}
+		};
+	}
+
+	/**
+	 * Compare probing against LLHash on the dictionary.
+	 */
+	public static void main(String[] args) {
+		List<String> words = CheckSpelling.loadDictionary();
+		LLHash chained = new LLHash(100000);
+		for (String w : words) {
+			chained.add(w);
+		}
+		System.out.println("LLHash: " + chained.countUsedBuckets() + " used buckets, " + chained.countCollisions() + " with collisions.");
+		OpenHash open = new OpenHash();
+		for (String w : words) {
+			open.add(w);
+		}
+		System.out.println("OpenHash: " + open.size() + " words in " + open.capacity() + " slots, "
+				+ open.countCollisions() + " not in their home slot, longest probe " + open.maxProbeLength()
+				+ ", average probe " + open.averageProbeLength());
+	}
+}
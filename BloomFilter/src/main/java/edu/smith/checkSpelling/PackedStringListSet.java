@@ -0,0 +1,238 @@
+package edu.smith.checkSpelling;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This is a {@link SortedStringListSet} laid out for the cache.
+ * SortedStringListSet keeps a list of Strings, so every step of its binary search follows a pointer to a String
+ * and another to its characters, somewhere else in memory: about 18 steps, each one likely a cache miss.
+ *
+ * Here all the characters of all the words are in one char array (the "arena"), one word after another,
+ * and offsets[k] says where word k starts. There are no String objects at all.
+ *
+ * The words are not in sorted order, either, but in "Eytzinger" order: the order you'd get by reading a
+ * balanced binary search tree level by level. Slot 1 is the middle word, slots 2 and 3 are the middles of each half,
+ * and the children of slot k are slots 2k and 2k+1. A search goes down that tree, so the first few steps of
+ * every search touch the same few slots at the front of the arrays, which stay in the cache.
+ *
+ * Each slot also has its first four characters packed into a long (the "prefix"), so most steps of a search
+ * compare two longs and never look at the arena. Ordering is the same as String.compareTo.
+ *
+ * It never changes after the constructor, so many threads may share it.
+ * @author sivan
+ */
+public class PackedStringListSet extends AbstractSet<String> implements MemoryFootprint {
+	/**
+	 * How many characters go in each prefix (16 bits each).
+	 */
+	private static final int PREFIX_CHARS = 4;
+
+	/**
+	 * How many words; the slots are 1 to n.
+	 */
+	private final int n;
+	/**
+	 * Word k is arena[offsets[k]] up to arena[offsets[k+1]]. Slot 0 is not used.
+	 */
+	private final int[] offsets;
+	/**
+	 * Every word's characters, in slot order.
+	 */
+	private final char[] arena;
+	/**
+	 * The first PREFIX_CHARS characters of word k, packed so that comparing two prefixes as longs
+	 * puts them in the same order as comparing the Strings.
+	 */
+	private final long[] prefixes;
+
+	/**
+	 * Take in words, sort them, drop duplicates, and pack them.
+	 * @param data - the input words.
+	 */
+	public PackedStringListSet(Collection<String> data) {
+		List<String> sorted = new ArrayList<>(data);
+		Collections.sort(sorted);
+		// drop duplicates in place
+		int unique = 0;
+		for (String w : sorted) {
+			if (unique == 0 || !sorted.get(unique - 1).equals(w)) {
+				sorted.set(unique++, w);
+			}
+		}
+		this.n = unique;
+
+		// the sorted words go into the slots in tree order (left subtree, node, right subtree)
+		String[] bySlot = new String[n + 1];
+		long chars = 0;
+		int i = 0;
+		for (int k = first(); k != 0; k = next(k)) {
+			String w = sorted.get(i++);
+			bySlot[k] = w;
+			chars += w.length();
+		}
+		if (chars > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many characters to pack: " + chars);
+		}
+		this.arena = new char[(int) chars];
+		this.offsets = new int[n + 2];
+		this.prefixes = new long[n + 1];
+		int at = 0;
+		for (int k = 1; k <= n; k++) {
+			String w = bySlot[k];
+			offsets[k] = at;
+			w.getChars(0, w.length(), arena, at);
+			at += w.length();
+			prefixes[k] = prefixOf(w);
+		}
+		offsets[n + 1] = at;
+	}
+
+	/**
+	 * @return the slot of the smallest word (the leftmost in the tree), or 0 if there are none.
+	 */
+	private int first() {
+		if (n == 0) {
+			return 0;
+		}
+		int k = 1;
+		while (2 * k <= n) {
+			k = 2 * k;
+		}
+		return k;
+	}
+
+	/**
+	 * @return the slot of the next bigger word after slot k, or 0 after the biggest.
+	 */
+	private int next(int k) {
+		if (2 * k + 1 <= n) {
+			// the smallest word in the right subtree
+			k = 2 * k + 1;
+			while (2 * k <= n) {
+				k = 2 * k;
+			}
+			return k;
+		}
+		// go up until we come from a left child
+		while ((k & 1) == 1) {
+			k >>= 1;
+		}
+		return k >> 1;
+	}
+
+	/**
+	 * Pack the first few characters of a word into a long (missing characters count as 0).
+	 * Flipping the top bit makes signed comparison of the longs work like unsigned.
+	 */
+	private static long prefixOf(CharSequence word) {
+		long p = 0;
+		for (int i = 0; i < PREFIX_CHARS; i++) {
+			p = (p << 16) | (i < word.length() ? word.charAt(i) : 0);
+		}
+		return p ^ Long.MIN_VALUE;
+	}
+
+	/**
+	 * Compare the word in slot k with a query, like String.compareTo.
+	 */
+	private int compare(int k, CharSequence query) {
+		int start = offsets[k];
+		int length = offsets[k + 1] - start;
+		int min = Math.min(length, query.length());
+		for (int i = 0; i < min; i++) {
+			int diff = arena[start + i] - query.charAt(i);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return length - query.length();
+	}
+
+	/**
+	 * Check for a word. This accepts any CharSequence, not just Strings.
+	 * @param key - the word.
+	 * @return true if it is in the set.
+	 */
+	@Override
+	public boolean contains(Object key) {
+		if (!(key instanceof CharSequence)) {
+			return false;
+		}
+		CharSequence query = (CharSequence) key;
+		long prefix = prefixOf(query);
+		long[] prefixes = this.prefixes;
+		int k = 1;
+		while (k <= n) {
+			long p = prefixes[k];
+			int cmp;
+			if (p != prefix) {
+				cmp = p < prefix ? -1 : 1;
+			} else {
+				cmp = compare(k, query);
+				if (cmp == 0) {
+					return true;
+				}
+			}
+			// smaller words are on the left (2k), bigger ones on the right (2k+1)
+			k = 2 * k + (cmp < 0 ? 1 : 0);
+		}
+		return false;
+	}
+
+	/**
+	 * @return the word in slot k, as a new String.
+	 */
+	private String wordAt(int k) {
+		return new String(arena, offsets[k], offsets[k + 1] - offsets[k]);
+	}
+
+	/**
+	 * So we can use it in a for-loop; the words come out sorted.
+	 * Each one is a new String, because we don't keep any.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+			int k = first();
+
+			@Override
+			public boolean hasNext() {
+				return k != 0;
+			}
+
+			@Override
+			public String next() {
+				if (k == 0) {
+					throw new NoSuchElementException();
+				}
+				String w = wordAt(k);
+				k = PackedStringListSet.this.next(k);
+				return w;
+			}
+		};
+	}
+
+	/**
+	 * So we know how big this set is.
+	 */
+	@Override
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * The characters of every word, plus an offset and a prefix per word; this keeps its own copy of the words.
+	 */
+	@Override
+	public long estimatedBytes() {
+		// this object (n and three arrays), then the arrays
+		return MemoryFootprint.objectBytes(4 + 3 * 4) + MemoryFootprint.arrayBytes(offsets.length, 4)
+				+ MemoryFootprint.arrayBytes(arena.length, 2) + MemoryFootprint.arrayBytes(prefixes.length, 8);
+	}
+}
@@ -0,0 +1,393 @@
+package edu.smith.checkSpelling;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This is a dictionary that can never change, built from a fixed list of words.
+ * HashSet, LLHash and the rest pay for being able to add words (empty slots, chains, a node per word);
+ * if the words are all known up front, we don't have to.
+ *
+ * A "minimal perfect hash" gives each of the n words its own number from 0 to n-1, with no collisions and no gaps.
+ * This one is BBHash (Limasset, Rizk, Chikhi and Peterlongo, 2017). Level 0 is a bit array with gamma * n bits;
+ * every word hashes to one bit, and a bit that exactly one word landed on is set. The words that had to share a bit
+ * try again at level 1 (with a different hash and gamma times as many bits as there are words left), and so on.
+ * A word's number is how many bits are set before its bit, over all the levels ("rank").
+ * That takes only a few bits per word, and it never stores the words.
+ *
+ * It will give a number to any string, though, word or not. So word i is also stored in slot i of one char array
+ * (the "arena"), and a lookup checks that it found the same characters. That makes membership exact,
+ * with one probe into the arena: no chains, no probing, no empty slots.
+ *
+ * It never changes after the constructor, so many threads may share it.
+ * @author sivan
+ */
+public class PerfectHashSet extends AbstractSet<String> implements MemoryFootprint {
+	/**
+	 * How many bits per remaining word each level gets, unless the constructor says otherwise.
+	 * More bits means fewer collisions (faster lookups, fewer levels) but more memory.
+	 */
+	public static final double DEFAULT_GAMMA = 2.0;
+	/**
+	 * After this many levels (or a level where no word got a bit), the few words still colliding go in a plain HashMap.
+	 */
+	private static final int MAX_LEVELS = 32;
+	/**
+	 * rank[b] counts the set bits in every 64-bit word before block b; a block is this many 64-bit words.
+	 */
+	private static final int RANK_BLOCK = 8;
+
+	/**
+	 * All the levels' bits, one after the other.
+	 */
+	private final long[] bits;
+	/**
+	 * Level l's bits start at levelStart[l] and there are levelSize[l] of them.
+	 */
+	private final long[] levelStart;
+	private final int[] levelSize;
+	/**
+	 * Set bits before each block of bits, so a rank only has to count inside one block.
+	 */
+	private final int[] rank;
+	/**
+	 * The words that never got a bit of their own, and their numbers (almost always empty).
+	 */
+	private final HashMap<String, Integer> leftovers;
+
+	/**
+	 * Word i is arena[offsets[i]] up to arena[offsets[i+1]].
+	 */
+	private final int[] offsets;
+	private final char[] arena;
+	/**
+	 * How many distinct words.
+	 */
+	private final int n;
+
+	/**
+	 * Build the dictionary.
+	 * @param words - the words (duplicates are fine).
+	 */
+	public PerfectHashSet(Collection<String> words) {
+		this(words, DEFAULT_GAMMA);
+	}
+
+	/**
+	 * Build the dictionary.
+	 * @param words - the words (duplicates are fine).
+	 * @param gamma - bits per word at each level, at least 1.
+	 */
+	public PerfectHashSet(Collection<String> words, double gamma) {
+		if (!(gamma >= 1)) {
+			throw new IllegalArgumentException("gamma must be at least 1: " + gamma);
+		}
+		// two copies of a word would collide at every level, so they have to go first
+		String[] keys = new LinkedHashSet<>(words).toArray(new String[0]);
+		this.n = keys.length;
+		long[] hashes = new long[n];
+		for (int i = 0; i < n; i++) {
+			hashes[i] = hash(keys[i]);
+		}
+
+		// Build the levels. remaining[0..left) are the indexes of the words without a bit yet.
+		int[] remaining = new int[n];
+		for (int i = 0; i < n; i++) {
+			remaining[i] = i;
+		}
+		int left = n;
+		List<long[]> levels = new ArrayList<>();
+		List<Integer> sizes = new ArrayList<>();
+		// which level each word got its bit in, and where
+		int[] wordLevel = new int[n];
+		int[] wordBit = new int[n];
+		while (left > 0 && levels.size() < MAX_LEVELS) {
+			int level = levels.size();
+			// round up to whole 64-bit words
+			long wanted = Math.max(64, (long) Math.ceil(gamma * left));
+			int size = (int) Math.min((wanted + 63) / 64 * 64, Integer.MAX_VALUE - 63);
+			long[] seen = new long[size / 64];
+			long[] collided = new long[size / 64];
+			for (int j = 0; j < left; j++) {
+				int bit = position(hashes[remaining[j]], level, size);
+				long mask = 1L << bit;
+				if ((seen[bit >>> 6] & mask) != 0) {
+					collided[bit >>> 6] |= mask;
+				} else {
+					seen[bit >>> 6] |= mask;
+				}
+			}
+			for (int w = 0; w < seen.length; w++) {
+				seen[w] &= ~collided[w];
+			}
+			// keep the words that got a bit; the others go on to the next level
+			int stillLeft = 0;
+			for (int j = 0; j < left; j++) {
+				int word = remaining[j];
+				int bit = position(hashes[word], level, size);
+				if ((seen[bit >>> 6] & (1L << bit)) != 0) {
+					wordLevel[word] = level;
+					wordBit[word] = bit;
+				} else {
+					remaining[stillLeft++] = word;
+				}
+			}
+			if (stillLeft == left) {
+				// nobody got a bit, so what's left only ever collides (same hashCode): they are leftovers
+				break;
+			}
+			left = stillLeft;
+			levels.add(seen);
+			sizes.add(size);
+		}
+
+		// glue the levels together
+		int numLevels = levels.size();
+		this.levelStart = new long[numLevels];
+		this.levelSize = new int[numLevels];
+		long totalWords = 0;
+		for (int l = 0; l < numLevels; l++) {
+			levelStart[l] = totalWords * 64;
+			levelSize[l] = sizes.get(l);
+			totalWords += levels.get(l).length;
+		}
+		this.bits = new long[(int) totalWords];
+		for (int l = 0; l < numLevels; l++) {
+			System.arraycopy(levels.get(l), 0, bits, (int) (levelStart[l] / 64), levels.get(l).length);
+		}
+		this.rank = new int[bits.length / RANK_BLOCK + 1];
+		int count = 0;
+		for (int w = 0; w < bits.length; w++) {
+			if (w % RANK_BLOCK == 0) {
+				rank[w / RANK_BLOCK] = count;
+			}
+			count += Long.bitCount(bits[w]);
+		}
+
+		// number every word: its rank, or the next free number if it is a leftover
+		int[] number = new int[n];
+		this.leftovers = new HashMap<>();
+		boolean[] isLeftover = new boolean[n];
+		for (int j = 0; j < left; j++) {
+			isLeftover[remaining[j]] = true;
+		}
+		int nextLeftover = count;
+		for (int i = 0; i < n; i++) {
+			if (isLeftover[i]) {
+				number[i] = nextLeftover++;
+				leftovers.put(keys[i], number[i]);
+			} else {
+				number[i] = rankOf(levelStart[wordLevel[i]] + wordBit[i]);
+			}
+		}
+
+		// word i goes in slot number[i] of the arena
+		this.offsets = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			offsets[number[i] + 1] = keys[i].length();
+		}
+		long chars = 0;
+		for (int i = 1; i <= n; i++) {
+			chars += offsets[i];
+			if (chars > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many characters: " + chars);
+			}
+			offsets[i] = (int) chars;
+		}
+		this.arena = new char[(int) chars];
+		for (int i = 0; i < n; i++) {
+			keys[i].getChars(0, keys[i].length(), arena, offsets[number[i]]);
+		}
+	}
+
+	/**
+	 * Each level mixes this with its own number to pick a bit.
+	 * It starts from String.hashCode, which a String remembers once it has been computed, so looking up
+	 * the same String again doesn't read its characters. Two words with the same hashCode collide at
+	 * every level and end up as leftovers, but out of 235k words that is only a handful.
+	 */
+	private static long hash(CharSequence word) {
+		return mix(OpenHash.hashOf(word));
+	}
+
+	/**
+	 * MurmurHash3's 64-bit finalizer.
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * @return which bit (0 to size-1) a hash picks at a level.
+	 */
+	private static int position(long hash, int level, int size) {
+		long h = mix(hash + level * 0x9E3779B97F4A7C15L);
+		// the top 32 bits, scaled to [0, size) without a division
+		return (int) (((h >>> 32) * size) >>> 32);
+	}
+
+	/**
+	 * @return how many bits are set before a bit.
+	 */
+	private int rankOf(long bit) {
+		int word = (int) (bit >>> 6);
+		int block = word / RANK_BLOCK;
+		int count = rank[block];
+		for (int w = block * RANK_BLOCK; w < word; w++) {
+			count += Long.bitCount(bits[w]);
+		}
+		return count + Long.bitCount(bits[word] & ((1L << bit) - 1));
+	}
+
+	/**
+	 * @return the number of the only word this could be, or -1 if it can't be a word.
+	 */
+	private int indexOf(CharSequence word) {
+		long h = hash(word);
+		for (int l = 0; l < levelSize.length; l++) {
+			long bit = levelStart[l] + position(h, l, levelSize[l]);
+			if ((bits[(int) (bit >>> 6)] & (1L << bit)) != 0) {
+				// a word whose bit is set here stopped here, so this is the only candidate
+				return rankOf(bit);
+			}
+		}
+		if (leftovers.isEmpty()) {
+			return -1;
+		}
+		Integer i = leftovers.get(word.toString());
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * Check for a word. This accepts any CharSequence, not just Strings.
+	 * @param obj - the word.
+	 * @return true if it is in the dictionary.
+	 */
+	@Override
+	public boolean contains(Object obj) {
+		if (!(obj instanceof CharSequence)) {
+			return false;
+		}
+		CharSequence word = (CharSequence) obj;
+		int i = indexOf(word);
+		if (i < 0) {
+			return false;
+		}
+		int start = offsets[i];
+		int length = offsets[i + 1] - start;
+		if (length != word.length()) {
+			return false;
+		}
+		for (int c = 0; c < length; c++) {
+			if (arena[start + c] != word.charAt(c)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return how many words didn't get a bit of their own, and are kept in a HashMap instead.
+	 */
+	public int leftovers() {
+		return leftovers.size();
+	}
+
+	/**
+	 * @return how many levels of bits there are.
+	 */
+	public int levels() {
+		return levelSize.length;
+	}
+
+	/**
+	 * @return the bits per word of the perfect hash itself (levels and rank), not counting the arena.
+	 */
+	public double bitsPerKey() {
+		if (n == 0) {
+			return 0;
+		}
+		return (64.0 * bits.length + 32.0 * rank.length) / n;
+	}
+
+	/**
+	 * The levels and rank (see {@link #bitsPerKey()}), the arena with its own copy of the words, and the leftovers map.
+	 */
+	@Override
+	public long estimatedBytes() {
+		// this object (seven references and n), then the arrays
+		long bytes = MemoryFootprint.objectBytes(7 * 4 + 4) + MemoryFootprint.arrayBytes(bits.length, 8)
+				+ MemoryFootprint.arrayBytes(levelStart.length, 8) + MemoryFootprint.arrayBytes(levelSize.length, 4)
+				+ MemoryFootprint.arrayBytes(rank.length, 4) + MemoryFootprint.arrayBytes(offsets.length, 4)
+				+ MemoryFootprint.arrayBytes(arena.length, 2);
+		// the HashMap (four references and four ints); its table only appears with the first entry, at 16, doubling past 3/4 full
+		// (if more than 8 leftovers ever shared one hashCode, HashMap would turn that bucket into a bigger tree; that doesn't happen)
+		bytes += MemoryFootprint.objectBytes(4 * 4 + 4 * 4);
+		if (!leftovers.isEmpty()) {
+			int table = 16;
+			while (leftovers.size() > table / 4 * 3) {
+				table *= 2;
+			}
+			// the table, and each entry's node (hash, key, value, next) and Integer
+			bytes += MemoryFootprint.arrayBytes(table, 4)
+					+ leftovers.size() * (MemoryFootprint.objectBytes(4 + 4 + 4 + 4) + MemoryFootprint.objectBytes(4));
+		}
+		return bytes;
+	}
+
+	/**
+	 * Let us for-loop over the words, in the order of their numbers (which looks random).
+	 * Each one is a new String, because we don't keep any.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+			int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < n;
+			}
+
+			@Override
+			public String next() {
+				if (next >= n) {
+					throw new NoSuchElementException();
+				}
+				String w = new String(arena, offsets[next], offsets[next + 1] - offsets[next]);
+				next++;
+				return w;
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Build the dictionary and report how long it took and how big it is.
+	 */
+	public static void main(String[] args) {
+		List<String> words = CheckSpelling.loadDictionary();
+		for (double gamma : new double[] {1.0, 2.0, 4.0}) {
+			long start = System.nanoTime();
+			PerfectHashSet set = new PerfectHashSet(words, gamma);
+			long end = System.nanoTime();
+			System.out.printf("gamma=%.1f: %d words, %d levels, %d leftovers, %.2f bits/key for the hash, %,d bytes in all, built in %.3f seconds.%n",
+					gamma, set.size(), set.levels(), set.leftovers(), set.bitsPerKey(), set.estimatedBytes(), (end - start) / 1e9);
+		}
+	}
+}
@@ -1,8 +1,12 @@
 package edu.smith.checkSpelling;
 
+import java.util.AbstractList;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
@@ -10,13 +14,14 @@ import java.util.List;
  * This is an alternate implementation of a dictionary, based on a sorted list.
  * It often makes the most sense if the dictionary never changes (compared to a TreeMap).
  * You could write a delete, but it's tricky.
+ * It never changes after the constructor, so many threads may share it.
  * @author jfoley
  */
-public class SortedStringListSet extends AbstractSet<String> {
+public class SortedStringListSet extends AbstractSet<String> implements MemoryFootprint {
 	/**
 	 * This is the sorted list of data.
 	 */
-	private List<String> data;
+	private final List<String> data;
 	
 	/**
 	 * This is the constructor: we take in data, copy and sort it (just to be sure).
@@ -74,6 +79,173 @@ public class SortedStringListSet extends AbstractSet<String> {
 		return -1;
 	}
 
+	/**
+	 * @param query - the string to look for.
+	 * @param start - where to start looking.
+	 * @param end - where to stop looking (exclusive).
+	 * @return the first index in [start, end) whose string is not smaller than query, or end if there isn't one.
+	 */
+	private int lowerBound(String query, int start, int end) {
+		while (start < end) {
+			int mid = (start + end) >>> 1;
+			if (data.get(mid).compareTo(query) < 0) {
+				start = mid + 1;
+			} else {
+				end = mid;
+			}
+		}
+		return start;
+	}
+
+	/**
+	 * Like lowerBound, but for a query we expect to be close to start:
+	 * take steps of 1, 2, 4, 8... until we pass it, then binary search only that last step.
+	 * If the query is d places along, this costs about 2 log(d) comparisons instead of log(n).
+	 */
+	private int gallop(String query, int start) {
+		int n = data.size();
+		int step = 1;
+		int low = start;
+		int high = start;
+		while (high < n && data.get(high).compareTo(query) < 0) {
+			low = high + 1;
+			high = start + step;
+			step *= 2;
+		}
+		return lowerBound(query, low, Math.min(high, n));
+	}
+
+	/**
+	 * Sort a batch of queries and drop the duplicates.
+	 * Real text repeats itself a lot, so we drop the duplicates first (with a hash) and only sort what's left.
+	 * @return the sorted distinct queries, or null if one of them isn't a String.
+	 */
+	private static String[] sortedDistinct(Collection<?> queries) {
+		HashSet<String> distinct = new HashSet<>();
+		for (Object q : queries) {
+			if (!(q instanceof String)) {
+				return null;
+			}
+			distinct.add((String) q);
+		}
+		String[] sorted = distinct.toArray(new String[0]);
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Check a whole batch at once. Instead of a full binary search per query,
+	 * the queries are sorted and we walk through the data once, galloping from each answer to the next.
+	 * @param queries - the strings to look for.
+	 * @return true if every one of them is in the set.
+	 */
+	@Override
+	public boolean containsAll(Collection<?> queries) {
+		String[] sorted = sortedDistinct(queries);
+		if (sorted == null) {
+			return false;
+		}
+		int at = 0;
+		for (String q : sorted) {
+			at = gallop(q, at);
+			if (at == data.size() || !data.get(at).equals(q)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Spell-check a whole batch at once, the same way as containsAll.
+	 * @param queries - the words of a document, say (repeats are fine).
+	 * @return the distinct queries that are not in the set, sorted.
+	 */
+	public List<String> missing(Collection<String> queries) {
+		String[] sorted = sortedDistinct(queries);
+		List<String> out = new ArrayList<>();
+		int at = 0;
+		for (String q : sorted) {
+			at = gallop(q, at);
+			if (at == data.size() || !data.get(at).equals(q)) {
+				out.add(q);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Find every string from one to another, without copying anything.
+	 * @param from - the smallest string to include.
+	 * @param to - the first string not to include.
+	 * @return a view of the strings s with from &lt;= s &lt; to, in order.
+	 */
+	public Span range(String from, String to) {
+		int start = lowerBound(from, 0, data.size());
+		int end = Math.max(start, lowerBound(to, start, data.size()));
+		return new Span(start, end);
+	}
+
+	/**
+	 * Find every string that starts with a prefix, without copying anything.
+	 * @param prefix - the start of the strings we want ("" for all of them).
+	 * @return a view of the strings starting with prefix, in order.
+	 */
+	public Span prefix(String prefix) {
+		int start = lowerBound(prefix, 0, data.size());
+		// the smallest string bigger than everything starting with prefix: bump its last character.
+		// (if that is already the biggest character, drop it and bump the one before)
+		int last = prefix.length() - 1;
+		while (last >= 0 && prefix.charAt(last) == Character.MAX_VALUE) {
+			last--;
+		}
+		if (last < 0) {
+			return new Span(start, data.size());
+		}
+		String after = prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+		return new Span(start, lowerBound(after, start, data.size()));
+	}
+
+	/**
+	 * A run of neighbouring strings of the set: the ones at index start up to (not including) end.
+	 * It is a view, not a copy.
+	 */
+	public class Span extends AbstractList<String> {
+		private final int start;
+		private final int end;
+
+		Span(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * @return the index of the first string in the span.
+		 */
+		public int start() {
+			return start;
+		}
+
+		/**
+		 * @return the index just after the last string in the span.
+		 */
+		public int end() {
+			return end;
+		}
+
+		@Override
+		public String get(int index) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+			return data.get(start + index);
+		}
+
+		@Override
+		public int size() {
+			return end - start;
+		}
+	}
+
 	/**
 	 * So we know how big this set is.
 	 */
@@ -82,5 +254,14 @@ public class SortedStringListSet extends AbstractSet<String> {
 		return data.size();
 	}
 
+	/**
+	 * Just an array of references: the words are the ones from the list this was built from.
+	 */
+	@Override
+	public long estimatedBytes() {
+		// this object, the ArrayList (modCount, size, array) and its array, which is exactly as long as the list it copied
+		return MemoryFootprint.objectBytes(4) + MemoryFootprint.objectBytes(4 + 4 + 4) + MemoryFootprint.arrayBytes(data.size(), 4);
+	}
+
 }
 
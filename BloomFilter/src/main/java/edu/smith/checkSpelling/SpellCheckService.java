@@ -0,0 +1,346 @@
+package edu.smith.checkSpelling;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This spell-checks many documents at once.
+ * Every worker shares the same dictionary (and, optionally, the same Bloom Filter in front of it),
+ * which must not change once the service has been created.
+ * Each document runs as its own task, on a virtual thread if the JVM has them,
+ * or on a fixed pool of platform threads if it does not.
+ * At most maxInFlight documents are queued or running at once; submit waits for room.
+ * @author sivan
+ */
+public class SpellCheckService implements AutoCloseable {
+	/**
+	 * The words we consider correctly spelled; read-only from here on.
+	 */
+	private final Collection<String> dictionary;
+	/**
+	 * An optional filter checked before the dictionary (null to skip it).
+	 */
+	private final BloomFilter bloom;
+	/**
+	 * Who actually runs the documents.
+	 */
+	private final ExecutorService executor;
+	/**
+	 * True if the executor hands out virtual threads.
+	 */
+	private final boolean virtual;
+	/**
+	 * One permit per document that may be queued or running.
+	 */
+	private final Semaphore inFlight;
+
+	// These are the running totals behind stats().
+	private final AtomicLong documents = new AtomicLong();
+	private final AtomicLong words = new AtomicLong();
+	private final AtomicLong misspelled = new AtomicLong();
+	private final AtomicLong busyNanos = new AtomicLong();
+	private final AtomicLong firstSubmit = new AtomicLong(Long.MIN_VALUE);
+	private final AtomicLong lastFinish = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * Build a service around a finished dictionary.
+	 * @param dictionary - the words that are spelled correctly; nobody may modify it afterwards.
+	 * @param bloom - a filter holding the same words, or null to only use the dictionary.
+	 * @param maxInFlight - how many documents may be queued or running at once.
+	 */
+	public SpellCheckService(Collection<String> dictionary, BloomFilter bloom, int maxInFlight) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+		}
+		this.dictionary = Collections.unmodifiableCollection(dictionary);
+		this.bloom = bloom;
+		this.inFlight = new Semaphore(maxInFlight);
+		ExecutorService virtualThreads = newVirtualThreadExecutor();
+		if (virtualThreads != null) {
+			this.executor = virtualThreads;
+			this.virtual = true;
+		} else {
+			// platform threads are expensive, so there is no point in having more than the in-flight limit or the cores
+			int threads = Math.min(maxInFlight, Runtime.getRuntime().availableProcessors());
+			this.executor = Executors.newFixedThreadPool(threads);
+			this.virtual = false;
+		}
+	}
+
+	/**
+	 * Look for Executors.newVirtualThreadPerTaskExecutor (Java 21+) without needing it to compile.
+	 * @return a virtual thread executor, or null if this JVM does not have one.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			// older JDK, or virtual threads are a disabled preview feature
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if documents run on virtual threads, false if on platform threads.
+	 */
+	public boolean usesVirtualThreads() {
+		return virtual;
+	}
+
+	/**
+	 * Queue a document for checking, waiting if too many are already in flight.
+	 * @param name - what to call this document in its result.
+	 * @param lines - the text of the document.
+	 * @return the result, once it has been checked.
+	 * @throws InterruptedException if we are interrupted while waiting for room.
+	 */
+	public Future<DocumentResult> submit(String name, List<String> lines) throws InterruptedException {
+		inFlight.acquire();
+		firstSubmit.compareAndSet(Long.MIN_VALUE, System.nanoTime());
+		Callable<DocumentResult> task = () -> {
+			try {
+				return check(name, lines);
+			} finally {
+				inFlight.release();
+			}
+		};
+		try {
+			return executor.submit(task);
+		} catch (RuntimeException e) {
+			// the task never ran, so give its permit back
+			inFlight.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Check a batch of documents and wait for all of them.
+	 * @param names - what to call each document.
+	 * @param documents - the text of each document, in the same order as the names.
+	 * @return the results, in the same order as the documents.
+	 * @throws InterruptedException if we are interrupted while waiting.
+	 */
+	public List<DocumentResult> checkAll(List<String> names, List<List<String>> documents) throws InterruptedException {
+		List<Future<DocumentResult>> pending = new ArrayList<>(documents.size());
+		for (int i = 0; i < documents.size(); i++) {
+			pending.add(submit(names.get(i), documents.get(i)));
+		}
+		List<DocumentResult> results = new ArrayList<>(pending.size());
+		for (Future<DocumentResult> f : pending) {
+			try {
+				results.add(f.get());
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Spell-checking failed.", e.getCause());
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Check one document on the current thread.
+	 * @param name - what to call this document in its result.
+	 * @param lines - the text of the document.
+	 * @return what we found.
+	 */
+	DocumentResult check(String name, List<String> lines) {
+		long start = System.nanoTime();
+		// tokenizers are cheap but not thread-safe, so each document gets its own.
+		WordTokenizer tokenizer = new WordTokenizer();
+		List<String> wrong = new ArrayList<>();
+		int[] count = new int[1];
+		for (String line : lines) {
+			count[0] += tokenizer.tokenize(line, token -> {
+				String word = token.toString();
+				if (!isSpelledCorrectly(word)) {
+					wrong.add(word);
+				}
+			});
+		}
+		long end = System.nanoTime();
+		documents.incrementAndGet();
+		words.addAndGet(count[0]);
+		misspelled.addAndGet(wrong.size());
+		busyNanos.addAndGet(end - start);
+		lastFinish.accumulateAndGet(end, Math::max);
+		return new DocumentResult(name, count[0], wrong, end - start);
+	}
+
+	/**
+	 * Ask the filter first (if we have one), and only ask the dictionary if the filter says maybe.
+	 * @param word - a lower-case word.
+	 * @return true if the dictionary has it.
+	 */
+	private boolean isSpelledCorrectly(String word) {
+		if (bloom != null && !bloom.contains(word)) {
+			return false;
+		}
+		return dictionary.contains(word);
+	}
+
+	/**
+	 * @return a snapshot of how much work has been done so far.
+	 */
+	public Stats stats() {
+		long first = firstSubmit.get();
+		long last = lastFinish.get();
+		long wall = (first == Long.MIN_VALUE || last == Long.MIN_VALUE) ? 0 : Math.max(0, last - first);
+		return new Stats(documents.get(), words.get(), misspelled.get(), busyNanos.get(), wall);
+	}
+
+	/**
+	 * Stop accepting documents and wait for the ones already submitted.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * What we learned about one document.
+	 */
+	public static class DocumentResult {
+		/**
+		 * The name the document was submitted with.
+		 */
+		public final String name;
+		/**
+		 * How many words it had.
+		 */
+		public final int words;
+		/**
+		 * Every word not in the dictionary, in order (repeats included).
+		 */
+		public final List<String> misspelled;
+		/**
+		 * How long it took to check.
+		 */
+		public final long nanos;
+
+		DocumentResult(String name, int words, List<String> misspelled, long nanos) {
+			this.name = name;
+			this.words = words;
+			this.misspelled = Collections.unmodifiableList(misspelled);
+			this.nanos = nanos;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + misspelled.size() + "/" + words + " misspelled in " + (nanos / 1000) + " us";
+		}
+	}
+
+	/**
+	 * Totals across every document this service has finished.
+	 */
+	public static class Stats {
+		public final long documents;
+		public final long words;
+		public final long misspelled;
+		/**
+		 * Time spent checking, added up across all the workers.
+		 */
+		public final long busyNanos;
+		/**
+		 * Time from the first submit to the most recent finish.
+		 */
+		public final long wallNanos;
+
+		Stats(long documents, long words, long misspelled, long busyNanos, long wallNanos) {
+			this.documents = documents;
+			this.words = words;
+			this.misspelled = misspelled;
+			this.busyNanos = busyNanos;
+			this.wallNanos = wallNanos;
+		}
+
+		/**
+		 * @return words checked per second of wall-clock time.
+		 */
+		public double wordsPerSecond() {
+			return wallNanos == 0 ? 0 : words / (wallNanos / 1e9);
+		}
+
+		/**
+		 * @return documents checked per second of wall-clock time.
+		 */
+		public double documentsPerSecond() {
+			return wallNanos == 0 ? 0 : documents / (wallNanos / 1e9);
+		}
+
+		@Override
+		public String toString() {
+			return "documents=" + documents + " words=" + words + " misspelled=" + misspelled
+					+ " words/s=" + (long) wordsPerSecond() + " docs/s=" + (long) documentsPerSecond()
+					+ " busy=" + (busyNanos / 1e9) + "s wall=" + (wallNanos / 1e9) + "s";
+		}
+	}
+
+	/**
+	 * Check the book as many documents at once (one per chapter, repeated), and print the throughput.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		// the image has its own Bloom Filter, so the service doesn't need one
+		long start = System.nanoTime();
+		DictionaryImage dictionary;
+		try {
+			dictionary = DictionaryImage.load(Paths.get("target/words.dict"), Paths.get("src/main/resources/words"));
+		} catch (IOException e) {
+			throw new RuntimeException("Couldn't find dictionary.", e);
+		}
+		long end = System.nanoTime();
+		System.out.println("Dictionary ready in " + (end - start) / 1e9 + " seconds (" + dictionary.origin() + ").");
+
+		// split the book into chapters, so we have lots of documents
+		List<String> names = new ArrayList<>();
+		List<List<String>> chapters = new ArrayList<>();
+		List<String> current = new ArrayList<>();
+		try {
+			for (String line : Files.readAllLines(new File("src/main/resources/book").toPath())) {
+				if (line.startsWith("CHAPTER") && !current.isEmpty()) {
+					names.add("chapter " + names.size());
+					chapters.add(current);
+					current = new ArrayList<>();
+				}
+				current.add(line);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Couldn't find the book.", e);
+		}
+		names.add("chapter " + names.size());
+		chapters.add(current);
+
+		int copies = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		List<String> allNames = new ArrayList<>();
+		List<List<String>> allDocuments = new ArrayList<>();
+		for (int i = 0; i < copies; i++) {
+			allNames.addAll(names);
+			allDocuments.addAll(chapters);
+		}
+		try (SpellCheckService service = new SpellCheckService(dictionary, null, 256)) {
+			System.out.println("Virtual threads: " + service.usesVirtualThreads());
+			service.checkAll(allNames, allDocuments);
+			System.out.println(service.stats());
+		}
+	}
+}
@@ -0,0 +1,259 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * This finds the dictionary words closest to a misspelled word.
+ * Comparing the misspelling against every one of 235k words is far too slow,
+ * but words that share a start share a path in the trie, so we can work out the edit distance for all of them at once.
+ *
+ * Edit (Levenshtein) distance is the fewest inserts, deletes and replacements that turn one word into another.
+ * The usual table for it has a row for each letter of the candidate word; going down one link of the trie adds one row,
+ * so each node only needs the row of its parent. If every number in a row is already more than the limit,
+ * no word below that node can be close enough, and we skip the whole subtree.
+ * Once we have as many suggestions as were asked for, the limit drops to the worst one we are keeping.
+ *
+ * Suggestions are ranked by distance, then by frequency (if we were given one), then alphabetically.
+ * A suggester never changes, so many threads may use one at the same time.
+ * @author sivan
+ */
+public class SpellingSuggester {
+	/**
+	 * The dictionary.
+	 */
+	private final CompactCharTrie dictionary;
+	/**
+	 * How common each word is (bigger is more common), or null to rank only by distance.
+	 */
+	private final ToIntFunction<String> frequency;
+
+	/**
+	 * One suggested word.
+	 */
+	public static class Suggestion {
+		private final String word;
+		private final int distance;
+		private final int frequency;
+
+		Suggestion(String word, int distance, int frequency) {
+			this.word = word;
+			this.distance = distance;
+			this.frequency = frequency;
+		}
+
+		/**
+		 * @return the dictionary word (lower case).
+		 */
+		public String getWord() {
+			return word;
+		}
+
+		/**
+		 * @return how many edits away from the misspelling it is.
+		 */
+		public int getDistance() {
+			return distance;
+		}
+
+		/**
+		 * @return how common it is (0 if there is no frequency information).
+		 */
+		public int getFrequency() {
+			return frequency;
+		}
+
+		@Override
+		public String toString() {
+			return word + " (" + distance + ")";
+		}
+	}
+
+	/**
+	 * Best first: closer, then more common, then alphabetical.
+	 */
+	private static final Comparator<Suggestion> BEST_FIRST = (a, b) -> {
+		if (a.distance != b.distance) {
+			return Integer.compare(a.distance, b.distance);
+		}
+		if (a.frequency != b.frequency) {
+			return Integer.compare(b.frequency, a.frequency);
+		}
+		return a.word.compareTo(b.word);
+	};
+
+	/**
+	 * Suggest from a dictionary, ranking only by distance.
+	 * @param dictionary - the words to suggest.
+	 */
+	public SpellingSuggester(CompactCharTrie dictionary) {
+		this(dictionary, null);
+	}
+
+	/**
+	 * Suggest from a dictionary, breaking ties in distance by how common a word is.
+	 * @param dictionary - the words to suggest.
+	 * @param frequency - how common each (lower case) word is, or null.
+	 */
+	public SpellingSuggester(CompactCharTrie dictionary, ToIntFunction<String> frequency) {
+		this.dictionary = dictionary;
+		this.frequency = frequency;
+	}
+
+	/**
+	 * Find the closest words.
+	 * @param word - the misspelling (case doesn't matter).
+	 * @param maxDistance - the most edits a suggestion may be away.
+	 * @param limit - the most suggestions to return.
+	 * @return up to limit suggestions, best first.
+	 */
+	public List<Suggestion> suggest(CharSequence word, int maxDistance, int limit) {
+		if (maxDistance < 0) {
+			throw new IllegalArgumentException("maxDistance must not be negative: " + maxDistance);
+		}
+		if (limit <= 0) {
+			return Collections.emptyList();
+		}
+		int m = word.length();
+		char[] query = new char[m];
+		for (int i = 0; i < m; i++) {
+			query[i] = CompactCharTrie.fold(word.charAt(i));
+		}
+
+		// a word more than maxDistance longer than the query can't be close enough, so this is as deep as we go.
+		int maxDepth = m + maxDistance;
+		// rows[d] is the distance table row after d characters of the candidate.
+		int[][] rows = new int[maxDepth + 1][m + 1];
+		for (int j = 0; j <= m; j++) {
+			rows[0][j] = j;
+		}
+		// The DFS stack: the node at each depth, and the next of its links to try.
+		int[] nodes = new int[maxDepth + 1];
+		int[] nextSlot = new int[maxDepth + 1];
+		// the characters on the way down to the current node
+		char[] path = new char[maxDepth];
+
+		// the worst suggestion we are keeping is at the head, so it is the one to throw out.
+		PriorityQueue<Suggestion> best = new PriorityQueue<>(Math.min(limit, 64) + 1, BEST_FIRST.reversed());
+		int bound = maxDistance;
+
+		if (dictionary.isTerminal(0) && m <= bound) {
+			bound = offer(best, limit, "", m, bound);
+		}
+		// (an empty query with maxDistance 0 can only match the empty word)
+		int depth = maxDepth == 0 ? -1 : 0;
+		nodes[0] = 0;
+		nextSlot[0] = dictionary.linkStart(0);
+		while (depth >= 0) {
+			int node = nodes[depth];
+			int slot = nextSlot[depth];
+			if (slot == dictionary.linkEnd(node)) {
+				depth--;
+				continue;
+			}
+			nextSlot[depth] = slot + 1;
+			char c = dictionary.label(slot);
+			int child = dictionary.target(slot);
+
+			// Fill in the next row of the table from this one.
+			// Entry j can't be less than |i - j|, so only the band within bound of the diagonal is worth working out;
+			// everything else is just "too far" (bound + 1), which can never turn into a match later on.
+			int[] prev = rows[depth];
+			int[] row = rows[depth + 1];
+			int i = depth + 1;
+			int tooFar = bound + 1;
+			int lo = Math.max(1, i - bound);
+			int hi = Math.min(m, i + bound);
+			row[0] = Math.min(i, tooFar);
+			int rowMin = row[0];
+			if (lo > 1) {
+				row[lo - 1] = tooFar;
+			}
+			for (int j = lo; j <= hi; j++) {
+				int cost = query[j - 1] == c ? prev[j - 1] : prev[j - 1] + 1;
+				int insert = row[j - 1] + 1;
+				int delete = prev[j] + 1;
+				int d = Math.min(Math.min(cost, Math.min(insert, delete)), tooFar);
+				row[j] = d;
+				if (d < rowMin) {
+					rowMin = d;
+				}
+			}
+			if (hi < m) {
+				// the next row reads one past its band from here, and we check the last entry below
+				row[hi + 1] = tooFar;
+				row[m] = tooFar;
+			}
+			path[depth] = c;
+
+			if (row[m] <= bound && dictionary.isTerminal(child)) {
+				bound = offer(best, limit, new String(path, 0, depth + 1), row[m], bound);
+			}
+			// only go further down if something below could still be close enough
+			if (rowMin <= bound && depth + 1 < maxDepth) {
+				depth++;
+				nodes[depth] = child;
+				nextSlot[depth] = dictionary.linkStart(child);
+			}
+		}
+
+		List<Suggestion> out = new ArrayList<>(best);
+		out.sort(BEST_FIRST);
+		return out;
+	}
+
+	/**
+	 * Keep a candidate if it is one of the best so far.
+	 * @return the new limit on distance.
+	 */
+	private int offer(PriorityQueue<Suggestion> best, int limit, String word, int distance, int bound) {
+		int freq = frequency == null ? 0 : frequency.applyAsInt(word);
+		Suggestion s = new Suggestion(word, distance, freq);
+		if (best.size() < limit) {
+			best.add(s);
+		} else if (BEST_FIRST.compare(s, best.peek()) < 0) {
+			best.poll();
+			best.add(s);
+		}
+		// when full, nothing farther than the worst one we keep can get in (a tie can, if it is more common).
+		return best.size() == limit ? best.peek().distance : bound;
+	}
+
+	/**
+	 * Suggest corrections for the misspelled words of the book, and time it.
+	 */
+	public static void main(String[] args) {
+		List<String> words = CheckSpelling.loadDictionary();
+		CompactCharTrie trie = new CompactCharTrie(words);
+		SpellingSuggester suggester = new SpellingSuggester(trie);
+
+		List<String> misspelled = new ArrayList<>();
+		for (String w : CheckSpelling.loadBook()) {
+			if (!trie.contains(w)) {
+				misspelled.add(w);
+			}
+		}
+		System.out.println(misspelled.size() + " words of the book are not in the dictionary.");
+
+		for (int distance = 1; distance <= 2; distance++) {
+			// once to warm up, once to time
+			for (String w : misspelled) {
+				suggester.suggest(w, distance, 5);
+			}
+			long start = System.nanoTime();
+			for (String w : misspelled) {
+				suggester.suggest(w, distance, 5);
+			}
+			long end = System.nanoTime();
+			System.out.println("d=" + distance + ": " + (end - start) / 1000.0 / misspelled.size() + " us per suggestion.");
+		}
+		for (int i = 0; i < Math.min(10, misspelled.size()); i++) {
+			String w = misspelled.get(i);
+			System.out.println(w + " -> " + suggester.suggest(w, 2, 5));
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package edu.smith.checkSpelling;
+
+/**
+ * This is a hand-written replacement for the regular expression in {@link WordSplitter}.
+ * It splits text into the same words as WordSplitter.splitTextToWords, but it scans the text once,
+ * looks up every ASCII character in a precomputed table, and hands each word to a callback
+ * as a reusable {@link Token} view instead of creating a new String for it.
+ * Lower-casing happens lazily, when somebody actually reads a character of the token.
+ * @author sivan
+ */
+public class WordTokenizer {
+	/**
+	 * A character that can be part of a word.
+	 */
+	private static final byte WORD = 0;
+	/**
+	 * An upper-case ASCII letter; part of a word, but it needs folding.
+	 */
+	private static final byte UPPER = 1;
+	/**
+	 * A control character that is not whitespace: it does not split words,
+	 * but String.trim() removes it from the ends of a word.
+	 */
+	private static final byte TRIM = 2;
+	/**
+	 * Whitespace (\s) or ASCII punctuation (\p{Punct}): this splits words.
+	 */
+	private static final byte SEPARATOR = 3;
+	/**
+	 * The class of every ASCII character; everything at or above 128 is part of a word.
+	 */
+	private static final byte[] CLASSES = new byte[128];
+	static {
+		for (int c = 0; c < CLASSES.length; c++) {
+			if (c <= ' ') {
+				CLASSES[c] = TRIM;
+			} else if (c >= 'A' && c <= 'Z') {
+				CLASSES[c] = UPPER;
+			} else if (c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c == 127) {
+				CLASSES[c] = WORD;
+			} else {
+				// the rest of printable ASCII is exactly \p{Punct}
+				CLASSES[c] = SEPARATOR;
+			}
+		}
+		// \s is [ \t\n\x0B\f\r]
+		for (char c : new char[] {' ', '\t', '\n', '\u000B', '\f', '\r'}) {
+			CLASSES[c] = SEPARATOR;
+		}
+	}
+
+	/**
+	 * Something that wants to hear about every word the tokenizer finds.
+	 */
+	public interface TokenHandler {
+		/**
+		 * Called once per word, in order.
+		 * @param token - a view of the word; it is reused, so copy it (toString) if you need to keep it.
+		 */
+		void onToken(Token token);
+	}
+
+	/**
+	 * The one Token object this tokenizer hands out over and over again.
+	 */
+	private final Token token = new Token();
+
+	/**
+	 * Split some text into words and hand each one to the handler.
+	 * This produces no garbage: the same Token is reused for every word.
+	 * @param text - the text to split (usually one line of a book).
+	 * @param handler - who to tell about each word.
+	 * @return the number of words found.
+	 */
+	public int tokenize(CharSequence text, TokenHandler handler) {
+		int count = 0;
+		int length = text.length();
+		int i = 0;
+		while (i < length) {
+			// skip over separators until a word starts
+			char c = text.charAt(i);
+			if (c < 128 && CLASSES[c] == SEPARATOR) {
+				i++;
+				continue;
+			}
+			// find the end of this run of non-separators, remembering if we will need to fold case
+			int start = i;
+			boolean needsFolding = false;
+			while (i < length) {
+				c = text.charAt(i);
+				if (c < 128) {
+					byte kind = CLASSES[c];
+					if (kind == SEPARATOR) {
+						break;
+					}
+					if (kind == UPPER) {
+						needsFolding = true;
+					}
+				} else {
+					// let Character.toLowerCase decide later; most of these are curly quotes anyway
+					needsFolding |= Character.toLowerCase(c) != c;
+				}
+				i++;
+			}
+			// trim, just like String.trim() did for the regular expression version
+			int end = i;
+			while (start < end && text.charAt(start) <= ' ') {
+				start++;
+			}
+			while (end > start && text.charAt(end - 1) <= ' ') {
+				end--;
+			}
+			if (start == end) {
+				continue;
+			}
+			token.set(text, start, end, needsFolding);
+			handler.onToken(token);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * A view of one word inside the text we are tokenizing, as lower-case characters.
+	 * Nothing is copied until you call toString.
+	 */
+	public static final class Token implements CharSequence {
+		/**
+		 * The text this word lives inside.
+		 */
+		private CharSequence source;
+		/**
+		 * Where the word starts in the source (inclusive).
+		 */
+		private int start;
+		/**
+		 * Where the word ends in the source (exclusive).
+		 */
+		private int end;
+		/**
+		 * False if the word is already lower-case in the source.
+		 */
+		private boolean needsFolding;
+
+		/**
+		 * Only the tokenizer makes these.
+		 */
+		private Token() {
+		}
+
+		/**
+		 * Point this token at a new word.
+		 */
+		private void set(CharSequence source, int start, int end, boolean needsFolding) {
+			this.source = source;
+			this.start = start;
+			this.end = end;
+			this.needsFolding = needsFolding;
+		}
+
+		/**
+		 * @return the text this word lives inside.
+		 */
+		public CharSequence source() {
+			return source;
+		}
+
+		/**
+		 * @return where the word starts in the source (inclusive).
+		 */
+		public int start() {
+			return start;
+		}
+
+		/**
+		 * @return where the word ends in the source (exclusive).
+		 */
+		public int end() {
+			return end;
+		}
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		/**
+		 * Get a character of the word, lower-cased on the way out.
+		 */
+		@Override
+		public char charAt(int index) {
+			char c = source.charAt(start + index);
+			if (!needsFolding) {
+				return c;
+			}
+			if (c < 128) {
+				return CLASSES[c] == UPPER ? (char) (c + ('a' - 'A')) : c;
+			}
+			return Character.toLowerCase(c);
+		}
+
+		@Override
+		public CharSequence subSequence(int from, int to) {
+			return toString().substring(from, to);
+		}
+
+		/**
+		 * Copy this word out into a real (lower-case) String.
+		 */
+		@Override
+		public String toString() {
+			if (!needsFolding) {
+				return source.subSequence(start, end).toString();
+			}
+			char[] chars = new char[end - start];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = charAt(i);
+			}
+			return new String(chars);
+		}
+	}
+}
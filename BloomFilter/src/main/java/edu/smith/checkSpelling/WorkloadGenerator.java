@@ -0,0 +1,327 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * This makes query streams for benchmarks and false-positive measurements.
+ * Unlike CheckSpelling.createMixedDataset, it is seeded (the same seed always gives the same queries),
+ * it never holds the queries in memory (you can ask for billions), and real text is not uniform:
+ * the real words are drawn from a Zipf distribution, so a few words are very popular and most are rare.
+ *
+ * Each query is a real word with probability hitRatio. Otherwise it is a non-word, which is either
+ * a popular real word with letters inserted (like a typo) or a random string of letters whose length
+ * comes from a length distribution (by default, the same as the dictionary's).
+ * Non-words are checked against the dictionary, so a "miss" is always really a miss.
+ * @author sivan
+ */
+public class WorkloadGenerator {
+	/**
+	 * Most words are shorter than this; longer random non-words are clamped to it.
+	 */
+	private static final int MAX_LENGTH = 32;
+
+	/**
+	 * The real words, shuffled by the seed, so rank 0 (the most popular) is a random word.
+	 */
+	private final String[] byRank;
+	/**
+	 * For fast "is this really a word?" checks on the non-words.
+	 */
+	private final HashSet<String> dictionary;
+	/**
+	 * cumulative[r] is the probability of picking a word with rank at most r.
+	 */
+	private final double[] cumulative;
+	/**
+	 * cumulative probabilities of random non-word lengths, indexed by length.
+	 */
+	private double[] lengthCumulative;
+	/**
+	 * cumulative probabilities of each letter a-z, from the dictionary.
+	 */
+	private final double[] letterCumulative;
+	/**
+	 * The fraction of queries that are real words.
+	 */
+	private final double hitRatio;
+	/**
+	 * The fraction of non-words that are typos of real words (the rest are random letters).
+	 */
+	private double typoRatio = 0.5;
+	/**
+	 * Where every query stream starts.
+	 */
+	private final long seed;
+
+	/**
+	 * Something that wants to hear about every query.
+	 */
+	public interface QueryHandler {
+		/**
+		 * @param query - the word to look up.
+		 * @param real - true if it is in the dictionary.
+		 */
+		void onQuery(String query, boolean real);
+	}
+
+	/**
+	 * Set up a generator.
+	 * @param words - the dictionary (duplicates are ignored).
+	 * @param hitRatio - the fraction of queries that should be real words, 0 to 1.
+	 * @param zipfExponent - how skewed word popularity is: 0 is uniform, about 1 looks like English text.
+	 * @param seed - the random seed.
+	 */
+	public WorkloadGenerator(List<String> words, double hitRatio, double zipfExponent, long seed) {
+		if (hitRatio < 0 || hitRatio > 1) {
+			throw new IllegalArgumentException("hitRatio must be between 0 and 1: " + hitRatio);
+		}
+		if (zipfExponent < 0) {
+			throw new IllegalArgumentException("zipfExponent must not be negative: " + zipfExponent);
+		}
+		// drop duplicates, but keep the input order so the same seed always gives the same ranks
+		this.dictionary = new HashSet<>();
+		List<String> unique = new ArrayList<>(words.size());
+		for (String w : words) {
+			if (dictionary.add(w)) {
+				unique.add(w);
+			}
+		}
+		if (unique.isEmpty()) {
+			throw new IllegalArgumentException("Need at least one word.");
+		}
+		this.hitRatio = hitRatio;
+		this.seed = seed;
+
+		// shuffle the words (Fisher-Yates) so popularity has nothing to do with alphabetical order
+		this.byRank = unique.toArray(new String[0]);
+		SplittableRandom rand = new SplittableRandom(seed);
+		for (int i = byRank.length - 1; i >= 1; i--) {
+			int j = rand.nextInt(i + 1);
+			String tmp = byRank[i];
+			byRank[i] = byRank[j];
+			byRank[j] = tmp;
+		}
+
+		// Zipf: the word of rank r is picked with weight 1 / (r+1)^s.
+		this.cumulative = new double[byRank.length];
+		double total = 0;
+		for (int r = 0; r < byRank.length; r++) {
+			total += 1.0 / Math.pow(r + 1, zipfExponent);
+			cumulative[r] = total;
+		}
+		normalize(cumulative);
+
+		// by default, random non-words look like dictionary words: same lengths, same letters.
+		double[] lengths = new double[MAX_LENGTH + 1];
+		double[] letters = new double[26];
+		for (String w : byRank) {
+			lengths[Math.min(w.length(), MAX_LENGTH)]++;
+			for (int i = 0; i < w.length(); i++) {
+				char c = Character.toLowerCase(w.charAt(i));
+				if (c >= 'a' && c <= 'z') {
+					letters[c - 'a']++;
+				}
+			}
+		}
+		lengths[0] = 0;
+		setLengthWeights(lengths);
+		this.letterCumulative = toCumulative(letters);
+	}
+
+	/**
+	 * Choose how long random non-words are.
+	 * @param weights - weights[n] is how likely a length of n is (they don't need to add up to 1).
+	 */
+	public void setLengthWeights(double[] weights) {
+		double[] copy = Arrays.copyOf(weights, Math.min(weights.length, MAX_LENGTH + 1));
+		if (copy.length > 0) {
+			// an empty string is not a word
+			copy[0] = 0;
+		}
+		this.lengthCumulative = toCumulative(copy);
+	}
+
+	/**
+	 * Choose how many non-words are typos of real words rather than random letters.
+	 * @param typoRatio - 0 for all random letters, 1 for all typos.
+	 */
+	public void setTypoRatio(double typoRatio) {
+		if (typoRatio < 0 || typoRatio > 1) {
+			throw new IllegalArgumentException("typoRatio must be between 0 and 1: " + typoRatio);
+		}
+		this.typoRatio = typoRatio;
+	}
+
+	/**
+	 * Turn weights into a cumulative distribution that ends at exactly 1.
+	 */
+	private static double[] toCumulative(double[] weights) {
+		double[] out = new double[weights.length];
+		double total = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] < 0) {
+				throw new IllegalArgumentException("Negative weight at " + i);
+			}
+			total += weights[i];
+			out[i] = total;
+		}
+		if (total <= 0) {
+			throw new IllegalArgumentException("Need at least one positive weight.");
+		}
+		normalize(out);
+		return out;
+	}
+
+	/**
+	 * Divide a running total by its last value.
+	 */
+	private static void normalize(double[] cumulative) {
+		double total = cumulative[cumulative.length - 1];
+		for (int i = 0; i < cumulative.length; i++) {
+			cumulative[i] /= total;
+		}
+		cumulative[cumulative.length - 1] = 1.0;
+	}
+
+	/**
+	 * Binary search for the first index whose cumulative probability reaches u.
+	 */
+	private static int sample(double[] cumulative, double u) {
+		int lo = 0;
+		int hi = cumulative.length - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cumulative[mid] < u) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * @return how many distinct real words there are.
+	 */
+	public int numWords() {
+		return byRank.length;
+	}
+
+	/**
+	 * @param rank - 0 for the most popular word.
+	 * @return the word with that popularity rank.
+	 */
+	public String wordAtRank(int rank) {
+		return byRank[rank];
+	}
+
+	/**
+	 * Produce count queries, one at a time.
+	 * @param count - how many queries.
+	 * @param handler - who to hand each query to.
+	 */
+	public void generate(long count, QueryHandler handler) {
+		SplittableRandom rand = new SplittableRandom(seed ^ 0x5DEECE66DL);
+		for (long i = 0; i < count; i++) {
+			if (rand.nextDouble() < hitRatio) {
+				handler.onQuery(nextWord(rand), true);
+			} else {
+				handler.onQuery(nextNonWord(rand), false);
+			}
+		}
+	}
+
+	/**
+	 * The same queries as generate, as an Iterator; nothing is stored ahead of time.
+	 * @param count - how many queries.
+	 * @return an iterator over count queries.
+	 */
+	public Iterator<String> iterator(long count) {
+		SplittableRandom rand = new SplittableRandom(seed ^ 0x5DEECE66DL);
+		return new Iterator<String>() {
+			long left = count;
+
+			@Override
+			public boolean hasNext() {
+				return left > 0;
+			}
+
+			@Override
+			public String next() {
+				if (left <= 0) {
+					throw new NoSuchElementException();
+				}
+				left--;
+				return rand.nextDouble() < hitRatio ? nextWord(rand) : nextNonWord(rand);
+			}
+		};
+	}
+
+	/**
+	 * For when you do want them all in memory (benchmarks that need an array).
+	 * @param count - how many queries.
+	 * @return a list of count queries.
+	 */
+	public List<String> toList(int count) {
+		List<String> out = new ArrayList<>(count);
+		generate(count, (query, real) -> out.add(query));
+		return out;
+	}
+
+	/**
+	 * @return a real word, picked by popularity.
+	 */
+	private String nextWord(SplittableRandom rand) {
+		return byRank[sample(cumulative, rand.nextDouble())];
+	}
+
+	/**
+	 * @return something that is definitely not in the dictionary.
+	 */
+	private String nextNonWord(SplittableRandom rand) {
+		while (true) {
+			String candidate = rand.nextDouble() < typoRatio ? typo(nextWord(rand), rand) : randomLetters(rand);
+			if (!dictionary.contains(candidate)) {
+				return candidate;
+			}
+		}
+	}
+
+	/**
+	 * Insert "zs" somewhere inside a word, like CheckSpelling does, then a random letter if that was still real.
+	 */
+	private String typo(String word, SplittableRandom rand) {
+		int z = word.length() <= 2 ? word.length() : rand.nextInt(word.length() - 2) + 1;
+		String out = word.substring(0, z) + "zs" + word.substring(z);
+		if (dictionary.contains(out)) {
+			int at = rand.nextInt(out.length() + 1);
+			out = out.substring(0, at) + randomLetter(rand) + out.substring(at);
+		}
+		return out;
+	}
+
+	/**
+	 * @return a random string, with its length and letters drawn like the dictionary's.
+	 */
+	private String randomLetters(SplittableRandom rand) {
+		int length = sample(lengthCumulative, rand.nextDouble());
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = randomLetter(rand);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * @return a letter, as common as it is in the dictionary.
+	 */
+	private char randomLetter(SplittableRandom rand) {
+		return (char) ('a' + sample(letterCumulative, rand.nextDouble()));
+	}
+}
@@ -0,0 +1,297 @@
+package edu.smith.listADT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.smith.listErrors.BadIndexError;
+import edu.smith.listErrors.EmptyListError;
+
+/**
+ * A list of ints with the same methods as ListADT, kept in an int[] that wraps around like {@link RingBufferList}.
+ * A ListADT&lt;Integer&gt; boxes every item into an Integer object, somewhere else in memory;
+ * here the numbers are right in the array, and nothing is allocated except when the array grows.
+ * @author sivan
+ */
+public class IntListADT {
+	/**
+	 * The items are array[front], array[front+1], ... (wrapping around), size of them.
+	 */
+	private int[] array;
+	/**
+	 * Where item 0 is.
+	 */
+	private int front;
+	/**
+	 * How many items there are.
+	 */
+	private int size;
+
+	/**
+	 * Construct an empty list.
+	 */
+	public IntListADT() {
+		this(8);
+	}
+
+	/**
+	 * Construct an empty list with room for some items before it has to grow.
+	 * @param capacity - how many items to make room for.
+	 */
+	public IntListADT(int capacity) {
+		this.array = new int[RingBufferList.roundUp(capacity)];
+	}
+
+	/**
+	 * Construct a list from existing data.
+	 * @param toCopy - the numbers to copy.
+	 * @return a new list holding them.
+	 */
+	public static IntListADT of(int... toCopy) {
+		IntListADT list = new IntListADT(toCopy.length);
+		System.arraycopy(toCopy, 0, list.array, 0, toCopy.length);
+		list.size = toCopy.length;
+		return list;
+	}
+
+	/**
+	 * @return where item i is in the array.
+	 */
+	private int slot(int i) {
+		return (front + i) & (array.length - 1);
+	}
+
+	/**
+	 * Make sure there is room for n items, doubling the array if not.
+	 */
+	private void ensureCapacity(int n) {
+		if (n <= array.length) {
+			return;
+		}
+		int[] bigger = new int[RingBufferList.roundUp(n)];
+		copyTo(bigger, 0);
+		array = bigger;
+		front = 0;
+	}
+
+	/**
+	 * Copy every item, in order, into another array.
+	 */
+	private void copyTo(int[] dest, int at) {
+		int firstPart = Math.min(size, array.length - front);
+		System.arraycopy(array, front, dest, at, firstPart);
+		System.arraycopy(array, 0, dest, at + firstPart, size - firstPart);
+	}
+
+	/**
+	 * Check an index for get/set/remove with a single comparison.
+	 */
+	private void check(int index) {
+		if (Integer.compareUnsigned(index, size) >= 0) {
+			if (size == 0) {
+				throw new EmptyListError();
+			}
+			throw new BadIndexError(index);
+		}
+	}
+
+	/**
+	 * @return true if this list is empty.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the number of items.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Set the item stored at the given index to value.
+	 * @param index - from 0 to size() exclusive.
+	 * @param value - the value to put in the list.
+	 */
+	public void setIndex(int index, int value) {
+		check(index);
+		array[slot(index)] = value;
+	}
+
+	/**
+	 * @param index - the item index to retrieve.
+	 * @return the value stored at that position.
+	 */
+	public int getIndex(int index) {
+		check(index);
+		return array[slot(index)];
+	}
+
+	/**
+	 * @return the first item in the list.
+	 */
+	public int getFront() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		return array[front];
+	}
+
+	/**
+	 * @return the last item in the list.
+	 */
+	public int getBack() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		return array[slot(size - 1)];
+	}
+
+	/**
+	 * Add an item before the item at the given index, shifting whichever side is shorter.
+	 * @param index - a number from 0 to size (inclusive).
+	 * @param value - the value to insert into the list.
+	 */
+	public void addIndex(int index, int value) {
+		if (Integer.compareUnsigned(index, size) > 0) {
+			throw new BadIndexError(index);
+		}
+		ensureCapacity(size + 1);
+		if (index < size / 2) {
+			front = (front - 1) & (array.length - 1);
+			for (int i = 0; i < index; i++) {
+				array[slot(i)] = array[slot(i + 1)];
+			}
+		} else {
+			for (int i = size; i > index; i--) {
+				array[slot(i)] = array[slot(i - 1)];
+			}
+		}
+		array[slot(index)] = value;
+		size++;
+	}
+
+	/**
+	 * @param value - the item to add to the front.
+	 */
+	public void addFront(int value) {
+		ensureCapacity(size + 1);
+		front = (front - 1) & (array.length - 1);
+		array[front] = value;
+		size++;
+	}
+
+	/**
+	 * @param value - the item to add to the back.
+	 */
+	public void addBack(int value) {
+		ensureCapacity(size + 1);
+		array[slot(size)] = value;
+		size++;
+	}
+
+	/**
+	 * Remove the item at the given index, shifting whichever side is shorter.
+	 * @param index - a number from 0 to size (exclusive).
+	 * @return the value removed.
+	 */
+	public int removeIndex(int index) {
+		check(index);
+		int removed = array[slot(index)];
+		if (index < size / 2) {
+			for (int i = index; i > 0; i--) {
+				array[slot(i)] = array[slot(i - 1)];
+			}
+			front = (front + 1) & (array.length - 1);
+		} else {
+			for (int i = index; i < size - 1; i++) {
+				array[slot(i)] = array[slot(i + 1)];
+			}
+		}
+		size--;
+		return removed;
+	}
+
+	/**
+	 * @return the value removed from the back.
+	 */
+	public int removeBack() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		size--;
+		return array[slot(size)];
+	}
+
+	/**
+	 * @return the value removed from the front.
+	 */
+	public int removeFront() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		int removed = array[front];
+		front = (front + 1) & (array.length - 1);
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Add every item of another list to the back of this one, with arraycopy.
+	 * @param other - the list to copy from (may be this list).
+	 */
+	public void addAll(IntListADT other) {
+		int[] items = other.toArray();
+		ensureCapacity(size + items.length);
+		int start = slot(size);
+		int firstPart = Math.min(items.length, array.length - start);
+		System.arraycopy(items, 0, array, start, firstPart);
+		System.arraycopy(items, firstPart, array, 0, items.length - firstPart);
+		size += items.length;
+	}
+
+	/**
+	 * @return a new array holding the items in order.
+	 */
+	public int[] toArray() {
+		int[] items = new int[size];
+		copyTo(items, 0);
+		return items;
+	}
+
+	/**
+	 * Convert this to a Java data structure (boxing every item); probably useful for unit-test errors.
+	 * @return - a Java List object.
+	 */
+	public List<Integer> toJava() {
+		List<Integer> output = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			output.add(array[slot(i)]);
+		}
+		return output;
+	}
+
+	/**
+	 * Remove everything.
+	 */
+	public void clear() {
+		front = 0;
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof IntListADT && Arrays.equals(toArray(), ((IntListADT) other).toArray());
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(toArray());
+	}
+}
@@ -0,0 +1,304 @@
+package edu.smith.listADT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.smith.listErrors.BadIndexError;
+import edu.smith.listErrors.EmptyListError;
+
+/**
+ * A list of longs with the same methods as ListADT, kept in a long[] that wraps around like {@link RingBufferList}.
+ * A ListADT&lt;Long&gt; boxes every item into a Long object, somewhere else in memory;
+ * here the numbers are right in the array, and nothing is allocated except when the array grows.
+ * @author sivan
+ */
+public class LongListADT {
+	/**
+	 * The items are array[front], array[front+1], ... (wrapping around), size of them.
+	 */
+	private long[] array;
+	/**
+	 * Where item 0 is.
+	 */
+	private int front;
+	/**
+	 * How many items there are.
+	 */
+	private int size;
+
+	/**
+	 * Construct an empty list.
+	 */
+	public LongListADT() {
+		this(8);
+	}
+
+	/**
+	 * Construct an empty list with room for some items before it has to grow.
+	 * @param capacity - how many items to make room for.
+	 */
+	public LongListADT(int capacity) {
+		this.array = new long[RingBufferList.roundUp(capacity)];
+	}
+
+	/**
+	 * Construct a list from existing data.
+	 * @param toCopy - the numbers to copy.
+	 * @return a new list holding them.
+	 */
+	public static LongListADT of(long... toCopy) {
+		LongListADT list = new LongListADT(toCopy.length);
+		System.arraycopy(toCopy, 0, list.array, 0, toCopy.length);
+		list.size = toCopy.length;
+		return list;
+	}
+
+	/**
+	 * @return where item i is in the array.
+	 */
+	private int slot(int i) {
+		return (front + i) & (array.length - 1);
+	}
+
+	/**
+	 * Make sure there is room for n items, doubling the array if not.
+	 */
+	private void ensureCapacity(int n) {
+		if (n <= array.length) {
+			return;
+		}
+		long[] bigger = new long[RingBufferList.roundUp(n)];
+		copyTo(bigger, 0);
+		array = bigger;
+		front = 0;
+	}
+
+	/**
+	 * Copy every item, in order, into another array.
+	 */
+	private void copyTo(long[] dest, int at) {
+		int firstPart = Math.min(size, array.length - front);
+		System.arraycopy(array, front, dest, at, firstPart);
+		System.arraycopy(array, 0, dest, at + firstPart, size - firstPart);
+	}
+
+	/**
+	 * Check an index for get/set/remove with a single comparison.
+	 */
+	private void check(int index) {
+		if (Integer.compareUnsigned(index, size) >= 0) {
+			if (size == 0) {
+				throw new EmptyListError();
+			}
+			throw new BadIndexError(index);
+		}
+	}
+
+	/**
+	 * @return true if this list is empty.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the number of items.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Set the item stored at the given index to value.
+	 * @param index - from 0 to size() exclusive.
+	 * @param value - the value to put in the list.
+	 */
+	public void setIndex(int index, long value) {
+		check(index);
+		array[slot(index)] = value;
+	}
+
+	/**
+	 * @param index - the item index to retrieve.
+	 * @return the value stored at that position.
+	 */
+	public long getIndex(int index) {
+		check(index);
+		return array[slot(index)];
+	}
+
+	/**
+	 * @return the first item in the list.
+	 */
+	public long getFront() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		return array[front];
+	}
+
+	/**
+	 * @return the last item in the list.
+	 */
+	public long getBack() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		return array[slot(size - 1)];
+	}
+
+	/**
+	 * Add an item before the item at the given index, shifting whichever side is shorter.
+	 * @param index - a number from 0 to size (inclusive).
+	 * @param value - the value to insert into the list.
+	 */
+	public void addIndex(int index, long value) {
+		if (Integer.compareUnsigned(index, size) > 0) {
+			throw new BadIndexError(index);
+		}
+		ensureCapacity(size + 1);
+		if (index < size / 2) {
+			front = (front - 1) & (array.length - 1);
+			for (int i = 0; i < index; i++) {
+				array[slot(i)] = array[slot(i + 1)];
+			}
+		} else {
+			for (int i = size; i > index; i--) {
+				array[slot(i)] = array[slot(i - 1)];
+			}
+		}
+		array[slot(index)] = value;
+		size++;
+	}
+
+	/**
+	 * @param value - the item to add to the front.
+	 */
+	public void addFront(long value) {
+		ensureCapacity(size + 1);
+		front = (front - 1) & (array.length - 1);
+		array[front] = value;
+		size++;
+	}
+
+	/**
+	 * @param value - the item to add to the back.
+	 */
+	public void addBack(long value) {
+		ensureCapacity(size + 1);
+		array[slot(size)] = value;
+		size++;
+	}
+
+	/**
+	 * Remove the item at the given index, shifting whichever side is shorter.
+	 * @param index - a number from 0 to size (exclusive).
+	 * @return the value removed.
+	 */
+	public long removeIndex(int index) {
+		check(index);
+		long removed = array[slot(index)];
+		if (index < size / 2) {
+			for (int i = index; i > 0; i--) {
+				array[slot(i)] = array[slot(i - 1)];
+			}
+			front = (front + 1) & (array.length - 1);
+		} else {
+			for (int i = index; i < size - 1; i++) {
+				array[slot(i)] = array[slot(i + 1)];
+			}
+		}
+		size--;
+		return removed;
+	}
+
+	/**
+	 * @return the value removed from the back.
+	 */
+	public long removeBack() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		size--;
+		return array[slot(size)];
+	}
+
+	/**
+	 * @return the value removed from the front.
+	 */
+	public long removeFront() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		long removed = array[front];
+		front = (front + 1) & (array.length - 1);
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Add every item of another list to the back of this one, with arraycopy.
+	 * @param other - the list to copy from (may be this list).
+	 */
+	public void addAll(LongListADT other) {
+		long[] items = other.toArray();
+		ensureCapacity(size + items.length);
+		int start = slot(size);
+		int firstPart = Math.min(items.length, array.length - start);
+		System.arraycopy(items, 0, array, start, firstPart);
+		System.arraycopy(items, firstPart, array, 0, items.length - firstPart);
+		size += items.length;
+	}
+
+	/**
+	 * @return how many items fit before the array has to grow.
+	 */
+	public int capacity() {
+		return array.length;
+	}
+
+	/**
+	 * @return a new array holding the items in order.
+	 */
+	public long[] toArray() {
+		long[] items = new long[size];
+		copyTo(items, 0);
+		return items;
+	}
+
+	/**
+	 * Convert this to a Java data structure (boxing every item); probably useful for unit-test errors.
+	 * @return - a Java List object.
+	 */
+	public List<Long> toJava() {
+		List<Long> output = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			output.add(array[slot(i)]);
+		}
+		return output;
+	}
+
+	/**
+	 * Remove everything.
+	 */
+	public void clear() {
+		front = 0;
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof LongListADT && Arrays.equals(toArray(), ((LongListADT) other).toArray());
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(toArray());
+	}
+}
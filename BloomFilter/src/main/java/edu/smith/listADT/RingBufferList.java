@@ -0,0 +1,320 @@
+package edu.smith.listADT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import edu.smith.listErrors.BadIndexError;
+import edu.smith.listErrors.EmptyListError;
+
+/**
+ * RingBufferList keeps its items in an array that wraps around: the front can be anywhere in the array,
+ * and the list continues from there, past the end and back to the start.
+ * So adding or removing at either end never shifts anything (JavaList's addFront moves every item),
+ * and the array only has to be copied when it doubles.
+ * Adding or removing in the middle shifts whichever side is shorter.
+ *
+ * The array's length is always a power of two, so "wrap around" is a mask instead of a division.
+ * @author sivan
+ *
+ * @param <T> - the type of the item stored in this list.
+ */
+public class RingBufferList<T> extends ListADT<T> {
+	/**
+	 * The items are array[front], array[front+1], ... (wrapping around), size of them.
+	 */
+	private Object[] array;
+	/**
+	 * Where item 0 is.
+	 */
+	private int front;
+	/**
+	 * How many items there are.
+	 */
+	private int size;
+
+	/**
+	 * Construct an empty list.
+	 */
+	public RingBufferList() {
+		this(8);
+	}
+
+	/**
+	 * Construct an empty list with room for some items before it has to grow.
+	 * @param capacity - how many items to make room for.
+	 */
+	public RingBufferList(int capacity) {
+		this.array = new Object[roundUp(capacity)];
+	}
+
+	/**
+	 * Construct this list from existing data.
+	 * @param toCopy - the elements to copy.
+	 */
+	public RingBufferList(List<T> toCopy) {
+		this(toCopy.size());
+		Object[] items = toCopy.toArray();
+		System.arraycopy(items, 0, array, 0, items.length);
+		this.size = items.length;
+	}
+
+	/**
+	 * @return the smallest power of two that is at least n (and at least 1).
+	 */
+	static int roundUp(int n) {
+		if (n > (1 << 30)) {
+			throw new IllegalArgumentException("Too big: " + n);
+		}
+		int c = 1;
+		while (c < n) {
+			c <<= 1;
+		}
+		return c;
+	}
+
+	/**
+	 * @return where item i is in the array.
+	 */
+	private int slot(int i) {
+		return (front + i) & (array.length - 1);
+	}
+
+	/**
+	 * Make sure there is room for n items, doubling the array if not.
+	 * The items are copied to the start of the new array, so it doesn't wrap any more.
+	 */
+	private void ensureCapacity(int n) {
+		if (n <= array.length) {
+			return;
+		}
+		Object[] bigger = new Object[roundUp(n)];
+		copyTo(bigger, 0);
+		array = bigger;
+		front = 0;
+	}
+
+	/**
+	 * Copy every item, in order, into another array (two arraycopy calls at most).
+	 */
+	private void copyTo(Object[] dest, int at) {
+		int firstPart = Math.min(size, array.length - front);
+		System.arraycopy(array, front, dest, at, firstPart);
+		System.arraycopy(array, 0, dest, at + firstPart, size - firstPart);
+	}
+
+	/**
+	 * Check an index for get/set/remove with a single comparison; only when it fails do we work out which error.
+	 */
+	private void check(int index) {
+		// a negative index looks huge as an unsigned number
+		if (Integer.compareUnsigned(index, size) >= 0) {
+			checkNotEmpty();
+			throw new BadIndexError(index);
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void setIndex(int index, T value) {
+		check(index);
+		array[slot(index)] = value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T getIndex(int index) {
+		check(index);
+		return (T) array[slot(index)];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T getFront() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		return (T) array[front];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T getBack() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		return (T) array[slot(size - 1)];
+	}
+
+	@Override
+	public void addIndex(int index, T value) {
+		if (Integer.compareUnsigned(index, size) > 0) {
+			throw new BadIndexError(index);
+		}
+		ensureCapacity(size + 1);
+		if (index < size / 2) {
+			// move the items before index one step toward the front
+			front = (front - 1) & (array.length - 1);
+			for (int i = 0; i < index; i++) {
+				array[slot(i)] = array[slot(i + 1)];
+			}
+		} else {
+			// move the items from index on one step toward the back
+			for (int i = size; i > index; i--) {
+				array[slot(i)] = array[slot(i - 1)];
+			}
+		}
+		array[slot(index)] = value;
+		size++;
+	}
+
+	@Override
+	public void addFront(T value) {
+		ensureCapacity(size + 1);
+		front = (front - 1) & (array.length - 1);
+		array[front] = value;
+		size++;
+	}
+
+	@Override
+	public void addBack(T value) {
+		ensureCapacity(size + 1);
+		array[slot(size)] = value;
+		size++;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T removeIndex(int index) {
+		check(index);
+		T removed = (T) array[slot(index)];
+		if (index < size / 2) {
+			// close the gap from the front side
+			for (int i = index; i > 0; i--) {
+				array[slot(i)] = array[slot(i - 1)];
+			}
+			array[front] = null;
+			front = (front + 1) & (array.length - 1);
+		} else {
+			for (int i = index; i < size - 1; i++) {
+				array[slot(i)] = array[slot(i + 1)];
+			}
+			array[slot(size - 1)] = null;
+		}
+		size--;
+		return removed;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T removeBack() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		int last = slot(size - 1);
+		T removed = (T) array[last];
+		// let the garbage collector have it
+		array[last] = null;
+		size--;
+		return removed;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T removeFront() {
+		if (size == 0) {
+			throw new EmptyListError();
+		}
+		T removed = (T) array[front];
+		array[front] = null;
+		front = (front + 1) & (array.length - 1);
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Add many things to this list; if other is a RingBufferList too, with arraycopy instead of one at a time.
+	 * @param other - the list to copy from.
+	 */
+	@Override
+	public void addAll(ListADT<T> other) {
+		if (!(other instanceof RingBufferList)) {
+			super.addAll(other);
+			return;
+		}
+		RingBufferList<T> source = (RingBufferList<T>) other;
+		int count = source.size;
+		ensureCapacity(size + count);
+		// if other is this list, copy what it held before we started
+		Object[] items = new Object[count];
+		source.copyTo(items, 0);
+		int start = slot(size);
+		int firstPart = Math.min(count, array.length - start);
+		System.arraycopy(items, 0, array, start, firstPart);
+		System.arraycopy(items, firstPart, array, 0, count - firstPart);
+		size += count;
+	}
+
+	/**
+	 * @return a new array holding the items in order.
+	 */
+	public Object[] toArray() {
+		Object[] items = new Object[size];
+		copyTo(items, 0);
+		return items;
+	}
+
+	/**
+	 * Convert this to a Java data structure, with arraycopy instead of one item at a time.
+	 * @return - a Java List object.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<T> toJava() {
+		return new ArrayList<>((List<T>) Arrays.asList(toArray()));
+	}
+
+	/**
+	 * Remove everything (and let the garbage collector have it).
+	 */
+	public void clear() {
+		Arrays.fill(array, null);
+		front = 0;
+		size = 0;
+	}
+
+	/**
+	 * Walk the array directly, without the checks getIndex does.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return i < size;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public T next() {
+				if (i >= size) {
+					throw new NoSuchElementException();
+				}
+				return (T) array[slot(i++)];
+			}
+		};
+	}
+}
@@ -0,0 +1,137 @@
+package edu.smith.bloom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.smith.checkSpelling.CheckSpelling;
+
+public class TestCountMinSketch {
+
+	/**
+	 * @return how many times each word of the book appears.
+	 */
+	private static Map<String, Integer> exactCounts(List<String> book) {
+		Map<String, Integer> exact = new HashMap<>();
+		for (String w : book) {
+			exact.merge(w, 1, Integer::sum);
+		}
+		return exact;
+	}
+
+	@Test
+	public void testSmallCountsAreExact() {
+		CountMinSketch<String> sketch = new CountMinSketch<>(1000, 4, 42, false);
+		sketch.add("apple");
+		sketch.add("apple");
+		sketch.add("pear", 5);
+		Assert.assertEquals(2, sketch.estimate("apple"));
+		Assert.assertEquals(5, sketch.estimate("pear"));
+		Assert.assertEquals(0, sketch.estimate("plum"));
+		Assert.assertEquals(7, sketch.total());
+	}
+
+	@Test
+	public void testNeverUnderCountsTheBook() {
+		List<String> book = CheckSpelling.loadBook();
+		Map<String, Integer> exact = exactCounts(book);
+		CountMinSketch<String> sketch = CountMinSketch.forError(0.001, 0.01, 7, false);
+		for (String w : book) {
+			sketch.add(w);
+		}
+		Assert.assertEquals(book.size(), sketch.total());
+		int tooFar = 0;
+		for (Map.Entry<String, Integer> e : exact.entrySet()) {
+			long estimate = sketch.estimate(e.getKey());
+			Assert.assertTrue(e.getKey(), estimate >= e.getValue());
+			if (estimate - e.getValue() > sketch.errorBound()) {
+				tooFar++;
+			}
+		}
+		// allowed for 1% of words; conservative update does far better
+		Assert.assertTrue(tooFar + " words", tooFar <= exact.size() / 100);
+	}
+
+	@Test
+	public void testConservativeUpdateIsCloser() {
+		List<String> book = CheckSpelling.loadBook();
+		Map<String, Integer> exact = exactCounts(book);
+		// small on purpose, so lots of words share counters
+		CountMinSketch<String> conservative = new CountMinSketch<>(512, 3, 1, false);
+		CountMinSketch<String> plain = new CountMinSketch<>(512, 3, 1, true);
+		for (String w : book) {
+			conservative.add(w);
+			plain.add(w);
+		}
+		long conservativeError = 0;
+		long plainError = 0;
+		for (Map.Entry<String, Integer> e : exact.entrySet()) {
+			Assert.assertTrue(conservative.estimate(e.getKey()) <= plain.estimate(e.getKey()));
+			conservativeError += conservative.estimate(e.getKey()) - e.getValue();
+			plainError += plain.estimate(e.getKey()) - e.getValue();
+		}
+		Assert.assertTrue(conservativeError + " vs " + plainError, conservativeError < plainError);
+	}
+
+	@Test
+	public void testMergeCountsBothHalves() {
+		List<String> book = CheckSpelling.loadBook();
+		CountMinSketch<String> whole = new CountMinSketch<>(4096, 4, 3, true);
+		CountMinSketch<String> first = new CountMinSketch<>(4096, 4, 3, true);
+		CountMinSketch<String> second = new CountMinSketch<>(4096, 4, 3, true);
+		for (int i = 0; i < book.size(); i++) {
+			whole.add(book.get(i));
+			(i < book.size() / 2 ? first : second).add(book.get(i));
+		}
+		first.merge(second);
+		Assert.assertEquals(whole.total(), first.total());
+		// without conservative update, adding is the same in any order
+		for (String w : book.subList(0, 1000)) {
+			Assert.assertEquals(w, whole.estimate(w), first.estimate(w));
+		}
+		try {
+			first.merge(new CountMinSketch<String>(4096, 4, 4, true));
+			Assert.fail("merged sketches with different hash functions");
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+	}
+
+	@Test
+	public void testConcurrentAddsAllCount() throws InterruptedException {
+		List<String> book = CheckSpelling.loadBook();
+		Map<String, Integer> exact = exactCounts(book);
+		CountMinSketch<String> sketch = new CountMinSketch<>(4096, 4, 5, true);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread thread = new Thread(() -> {
+				for (String w : book) {
+					sketch.add(w);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(4L * book.size(), sketch.total());
+		for (Map.Entry<String, Integer> e : exact.entrySet()) {
+			Assert.assertTrue(e.getKey(), sketch.estimate(e.getKey()) >= 4L * e.getValue());
+		}
+	}
+
+	@Test
+	public void testHashIsNeverNegative() {
+		// (0 * h + 2^31) mod p, cast to an int, is Integer.MIN_VALUE, which Math.abs leaves negative
+		Assert.assertEquals(0, UniversalHash.hash(0, 1L << 31, 12345));
+		// every other value is unchanged
+		Assert.assertEquals(5, UniversalHash.hash(0, 5, 12345));
+		Assert.assertEquals(5, UniversalHash.hash(0, -5, 12345));
+		Assert.assertEquals(Integer.MAX_VALUE, UniversalHash.hash(0, Integer.MAX_VALUE, 12345));
+	}
+}
@@ -0,0 +1,173 @@
+package edu.smith.bloom;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.smith.checkSpelling.CheckSpelling;
+import edu.smith.checkSpelling.WordTokenizer;
+
+public class TestHyperLogLog {
+
+	/**
+	 * Assert an estimate is within some relative error of the truth.
+	 */
+	private static void assertClose(long expected, long actual, double relativeError) {
+		Assert.assertTrue(actual + " is not within " + relativeError + " of " + expected,
+				Math.abs(actual - expected) <= relativeError * expected);
+	}
+
+	@Test
+	public void testEmptyAndTiny() {
+		HyperLogLog hll = new HyperLogLog();
+		Assert.assertEquals(0, hll.estimate());
+		hll.add("apple");
+		hll.add("apple");
+		hll.add("pear");
+		Assert.assertEquals(2, hll.estimate());
+		Assert.assertTrue(hll.isSparse());
+	}
+
+	@Test
+	public void testSparseIsNearlyExact() {
+		List<String> words = TestBloomFilter.loadDictionary();
+		HyperLogLog hll = new HyperLogLog(14);
+		for (String w : words.subList(0, 1000)) {
+			hll.add(w);
+		}
+		// less than the 16 KB of registers
+		Assert.assertTrue(hll.estimatedBytes() < 1 << 14);
+		for (String w : words.subList(1000, 3000)) {
+			hll.add(w);
+		}
+		Assert.assertTrue(hll.isSparse());
+		assertClose(3000, hll.estimate(), 0.002);
+	}
+
+	@Test
+	public void testDictionary() {
+		List<String> words = TestBloomFilter.loadDictionary();
+		long distinct = new HashSet<>(words).size();
+		for (int p = 10; p <= 16; p += 2) {
+			HyperLogLog hll = new HyperLogLog(p);
+			for (String w : words) {
+				hll.add(w);
+			}
+			// duplicates don't count
+			for (String w : words) {
+				hll.add(w);
+			}
+			Assert.assertFalse(hll.isSparse());
+			assertClose(distinct, hll.estimate(), 4 * hll.relativeError());
+		}
+	}
+
+	@Test
+	public void testTokensCountLikeStrings() {
+		List<String> book = CheckSpelling.loadBook();
+		HyperLogLog fromStrings = new HyperLogLog(12);
+		for (String w : book) {
+			fromStrings.add(w);
+		}
+		HyperLogLog fromTokens = new HyperLogLog(12);
+		WordTokenizer tokenizer = new WordTokenizer();
+		WordTokenizer.TokenHandler handler = fromTokens::add;
+		for (String line : bookLines()) {
+			tokenizer.tokenize(line, handler);
+		}
+		Assert.assertEquals(fromStrings.estimate(), fromTokens.estimate());
+		assertClose(new HashSet<>(book).size(), fromTokens.estimate(), 4 * fromTokens.relativeError());
+	}
+
+	@Test
+	public void testMergeMatchesOneSketch() {
+		List<String> words = TestBloomFilter.loadDictionary();
+		HyperLogLog whole = new HyperLogLog(12);
+		for (String w : words) {
+			whole.add(w);
+		}
+		// one dense and one still sparse, then both dense
+		HyperLogLog big = new HyperLogLog(12);
+		HyperLogLog small = new HyperLogLog(12);
+		for (int i = 0; i < words.size(); i++) {
+			(i < words.size() - 200 ? big : small).add(words.get(i));
+		}
+		Assert.assertTrue(small.isSparse());
+		small.merge(big);
+		Assert.assertEquals(whole.estimate(), small.estimate());
+		big.merge(small);
+		Assert.assertEquals(whole.estimate(), big.estimate());
+		try {
+			big.merge(new HyperLogLog(13));
+			Assert.fail("merged different precisions");
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+	}
+
+	@Test
+	public void testCountingTokensAllocatesNothing() {
+		List<String> lines = bookLines();
+		HyperLogLog hll = new HyperLogLog(12);
+		WordTokenizer tokenizer = new WordTokenizer();
+		WordTokenizer.TokenHandler handler = hll::add;
+		// the first pass fills the sparse list and switches to registers
+		for (String line : lines) {
+			tokenizer.tokenize(line, handler);
+		}
+		Assert.assertFalse(hll.isSparse());
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		long tokens = 0;
+		long before = threads.getThreadAllocatedBytes(id);
+		for (int pass = 0; pass < 5; pass++) {
+			for (String line : lines) {
+				tokens += tokenizer.tokenize(line, handler);
+			}
+		}
+		long allocated = threads.getThreadAllocatedBytes(id) - before;
+		// (a few bytes of slack for the measuring itself)
+		Assert.assertTrue(allocated + " bytes for " + tokens + " tokens", allocated < 1024);
+	}
+
+	@Test
+	public void testSizesABloomFilter() {
+		List<String> words = TestBloomFilter.loadDictionary();
+		HyperLogLog hll = new HyperLogLog();
+		for (String w : words) {
+			hll.add(w);
+		}
+		edu.smith.checkSpelling.BloomFilter filter = edu.smith.checkSpelling.BloomFilter.forKeys(hll, 0.01);
+		// about 9.6 bits a key at 1%, plus room for the estimate being low
+		Assert.assertTrue(filter.size() > 9.5 * words.size());
+		Assert.assertTrue(filter.size() < 11 * words.size());
+		for (String w : words) {
+			filter.insert(w);
+		}
+		int falsePositives = 0;
+		for (String w : TestBloomFilter.createFakeWords(words, 10000)) {
+			if (filter.contains(w)) {
+				falsePositives++;
+			}
+		}
+		// some fake words are real words, so leave a little room
+		Assert.assertTrue(falsePositives + " false positives", falsePositives < 250);
+	}
+
+	/**
+	 * @return the lines of the book, untokenized.
+	 */
+	private static List<String> bookLines() {
+		try {
+			return Files.readAllLines(new File("src/main/resources/book").toPath());
+		} catch (IOException e) {
+			throw new RuntimeException("Couldn't find book.", e);
+		}
+	}
+}
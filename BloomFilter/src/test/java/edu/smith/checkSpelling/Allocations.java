@@ -0,0 +1,62 @@
+package edu.smith.checkSpelling;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Counts the bytes an operation allocates on this thread, using the JVM's per-thread allocation counter.
+ * @author sivan
+ */
+final class Allocations {
+	/**
+	 * The counter itself and the loop around it may cost a few bytes, which shouldn't fail a zero budget.
+	 */
+	static final long SLACK = 1024;
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Keeps the answers alive, so the JIT can't drop the calls.
+	 */
+	static long sink;
+
+	private Allocations() {
+	}
+
+	/**
+	 * @return whether this JVM can count allocations per thread.
+	 */
+	static boolean supported() {
+		return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+	}
+
+	/**
+	 * Run an operation over the keys, round and round, once to warm up and again while counting.
+	 * @param keys - the keys to pass it, built ahead of time.
+	 * @param calls - how many calls to count.
+	 * @param operation - the operation, e.g. dictionary::contains.
+	 * @return the bytes allocated by all the counted calls.
+	 */
+	static long bytesAllocated(List<String> keys, int calls, Predicate<String> operation) {
+		String[] array = keys.toArray(new String[0]);
+		run(array, calls, operation);
+		long id = Thread.currentThread().getId();
+		long before = THREADS.getThreadAllocatedBytes(id);
+		run(array, calls, operation);
+		return THREADS.getThreadAllocatedBytes(id) - before;
+	}
+
+	private static void run(String[] keys, int calls, Predicate<String> operation) {
+		long count = 0;
+		for (int i = 0, k = 0; i < calls; i++) {
+			if (operation.test(keys[k])) {
+				count++;
+			}
+			if (++k == keys.length) {
+				k = 0;
+			}
+		}
+		sink += count;
+	}
+}
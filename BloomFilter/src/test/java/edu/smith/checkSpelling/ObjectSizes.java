@@ -0,0 +1,122 @@
+package edu.smith.checkSpelling;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Measures the memory an object graph really takes, the way JOL's GraphLayout does:
+ * walk every reference from the root, and ask the JVM (through sun.misc.Unsafe) where each object's fields and array elements are,
+ * so the layout is the real one rather than a formula. Unsafe is only reached by reflection, so this compiles with --release 8. Strings (and Classes) are skipped,
+ * to match what {@link MemoryFootprint} counts.
+ * @author sivan
+ */
+final class ObjectSizes {
+	private static final Object UNSAFE;
+	private static final Method OBJECT_FIELD_OFFSET;
+	private static final Method GET_OBJECT;
+	private static final Method ARRAY_BASE_OFFSET;
+	private static final Method ARRAY_INDEX_SCALE;
+	static {
+		try {
+			Class<?> unsafe = Class.forName("sun.misc.Unsafe");
+			Field f = unsafe.getDeclaredField("theUnsafe");
+			f.setAccessible(true);
+			UNSAFE = f.get(null);
+			OBJECT_FIELD_OFFSET = unsafe.getMethod("objectFieldOffset", Field.class);
+			GET_OBJECT = unsafe.getMethod("getObject", Object.class, long.class);
+			ARRAY_BASE_OFFSET = unsafe.getMethod("arrayBaseOffset", Class.class);
+			ARRAY_INDEX_SCALE = unsafe.getMethod("arrayIndexScale", Class.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private ObjectSizes() {
+	}
+
+	/**
+	 * @param root - the object to start from.
+	 * @return the bytes taken by it and everything it reaches, except Strings and Classes.
+	 */
+	static long deepSize(Object root) {
+		try {
+			return walk(root);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Couldn't use Unsafe.", e);
+		}
+	}
+
+	private static long walk(Object root) throws ReflectiveOperationException {
+		Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		ArrayDeque<Object> todo = new ArrayDeque<>();
+		todo.push(root);
+		long total = 0;
+		while (!todo.isEmpty()) {
+			Object o = todo.pop();
+			if (o instanceof String || o instanceof Class || !seen.add(o)) {
+				continue;
+			}
+			Class<?> c = o.getClass();
+			if (c.isArray()) {
+				int length = Array.getLength(o);
+				total += align((int) ARRAY_BASE_OFFSET.invoke(UNSAFE, c) + (long) (int) ARRAY_INDEX_SCALE.invoke(UNSAFE, c) * length);
+				if (!c.getComponentType().isPrimitive()) {
+					for (Object element : (Object[]) o) {
+						if (element != null) {
+							todo.push(element);
+						}
+					}
+				}
+				continue;
+			}
+			// the object ends after its last field (or its header, if it has none)
+			long end = 12;
+			for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+				for (Field f : k.getDeclaredFields()) {
+					if (Modifier.isStatic(f.getModifiers())) {
+						continue;
+					}
+					long offset = (long) OBJECT_FIELD_OFFSET.invoke(UNSAFE, f);
+					end = Math.max(end, offset + sizeOf(f.getType()));
+					if (!f.getType().isPrimitive()) {
+						Object value = GET_OBJECT.invoke(UNSAFE, o, offset);
+						if (value != null) {
+							todo.push(value);
+						}
+					}
+				}
+			}
+			total += align(end);
+		}
+		return total;
+	}
+
+	/**
+	 * @return the bytes a field of this type takes (references are 4 with compressed references).
+	 */
+	private static int sizeOf(Class<?> type) throws ReflectiveOperationException {
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		if (type == byte.class || type == boolean.class) {
+			return 1;
+		}
+		return (int) ARRAY_INDEX_SCALE.invoke(UNSAFE, Object[].class);
+	}
+
+	private static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+}
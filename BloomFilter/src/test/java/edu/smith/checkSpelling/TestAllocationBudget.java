@@ -0,0 +1,157 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.smith.bloom.CountMinSketch;
+import edu.smith.bloom.HyperLogLog;
+
+/**
+ * Lookups are supposed to allocate nothing: garbage in a hot path costs time we never see in a quick benchmark.
+ * Each hot path here has a budget in bytes per call, and a million calls must stay inside it.
+ */
+public class TestAllocationBudget {
+	/**
+	 * How many calls to count for each operation.
+	 */
+	static final int CALLS = 1_000_000;
+
+	static List<String> words;
+	/**
+	 * Half real words and half fake ones, so both the hit and the miss paths run.
+	 */
+	static List<String> mixed;
+
+	@BeforeClass
+	public static void setUp() {
+		Assume.assumeTrue(Allocations.supported());
+		words = CheckSpelling.loadDictionary();
+		mixed = new ArrayList<>(words.subList(0, 50000));
+		mixed.addAll(edu.smith.bloom.TestBloomFilter.createFakeWords(words, 50000));
+		Collections.shuffle(mixed, new Random(13));
+	}
+
+	/**
+	 * Fail if an operation allocates more than its budget.
+	 * @param name - what to call it in the message.
+	 * @param bytesPerCall - the budget.
+	 * @param keys - the keys to call it with.
+	 * @param operation - the operation.
+	 */
+	private static void assertBudget(String name, int bytesPerCall, List<String> keys, Predicate<String> operation) {
+		long allocated = Allocations.bytesAllocated(keys, CALLS, operation);
+		Assert.assertTrue(name + " allocated " + (allocated / (double) CALLS) + " bytes/call, budget is " + bytesPerCall,
+				allocated <= (long) bytesPerCall * CALLS + Allocations.SLACK);
+	}
+
+	@Test
+	public void testFilters() {
+		BloomFilter bloom = new BloomFilter(1751201, 5);
+		edu.smith.bloom.BloomFilter<String> generic = new edu.smith.bloom.BloomFilter<>(1751201, 5);
+		for (String w : words) {
+			bloom.insert(w);
+			generic.insert(w);
+		}
+		assertBudget("BloomFilter.contains", 0, mixed, bloom::contains);
+		assertBudget("BloomFilter.add", 0, mixed, bloom::add);
+		assertBudget("bloom.BloomFilter.contains", 0, mixed, generic::contains);
+		assertBudget("bloom.BloomFilter.insert", 0, mixed, w -> {
+			generic.insert(w);
+			return true;
+		});
+	}
+
+	@Test
+	public void testSketches() {
+		CountMinSketch<String> counts = new CountMinSketch<>(4096, 4);
+		CountMinSketch<String> concurrent = new CountMinSketch<>(4096, 4, 1, true);
+		// (dense already, so adding only sets registers)
+		HyperLogLog distinct = new HyperLogLog(12);
+		for (String w : words) {
+			distinct.add(w);
+		}
+		assertBudget("CountMinSketch.add", 0, mixed, w -> {
+			counts.add(w);
+			return true;
+		});
+		assertBudget("CountMinSketch.add (concurrent)", 0, mixed, w -> {
+			concurrent.add(w);
+			return true;
+		});
+		assertBudget("CountMinSketch.estimate", 0, mixed, w -> counts.estimate(w) > 0);
+		assertBudget("HyperLogLog.add", 0, mixed, w -> {
+			distinct.add(w);
+			return true;
+		});
+	}
+
+	@Test
+	public void testHashSets() {
+		LLHash chained = new LLHash(100000);
+		ConcurrentLLHash striped = new ConcurrentLLHash(100000);
+		OpenHash open = new OpenHash();
+		for (String w : words) {
+			chained.add(w);
+			striped.add(w);
+			open.add(w);
+		}
+		assertBudget("LLHash.contains", 0, mixed, chained::contains);
+		assertBudget("ConcurrentLLHash.contains", 0, mixed, striped::contains);
+		assertBudget("OpenHash.contains", 0, mixed, open::contains);
+		// adding a word that is already there must not allocate either
+		assertBudget("LLHash.add (present)", 0, words, chained::add);
+		assertBudget("ConcurrentLLHash.add (present)", 0, words, striped::add);
+		assertBudget("OpenHash.add (present)", 0, words, open::add);
+	}
+
+	@Test
+	public void testTries() {
+		CharTrie trie = new CharTrie();
+		for (String w : words) {
+			trie.insert(w);
+		}
+		CompactCharTrie compact = new CompactCharTrie(words);
+		Dafsa dafsa = new Dafsa(words);
+		assertBudget("CharTrie.contains", 0, mixed, trie::contains);
+		assertBudget("CharTrie.insert (present)", 0, words, w -> {
+			trie.insert(w);
+			return true;
+		});
+		assertBudget("CompactCharTrie.contains", 0, mixed, compact::contains);
+		assertBudget("CompactCharTrie.add (present)", 0, words, compact::add);
+		assertBudget("Dafsa.contains", 0, mixed, dafsa::contains);
+	}
+
+	@Test
+	public void testStaticDictionaries() {
+		SortedStringListSet sorted = new SortedStringListSet(words);
+		PackedStringListSet packed = new PackedStringListSet(words);
+		PerfectHashSet perfect = new PerfectHashSet(words);
+		assertBudget("SortedStringListSet.contains", 0, mixed, sorted::contains);
+		assertBudget("PackedStringListSet.contains", 0, mixed, packed::contains);
+		assertBudget("PerfectHashSet.contains", 0, mixed, perfect::contains);
+	}
+
+	@Test
+	public void testWrappers() {
+		BloomFilter bloom = new BloomFilter(1751201, 5);
+		LLHash chained = new LLHash(100000);
+		for (String w : words) {
+			bloom.insert(w);
+			chained.add(w);
+		}
+		FilteredSet filtered = new FilteredSet(new HashSet<>(words), bloom);
+		LookupCache cached = new LookupCache(chained, 4096);
+		assertBudget("FilteredSet.contains", 0, mixed, filtered::contains);
+		assertBudget("LookupCache.contains", 0, mixed, cached::contains);
+	}
+}
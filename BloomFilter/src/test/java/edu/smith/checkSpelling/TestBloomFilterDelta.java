@@ -0,0 +1,139 @@
+package edu.smith.checkSpelling;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBloomFilterDelta {
+
+	/**
+	 * A filter holding the first half of the dictionary.
+	 */
+	private static BloomFilter halfDictionary(List<String> words) {
+		BloomFilter filter = new BloomFilter(1751201, 5);
+		for (String w : words.subList(0, words.size() / 2)) {
+			filter.insert(w);
+		}
+		return filter;
+	}
+
+	@Test
+	public void testFullCopyAnswersTheSame() {
+		List<String> words = CheckSpelling.loadDictionary();
+		BloomFilter original = halfDictionary(words);
+		BloomFilter replica = BloomFilter.fromBytes(original.toBytes());
+		Assert.assertEquals(original.version(), replica.version());
+		Assert.assertEquals(original.size(), replica.size());
+		for (String w : words) {
+			Assert.assertEquals(w, original.contains(w), replica.contains(w));
+		}
+	}
+
+	@Test
+	public void testVersionCountsChanges() {
+		BloomFilter filter = new BloomFilter(1000, 3);
+		Assert.assertEquals(0, filter.version());
+		Assert.assertTrue(filter.add("apple"));
+		Assert.assertEquals(1, filter.version());
+		// nothing new to set
+		Assert.assertFalse(filter.add("apple"));
+		Assert.assertEquals(1, filter.version());
+		BloomFilter copy = filter.copy();
+		copy.insert("pear");
+		Assert.assertEquals(2, copy.version());
+		Assert.assertEquals(1, filter.version());
+		Assert.assertFalse(filter.contains("pear"));
+	}
+
+	@Test
+	public void testDeltasCatchAReplicaUp() {
+		List<String> words = CheckSpelling.loadDictionary();
+		BloomFilter original = halfDictionary(words);
+		byte[] full = original.toBytes();
+		BloomFilter replica = BloomFilter.fromBytes(full);
+
+		BloomFilter published = original.copy();
+		List<String> more = words.subList(words.size() / 2, words.size() / 2 + 1000);
+		for (String w : more) {
+			original.insert(w);
+		}
+		byte[] first = original.deltaSince(published);
+		published = original.copy();
+		for (String w : words.subList(words.size() / 2 + 1000, words.size() / 2 + 2000)) {
+			original.insert(w);
+		}
+		byte[] second = original.deltaSince(published);
+		// about 5 words per new key, instead of every word
+		Assert.assertTrue(first.length + " vs " + full.length, first.length < full.length / 4);
+
+		// out of order is refused, and changes nothing
+		try {
+			replica.applyDelta(second);
+			Assert.fail("applied a delta from the wrong version");
+		} catch (IllegalStateException e) {
+			// good
+		}
+		Assert.assertArrayEquals(full, replica.toBytes());
+
+		replica.applyDelta(first);
+		for (String w : more) {
+			Assert.assertTrue(w, replica.contains(w));
+		}
+		replica.applyDelta(second);
+		Assert.assertEquals(original.version(), replica.version());
+		Assert.assertArrayEquals(original.toBytes(), replica.toBytes());
+	}
+
+	@Test
+	public void testNoChangesIsATinyDelta() {
+		BloomFilter original = new BloomFilter(100000, 3);
+		original.insert("apple");
+		BloomFilter replica = original.copy();
+		byte[] delta = original.deltaSince(replica);
+		Assert.assertTrue(Arrays.toString(delta), delta.length < 20);
+		replica.applyDelta(delta);
+		Assert.assertEquals(1, replica.version());
+	}
+
+	@Test
+	public void testRefusesOtherFiltersAndDamage() {
+		BloomFilter original = new BloomFilter(100000, 3);
+		BloomFilter published = original.copy();
+		original.insert("apple");
+		original.insert("pear");
+		byte[] delta = original.deltaSince(published);
+
+		// same size, different hash functions
+		BloomFilter stranger = new BloomFilter(100000, 3);
+		try {
+			stranger.applyDelta(delta);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+		try {
+			stranger.deltaSince(published);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+		// every way of cutting it short is caught before anything changes
+		for (int n = 0; n < delta.length; n++) {
+			BloomFilter replica = published.copy();
+			try {
+				replica.applyDelta(Arrays.copyOf(delta, n));
+				Assert.fail("applied " + n + " bytes");
+			} catch (IllegalArgumentException e) {
+				Assert.assertArrayEquals(published.toBytes(), replica.toBytes());
+			}
+		}
+		try {
+			BloomFilter.fromBytes(delta);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// good
+		}
+	}
+}
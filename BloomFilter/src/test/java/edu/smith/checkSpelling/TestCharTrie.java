@@ -0,0 +1,98 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCharTrie {
+
+	/**
+	 * Copy everything an iterator gives us.
+	 */
+	public static List<String> drain(Iterator<String> it) {
+		List<String> out = new ArrayList<>();
+		while (it.hasNext()) {
+			out.add(it.next());
+		}
+		return out;
+	}
+
+	@Test
+	public void testEmptyIterator() {
+		CharTrie trie = new CharTrie();
+		Iterator<String> it = trie.iterator();
+		Assert.assertFalse(it.hasNext());
+		try {
+			it.next();
+			Assert.fail("expected NoSuchElementException");
+		} catch (NoSuchElementException expected) {
+			// good
+		}
+	}
+
+	@Test
+	public void testSmallIterator() {
+		CharTrie trie = new CharTrie();
+		for (String w : Arrays.asList("car", "cart", "a", "care", "co-op", "coop", "Cat")) {
+			trie.insert(w);
+		}
+		Assert.assertEquals(Arrays.asList("a", "car", "care", "cart", "cat", "co-op", "coop"), drain(trie.iterator()));
+		Assert.assertEquals(Arrays.asList("car", "care", "cart", "cat"), drain(trie.prefixIterator("CA")));
+		Assert.assertEquals(Arrays.asList("car", "care", "cart"), drain(trie.prefixIterator("car")));
+		Assert.assertEquals(Arrays.asList(), drain(trie.prefixIterator("cx")));
+		Assert.assertEquals(Arrays.asList(), drain(trie.prefixIterator("c!")));
+		Assert.assertEquals(4, trie.countWithPrefix("ca"));
+		Assert.assertEquals(7, trie.countWithPrefix(""));
+		Assert.assertEquals(0, trie.countWithPrefix("zzz"));
+	}
+
+	@Test
+	public void testPrefixIgnoresLocale() {
+		CharTrie trie = new CharTrie();
+		trie.insert("ice");
+		trie.insert("iris");
+		Locale before = Locale.getDefault();
+		try {
+			// in Turkish, "I".toLowerCase() is a dotless i, and "\u0130".toLowerCase() is two chars
+			Locale.setDefault(new Locale("tr", "TR"));
+			Assert.assertEquals(Arrays.asList("iris"), drain(trie.prefixIterator("IR")));
+			Assert.assertEquals(Arrays.asList("ice", "iris"), drain(trie.prefixIterator("\u0130")));
+		} finally {
+			Locale.setDefault(before);
+		}
+	}
+
+	@Test
+	public void testDeepWord() {
+		// a long word must not need a deep Java call stack to come back out
+		char[] chars = new char[2000];
+		Arrays.fill(chars, 'a');
+		String deep = new String(chars);
+		CharTrie trie = new CharTrie();
+		trie.insert(deep);
+		trie.insert("b");
+		Assert.assertEquals(Arrays.asList(deep, "b"), drain(trie.iterator()));
+		Assert.assertEquals(1, trie.countWithPrefix("aaaa"));
+	}
+
+	@Test
+	public void testDictionaryIsSorted() {
+		List<String> words = CheckSpelling.loadDictionary();
+		CharTrie trie = new CharTrie();
+		TreeSet<String> expected = new TreeSet<>();
+		for (String w : words) {
+			trie.insert(w);
+			expected.add(w.toLowerCase());
+		}
+		Assert.assertEquals(new ArrayList<>(expected), drain(trie.iterator()));
+		Assert.assertEquals(expected.subSet("ness", "nest").size(), trie.countWithPrefix("ness"));
+		Assert.assertEquals(new ArrayList<>(expected.subSet("un", "uo")), drain(trie.prefixIterator("un")));
+	}
+}
@@ -0,0 +1,128 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCompactCharTrie {
+
+	@Test
+	public void testEmpty() {
+		CompactCharTrie trie = new CompactCharTrie();
+		Assert.assertEquals(0, trie.size());
+		Assert.assertEquals(1, trie.countNodes());
+		Assert.assertFalse(trie.contains("a"));
+		Assert.assertFalse(trie.contains(""));
+	}
+
+	@Test
+	public void testSmall() {
+		CompactCharTrie trie = new CompactCharTrie();
+		for (String w : Arrays.asList("car", "cart", "care", "cat", "Dog", "car")) {
+			trie.insert(w);
+		}
+		Assert.assertEquals(5, trie.size());
+		Assert.assertTrue(trie.contains("car"));
+		Assert.assertTrue(trie.contains("cart"));
+		Assert.assertTrue(trie.contains("dog"));
+		Assert.assertTrue(trie.contains("DOG"));
+		Assert.assertFalse(trie.contains("ca"));
+		Assert.assertFalse(trie.contains("cars"));
+		Assert.assertTrue(trie.containsPrefix("ca"));
+		Assert.assertFalse(trie.containsPrefix("cb"));
+		Assert.assertFalse(trie.contains(7));
+		// root, c, a, r, t, e, t, d, o, g
+		Assert.assertEquals(10, trie.countNodes());
+
+		// squeezing the arrays changes nothing we can see, and we can keep inserting after
+		trie.compact();
+		Assert.assertEquals(10, trie.countNodes());
+		Assert.assertTrue(trie.contains("care"));
+		Assert.assertFalse(trie.contains("ca"));
+		trie.insert("ca");
+		trie.insert("cab");
+		trie.insert("a");
+		Assert.assertEquals(8, trie.size());
+		for (String w : Arrays.asList("car", "cart", "care", "cat", "dog", "ca", "cab", "a")) {
+			Assert.assertTrue(w, trie.contains(w));
+		}
+		Assert.assertFalse(trie.contains("c"));
+		Assert.assertFalse(trie.contains("cabs"));
+	}
+
+	@Test
+	public void testTokens() {
+		CompactCharTrie trie = new CompactCharTrie();
+		trie.insert("hello");
+		int[] found = new int[1];
+		new WordTokenizer().tokenize("Hello, HELLO; help", token -> {
+			if (trie.contains(token)) {
+				found[0]++;
+			}
+		});
+		Assert.assertEquals(2, found[0]);
+	}
+
+	@Test
+	public void testMatchesCharTrie() {
+		List<String> words = CheckSpelling.loadDictionary();
+		CharTrie slow = new CharTrie();
+		CompactCharTrie fast = new CompactCharTrie();
+		for (String w : words) {
+			slow.insert(w);
+			fast.insert(w);
+		}
+		CompactCharTrie compacted = new CompactCharTrie(words);
+		Assert.assertEquals(slow.countNodes(), fast.countNodes());
+		Assert.assertEquals(slow.countNodes(), compacted.countNodes());
+		for (String w : words) {
+			Assert.assertTrue(w, fast.contains(w));
+			Assert.assertTrue(w, compacted.contains(w));
+		}
+		for (String q : new WorkloadGenerator(words, 0.0, 1.0, 2).toList(20000)) {
+			Assert.assertEquals(q, slow.contains(q), fast.contains(q));
+			Assert.assertEquals(q, slow.contains(q), compacted.contains(q));
+		}
+	}
+
+	@Test
+	public void testSmallIterator() {
+		CompactCharTrie trie = new CompactCharTrie();
+		Assert.assertFalse(trie.iterator().hasNext());
+		for (String w : Arrays.asList("cart", "car", "Dog", "a-b", "", "cat")) {
+			trie.insert(w);
+		}
+		List<String> expected = Arrays.asList("", "a-b", "car", "cart", "cat", "dog");
+		Assert.assertEquals(expected, new ArrayList<>(trie));
+		// the same words whether or not it is compacted
+		trie.compact();
+		Assert.assertEquals(expected, new ArrayList<>(trie));
+		Assert.assertEquals("[, a-b, car, cart, cat, dog]", trie.toString());
+	}
+
+	@Test
+	public void testIteratesDictionary() {
+		List<String> words = CheckSpelling.loadDictionary();
+		CompactCharTrie trie = new CompactCharTrie(words);
+		TreeSet<String> expected = new TreeSet<>();
+		for (String w : words) {
+			char[] folded = w.toCharArray();
+			for (int i = 0; i < folded.length; i++) {
+				folded[i] = CompactCharTrie.fold(folded[i]);
+			}
+			expected.add(new String(folded));
+		}
+		Assert.assertEquals(expected.size(), trie.size());
+		Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(trie));
+		// now the AbstractSet methods work too
+		Assert.assertEquals(expected, new HashSet<>(trie));
+		Assert.assertTrue(trie.equals(expected));
+		Assert.assertEquals(expected.hashCode(), trie.hashCode());
+		Assert.assertTrue(trie.containsAll(words));
+	}
+}
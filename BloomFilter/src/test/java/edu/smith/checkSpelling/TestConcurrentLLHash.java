@@ -0,0 +1,100 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestConcurrentLLHash {
+
+	@Test
+	public void testLikeLLHash() {
+		List<String> words = CheckSpelling.loadDictionary();
+		ConcurrentLLHash set = new ConcurrentLLHash(100000);
+		LLHash plain = new LLHash(100000);
+		for (String w : words) {
+			Assert.assertEquals(plain.add(w), set.add(w));
+		}
+		Assert.assertEquals(plain.size(), set.size());
+		Assert.assertEquals(plain.countUsedBuckets(), set.countUsedBuckets());
+		Assert.assertEquals(plain.countCollisions(), set.countCollisions());
+		Assert.assertEquals(new HashSet<>(plain), new HashSet<>(set));
+		Assert.assertTrue(set.contains(new StringBuilder(words.get(7))));
+		Assert.assertFalse(set.contains(words.get(7) + "zs"));
+		Assert.assertFalse(set.contains(null));
+	}
+
+	@Test
+	public void testReadersWhileWriting() throws InterruptedException {
+		List<String> words = CheckSpelling.loadDictionary();
+		List<String> base = words.subList(0, words.size() / 2);
+		List<String> extra = words.subList(words.size() / 2, words.size());
+		ConcurrentLLHash set = new ConcurrentLLHash(50000, 8);
+		set.addAll(base);
+		int sizeBefore = set.size();
+
+		int writers = 4;
+		int readers = 4;
+		AtomicInteger added = new AtomicInteger();
+		AtomicBoolean writing = new AtomicBoolean(true);
+		List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch writersDone = new CountDownLatch(writers);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < writers; t++) {
+			// every writer adds every extra word, so they fight over each one
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+					for (String w : extra) {
+						if (set.add(w)) {
+							added.incrementAndGet();
+						}
+					}
+				} catch (Throwable e) {
+					failures.add(e);
+				} finally {
+					writersDone.countDown();
+				}
+			}));
+		}
+		for (int t = 0; t < readers; t++) {
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+					while (writing.get()) {
+						for (int i = 0; i < base.size(); i += 97) {
+							// words that were there from the start never go missing
+							Assert.assertTrue(set.contains(base.get(i)));
+						}
+					}
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			}));
+		}
+		for (Thread t : threads) {
+			t.start();
+		}
+		start.countDown();
+		writersDone.await();
+		writing.set(false);
+		for (Thread t : threads) {
+			t.join();
+		}
+		Assert.assertEquals(new ArrayList<Throwable>(), failures);
+
+		HashSet<String> expected = new HashSet<>(words);
+		// each new word was added by exactly one writer
+		Assert.assertEquals(expected.size() - sizeBefore, added.get());
+		Assert.assertEquals(expected.size(), set.size());
+		Assert.assertEquals(expected, new HashSet<>(set));
+		Assert.assertEquals(set.size(), new ArrayList<>(set).size());
+	}
+}
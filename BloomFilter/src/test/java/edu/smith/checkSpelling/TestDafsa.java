@@ -0,0 +1,76 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDafsa {
+
+	@Test
+	public void testEmpty() {
+		Dafsa dafsa = new Dafsa(Arrays.asList());
+		Assert.assertEquals(0, dafsa.size());
+		Assert.assertEquals(1, dafsa.countStates());
+		Assert.assertFalse(dafsa.contains("a"));
+		Assert.assertFalse(dafsa.contains(""));
+		Assert.assertFalse(dafsa.iterator().hasNext());
+	}
+
+	@Test
+	public void testSharedSuffixes() {
+		// the smallest automaton: root -t-> 1 -a,o-> 2 -p-> 3 (end) -s-> 4 (end)
+		Dafsa dafsa = new Dafsa(Arrays.asList("tops", "tap", "taps", "Top", "tap"));
+		Assert.assertEquals(4, dafsa.size());
+		Assert.assertEquals(5, dafsa.countStates());
+		Assert.assertEquals(5, dafsa.countEdges());
+		for (String w : Arrays.asList("tap", "taps", "top", "tops", "TOPS")) {
+			Assert.assertTrue(w, dafsa.contains(w));
+		}
+		for (String w : Arrays.asList("", "t", "ta", "to", "tip", "tapss", "opt")) {
+			Assert.assertFalse(w, dafsa.contains(w));
+		}
+		Assert.assertTrue(dafsa.containsPrefix("to"));
+		Assert.assertTrue(dafsa.containsPrefix(""));
+		Assert.assertFalse(dafsa.containsPrefix("tx"));
+		// "p" and "ps" are shared, but every word is spelled out
+		Assert.assertEquals(Arrays.asList("tap", "taps", "top", "tops"), new ArrayList<>(dafsa));
+	}
+
+	@Test
+	public void testMatchesTrie() {
+		List<String> words = CheckSpelling.loadDictionary();
+		CompactCharTrie trie = new CompactCharTrie(words);
+		Dafsa dafsa = new Dafsa(words);
+		Assert.assertEquals(trie.size(), dafsa.size());
+		// the whole point: far fewer states than the trie has nodes
+		Assert.assertTrue(dafsa.countStates() * 4 < trie.countNodes());
+		for (String w : words) {
+			Assert.assertTrue(w, dafsa.contains(w));
+		}
+		for (String q : new WorkloadGenerator(words, 0.0, 1.0, 9).toList(20000)) {
+			Assert.assertEquals(q, trie.contains(q), dafsa.contains(q));
+			Assert.assertEquals(q, trie.containsPrefix(q), dafsa.containsPrefix(q));
+		}
+	}
+
+	@Test
+	public void testIteratesSortedDictionary() {
+		List<String> words = CheckSpelling.loadDictionary();
+		Dafsa dafsa = new Dafsa(words);
+		TreeSet<String> expected = new TreeSet<>();
+		for (String w : words) {
+			char[] folded = w.toCharArray();
+			for (int i = 0; i < folded.length; i++) {
+				folded[i] = CompactCharTrie.fold(folded[i]);
+			}
+			expected.add(new String(folded));
+		}
+		Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(dafsa));
+		Assert.assertTrue(dafsa.equals(expected));
+		Assert.assertTrue(dafsa.containsAll(words));
+	}
+}
@@ -0,0 +1,155 @@
+package edu.smith.checkSpelling;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDictionaryImage {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Write some words to a file, one per line.
+	 */
+	private Path wordsFile(List<String> words) throws IOException {
+		Path source = folder.newFile().toPath();
+		Files.write(source, words);
+		return source;
+	}
+
+	@Test
+	public void testMatchesTheDictionary() throws IOException {
+		List<String> words = CheckSpelling.loadDictionary();
+		Path image = folder.getRoot().toPath().resolve("words.dict");
+		DictionaryImage.compile(wordsFile(words), image);
+		DictionaryImage dictionary = DictionaryImage.open(image);
+
+		TreeSet<String> expected = new TreeSet<>(words);
+		Dafsa dafsa = new Dafsa(words);
+		Assert.assertEquals(expected.size(), dictionary.size());
+		for (String w : words) {
+			Assert.assertTrue(w, dictionary.mightContain(w));
+			Assert.assertTrue(w, dictionary.contains(w));
+			Assert.assertTrue(w, dictionary.containsIgnoreCase(w.toUpperCase()));
+			String miss = w + "zq";
+			Assert.assertEquals(miss, expected.contains(miss), dictionary.contains(miss));
+			Assert.assertEquals(miss, dafsa.contains(miss), dictionary.containsIgnoreCase(miss));
+			Assert.assertEquals(miss, dafsa.containsPrefix(miss), dictionary.containsPrefix(miss));
+		}
+		Assert.assertTrue(dictionary.contains(new StringBuilder(words.get(100))));
+		Assert.assertFalse(dictionary.contains(17));
+		Assert.assertTrue(dictionary.containsPrefix(""));
+		// the words come back sorted
+		Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(dictionary));
+	}
+
+	@Test
+	public void testSameWordsSameImage() throws IOException {
+		Path source = wordsFile(Arrays.asList("pear", "apple", "fig", "apple"));
+		Path first = folder.getRoot().toPath().resolve("first.dict");
+		Path second = folder.getRoot().toPath().resolve("second.dict");
+		DictionaryImage.compile(source, first);
+		DictionaryImage.compile(source, second);
+		Assert.assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+		DictionaryImage dictionary = DictionaryImage.open(first);
+		Assert.assertEquals(Arrays.asList("apple", "fig", "pear"), new ArrayList<>(dictionary));
+		Assert.assertFalse(dictionary.contains("Apple"));
+		Assert.assertTrue(dictionary.containsIgnoreCase("Apple"));
+		Assert.assertFalse(dictionary.contains("app"));
+		Assert.assertTrue(dictionary.containsPrefix("app"));
+		// the same thing without any files
+		DictionaryImage built = DictionaryImage.build(Arrays.asList("pear", "apple", "fig"));
+		Assert.assertEquals(new ArrayList<>(dictionary), new ArrayList<>(built));
+		Assert.assertEquals("built in memory", built.origin());
+	}
+
+	@Test
+	public void testLoadRebuildsWhenMissingOrStale() throws IOException {
+		Path source = wordsFile(Arrays.asList("apple", "fig"));
+		Path image = folder.getRoot().toPath().resolve("sub/words.dict");
+
+		DictionaryImage dictionary = DictionaryImage.load(image, source);
+		Assert.assertTrue(dictionary.origin(), dictionary.origin().contains("there was no image yet"));
+		Assert.assertTrue(Files.exists(image));
+		Assert.assertTrue(dictionary.contains("fig"));
+
+		dictionary = DictionaryImage.load(image, source);
+		Assert.assertTrue(dictionary.origin(), dictionary.origin().startsWith("mapped"));
+
+		Files.write(source, Arrays.asList("apple", "fig", "kiwi"));
+		dictionary = DictionaryImage.load(image, source);
+		Assert.assertTrue(dictionary.origin(), dictionary.origin().contains("the words have changed"));
+		Assert.assertTrue(dictionary.contains("kiwi"));
+		Assert.assertTrue(DictionaryImage.load(image, source).origin().startsWith("mapped"));
+	}
+
+	@Test
+	public void testDamageIsNoticed() throws IOException {
+		Path source = wordsFile(new ArrayList<>(new TreeSet<>(CheckSpelling.loadDictionary())).subList(0, 1000));
+		Path image = folder.getRoot().toPath().resolve("words.dict");
+		DictionaryImage.compile(source, image);
+
+		// flip one bit near the end
+		try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer one = ByteBuffer.allocate(1);
+			long at = channel.size() - 10;
+			channel.read(one, at);
+			one.put(0, (byte) (one.get(0) ^ 4));
+			one.position(0);
+			channel.write(one, at);
+		}
+		try {
+			DictionaryImage.open(image);
+			Assert.fail("damage not noticed");
+		} catch (IOException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("damaged"));
+		}
+		DictionaryImage dictionary = DictionaryImage.load(image, source);
+		Assert.assertTrue(dictionary.origin(), dictionary.origin().contains("damaged"));
+		Assert.assertEquals(1000, dictionary.size());
+
+		// and so is something that isn't an image at all
+		Files.write(image, Arrays.asList("hello"));
+		try {
+			DictionaryImage.open(image);
+			Assert.fail("not an image");
+		} catch (IOException e) {
+			Assert.assertEquals("not a dictionary image", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testHeaderDamageIsNoticed() throws IOException {
+		Path source = wordsFile(new ArrayList<>(new TreeSet<>(CheckSpelling.loadDictionary())).subList(0, 100));
+		Path image = folder.getRoot().toPath().resolve("words.dict");
+		DictionaryImage.compile(source, image);
+		byte[] good = Files.readAllBytes(image);
+		Path bad = folder.getRoot().toPath().resolve("bad.dict");
+		// every header byte matters: a smaller Bloom bit count, say, would still fit its section and lose real words
+		for (int at = 0; at < 128; at++) {
+			byte[] damaged = good.clone();
+			damaged[at] ^= 1;
+			Files.write(bad, damaged);
+			try {
+				DictionaryImage.open(bad);
+				Assert.fail("damage to header byte " + at + " not noticed");
+			} catch (IOException e) {
+				// good
+			}
+		}
+		Files.write(bad, good);
+		Assert.assertEquals(100, DictionaryImage.open(bad).size());
+	}
+}
@@ -0,0 +1,70 @@
+package edu.smith.checkSpelling;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFilterTuner {
+
+	/**
+	 * A small dictionary of made-up words, so the sweep is quick.
+	 */
+	public static List<String> makeWords(int count) {
+		List<String> words = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			words.add("word" + Integer.toString(i, 26));
+		}
+		return words;
+	}
+
+	@Test
+	public void testSweep() {
+		List<String> words = makeWords(5000);
+		WorkloadGenerator workload = new WorkloadGenerator(words, 0.5, 0.0, 11);
+		FilterTuner tuner = new FilterTuner(words, new HashSet<>(words), workload, 20000);
+		tuner.setPasses(1);
+		List<FilterTuner.Result> results = tuner.sweep(new int[] {2, 10}, new int[] {1, 4});
+		Assert.assertEquals(4, results.size());
+		for (FilterTuner.Result r : results) {
+			Assert.assertEquals(r.bitsPerKey * 5000, r.sizeBits);
+			Assert.assertTrue(r.measuredFpp >= 0 && r.measuredFpp <= 1);
+		}
+		// the hashes are random, so only compare configurations that are far apart:
+		// 10 bits and 4 hashes (~1% expected) beats 2 bits and 1 hash (~39% expected)
+		Assert.assertTrue(results.get(3).measuredFpp < results.get(0).measuredFpp);
+		// and it is the only one expected to be under 5%
+		FilterTuner.Result best = FilterTuner.recommend(results, 0.05);
+		Assert.assertEquals(10, best.bitsPerKey);
+		Assert.assertEquals(4, best.numHash);
+		Assert.assertTrue(best.isPareto());
+		// the smallest filter can never be dominated on memory by a bigger one
+		Assert.assertTrue(results.get(0).isPareto() || results.get(1).isPareto());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		FilterTuner.writeJson(new PrintStream(bytes), "\"test\":true", results, best);
+		String json = bytes.toString();
+		Assert.assertTrue(json.contains("\"recommended\":{\"variant\":\"BloomFilter\",\"bitsPerKey\":10,\"numHash\":4"));
+	}
+
+	@Test
+	public void testParetoFrontier() {
+		List<FilterTuner.Result> results = new ArrayList<>();
+		// same memory; the second is better on fpp and time, so it dominates the first
+		results.add(new FilterTuner.Result(8, 3, 800, 0.03, 0.03, 10, 20));
+		results.add(new FilterTuner.Result(8, 4, 800, 0.02, 0.02, 9, 19));
+		// bigger but with fewer false positives: still on the frontier
+		results.add(new FilterTuner.Result(16, 4, 1600, 0.002, 0.002, 12, 22));
+		List<FilterTuner.Result> frontier = FilterTuner.paretoFrontier(results);
+		Assert.assertEquals(2, frontier.size());
+		Assert.assertFalse(results.get(0).isPareto());
+		Assert.assertTrue(results.get(1).isPareto());
+		Assert.assertTrue(results.get(2).isPareto());
+		// nothing meets 0.1%, so take the fewest false positives
+		Assert.assertSame(results.get(2), FilterTuner.recommend(results, 0.001));
+	}
+}
@@ -0,0 +1,110 @@
+package edu.smith.checkSpelling;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFilteredSet {
+
+	@Test
+	public void testAnswersMatchTheDictionary() {
+		List<String> words = CheckSpelling.loadDictionary();
+		HashSet<String> dictionary = new HashSet<>(words);
+		FilteredSet set = new FilteredSet(new HashSet<>(words), new BloomFilter(1751201, 5));
+		Assert.assertEquals(dictionary.size(), set.size());
+		for (int i = 0; i < words.size(); i++) {
+			String w = words.get(i);
+			Assert.assertTrue(w, set.contains(w));
+			String miss = w + "zq";
+			Assert.assertEquals(dictionary.contains(miss), set.contains(miss));
+		}
+		Assert.assertFalse(set.contains(null));
+		Assert.assertFalse(set.contains(17));
+	}
+
+	@Test
+	public void testAddKeepsBothInSync() {
+		TreeSet<String> dictionary = new TreeSet<>();
+		dictionary.add("apple");
+		FilteredSet set = new FilteredSet(dictionary, new BloomFilter(1000, 3));
+		Assert.assertTrue(set.contains("apple"));
+		Assert.assertFalse(set.contains("pear"));
+		Assert.assertTrue(set.add("pear"));
+		Assert.assertFalse(set.add("pear"));
+		Assert.assertTrue(dictionary.contains("pear"));
+		// the filter must let it through, or contains would say no
+		Assert.assertTrue(set.contains("pear"));
+		Assert.assertEquals(2, set.size());
+		Assert.assertEquals(dictionary, new TreeSet<>(set));
+	}
+
+	@Test
+	public void testBypassesWhenMostQueriesAreWords() {
+		List<String> words = CheckSpelling.loadDictionary();
+		FilteredSet set = new FilteredSet(new HashSet<>(words), new BloomFilter(1751201, 5));
+		Assert.assertFalse(set.isBypassing());
+		for (int i = 0; i < FilteredSet.WINDOW; i++) {
+			Assert.assertTrue(set.contains(words.get(i)));
+		}
+		Assert.assertTrue(set.isBypassing());
+		Assert.assertEquals(1, set.decisions());
+		Assert.assertEquals(1, set.switches());
+		Assert.assertEquals(0, set.filterRejects());
+		Assert.assertTrue(set.lastDecision(), set.lastDecision().startsWith("bypassing"));
+
+		// while bypassing, only one query in SAMPLE_EVERY checks the filter
+		long checks = set.filterChecks();
+		for (int i = 0; i < 10 * FilteredSet.SAMPLE_EVERY; i++) {
+			Assert.assertTrue(set.contains(words.get(i)));
+		}
+		Assert.assertEquals(checks + 10, set.filterChecks());
+		Assert.assertEquals(set.queries(), set.dictionaryLookups());
+	}
+
+	@Test
+	public void testFiltersAgainWhenQueriesAreMisses() {
+		List<String> words = CheckSpelling.loadDictionary();
+		FilteredSet set = new FilteredSet(new HashSet<>(words), new BloomFilter(1751201, 5));
+		int i = 0;
+		while (!set.isBypassing()) {
+			set.contains(words.get(i++));
+		}
+		// now nothing is a word; it takes a whole window of samples to notice
+		long queries = 0;
+		while (set.isBypassing()) {
+			Assert.assertFalse(set.contains("zq" + queries));
+			queries++;
+			Assert.assertTrue(queries <= 2L * FilteredSet.WINDOW * FilteredSet.SAMPLE_EVERY);
+		}
+		Assert.assertEquals(2, set.switches());
+		Assert.assertTrue(set.lastDecision(), set.lastDecision().startsWith("filtering again"));
+		// and misses mostly stop at the filter again
+		long lookups = set.dictionaryLookups();
+		for (int j = 0; j < 1000; j++) {
+			Assert.assertFalse(set.contains("qz" + j));
+		}
+		Assert.assertTrue(set.dictionaryLookups() - lookups < 100);
+	}
+
+	@Test
+	public void testStaysPutBetweenThresholds() {
+		List<String> words = CheckSpelling.loadDictionary();
+		FilteredSet set = new FilteredSet(new HashSet<>(words), new BloomFilter(1751201, 5), 0.2, 0.8);
+		// half words, half misses: not below 20% rejected, so keep filtering
+		for (int i = 0; i < 4 * FilteredSet.WINDOW; i++) {
+			set.contains(i % 2 == 0 ? words.get(i) : "zq" + i);
+		}
+		Assert.assertFalse(set.isBypassing());
+		Assert.assertEquals(4, set.decisions());
+		Assert.assertEquals(0, set.switches());
+		Assert.assertTrue(set.lastDecision(), set.lastDecision().startsWith("still filtering"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadThresholds() {
+		new FilteredSet(new HashSet<String>(), new BloomFilter(100, 2), 0.5, 0.4);
+	}
+}
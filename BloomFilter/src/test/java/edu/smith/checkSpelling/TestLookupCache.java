@@ -0,0 +1,108 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLookupCache {
+
+	@Test
+	public void testCachesHitsAndMisses() {
+		HashSet<String> dictionary = new HashSet<>();
+		dictionary.add("apple");
+		LookupCache cache = new LookupCache(dictionary, 64);
+		Assert.assertEquals(64, cache.capacity());
+		Assert.assertTrue(cache.contains("apple"));
+		Assert.assertFalse(cache.contains("pear"));
+		Assert.assertEquals(0, cache.hits());
+		Assert.assertEquals(2, cache.misses());
+		// the second time, both answers come from the cache
+		Assert.assertTrue(cache.contains("apple"));
+		Assert.assertFalse(cache.contains(new String("pear")));
+		Assert.assertEquals(2, cache.hits());
+		Assert.assertEquals(1, cache.negativeHits());
+		Assert.assertEquals(0.5, cache.hitRatio(), 1e-9);
+		Assert.assertFalse(cache.contains(null));
+		Assert.assertFalse(cache.contains(17));
+	}
+
+	@Test
+	public void testAddForgetsTheCachedNo() {
+		LookupCache cache = new LookupCache(new HashSet<String>(), 16);
+		Assert.assertFalse(cache.contains("pear"));
+		Assert.assertFalse(cache.contains("pear"));
+		Assert.assertTrue(cache.add("pear"));
+		Assert.assertTrue(cache.contains("pear"));
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testBookMatchesTheDictionary() {
+		List<String> words = CheckSpelling.loadDictionary();
+		HashSet<String> dictionary = new HashSet<>(words);
+		LookupCache cache = new LookupCache(new SortedStringListSet(words), 4096);
+		List<String> book = CheckSpelling.loadBook();
+		for (String w : book) {
+			Assert.assertEquals(w, dictionary.contains(w), cache.contains(w));
+		}
+		Assert.assertEquals(book.size(), cache.hits() + cache.misses());
+		// real text repeats itself a lot
+		Assert.assertTrue(cache.toString(), cache.hitRatio() > 0.5);
+		Assert.assertTrue(cache.evictions() > 0);
+	}
+
+	@Test
+	public void testFrequentWordsSurviveOneTimers() {
+		HashSet<String> dictionary = new HashSet<>();
+		LookupCache cache = new LookupCache(dictionary, LookupCache.WAYS);
+		// one set: "the" is used between every new word, so CLOCK keeps giving it a second chance
+		cache.contains("the");
+		for (int i = 0; i < 1000; i++) {
+			cache.contains("w" + i);
+			cache.contains("the");
+		}
+		Assert.assertEquals(1001, cache.misses());
+		Assert.assertEquals(1000, cache.hits());
+		Assert.assertEquals(1001 - LookupCache.WAYS, cache.evictions());
+	}
+
+	@Test
+	public void testManyReaders() throws InterruptedException {
+		List<String> words = CheckSpelling.loadDictionary();
+		HashSet<String> dictionary = new HashSet<>(words);
+		List<String> book = CheckSpelling.loadBook();
+		// small, so the threads keep fighting over slots
+		LookupCache cache = new LookupCache(dictionary, 256);
+		List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int offset = t * 1000;
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < book.size(); i++) {
+						String w = book.get((i + offset) % book.size());
+						Assert.assertEquals(w, dictionary.contains(w), cache.contains(w));
+					}
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			}));
+		}
+		for (Thread t : threads) {
+			t.start();
+		}
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		Assert.assertEquals(new ArrayList<Throwable>(), failures);
+		Assert.assertEquals(4L * book.size(), cache.hits() + cache.misses());
+	}
+}
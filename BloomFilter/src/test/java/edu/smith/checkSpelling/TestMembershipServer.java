@@ -0,0 +1,191 @@
+package edu.smith.checkSpelling;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMembershipServer {
+
+	@Test
+	public void testContainsAndInsert() throws IOException {
+		HashSet<String> dictionary = new HashSet<>(Arrays.asList("apple", "banana", "caf\u00e9"));
+		try (MembershipServer server = new MembershipServer(dictionary, 0);
+				MembershipClient client = new MembershipClient(server.getPort())) {
+			Assert.assertTrue(client.contains("apple"));
+			Assert.assertFalse(client.contains("pear"));
+			Assert.assertTrue(client.contains("caf\u00e9"));
+			boolean[] added = client.insert(Arrays.asList("pear", "apple"));
+			Assert.assertArrayEquals(new boolean[] { true, false }, added);
+			Assert.assertTrue(client.contains("pear"));
+			Assert.assertEquals(0, client.contains(new ArrayList<String>()).length);
+			Assert.assertEquals(6, server.requests());
+			Assert.assertEquals(6, server.words());
+		}
+		Assert.assertTrue(dictionary.contains("pear"));
+	}
+
+	@Test
+	public void testServesABloomFilter() throws IOException {
+		List<String> words = CheckSpelling.loadDictionary();
+		BloomFilter filter = new BloomFilter(words.size() * 10, 7);
+		try (MembershipServer server = new MembershipServer(filter, 0);
+				MembershipClient client = new MembershipClient(server.getPort())) {
+			// one big batch: much more than fits in any socket buffer at once
+			boolean[] added = client.insert(words);
+			Assert.assertEquals(words.size(), added.length);
+			boolean[] answer = client.contains(words);
+			for (int i = 0; i < answer.length; i++) {
+				Assert.assertTrue(words.get(i), answer[i]);
+			}
+			Assert.assertTrue(client.contains("the"));
+		}
+	}
+
+	@Test
+	public void testPipelinedBatchesComeBackInOrder() throws IOException {
+		List<String> words = CheckSpelling.loadDictionary();
+		HashSet<String> dictionary = new HashSet<>(words.subList(0, words.size() / 2));
+		try (MembershipServer server = new MembershipServer(dictionary, 0);
+				MembershipClient client = new MembershipClient(server.getPort())) {
+			int batch = 100;
+			List<List<String>> sent = new ArrayList<>();
+			// far more than the client lets itself have unread, so it has to read some early
+			for (int start = 0; start < words.size(); start += batch) {
+				List<String> part = words.subList(start, Math.min(words.size(), start + batch));
+				client.sendContains(part);
+				sent.add(part);
+			}
+			Assert.assertEquals(sent.size(), client.pending());
+			for (List<String> part : sent) {
+				boolean[] answer = client.receive();
+				Assert.assertEquals(part.size(), answer.length);
+				for (int i = 0; i < answer.length; i++) {
+					Assert.assertEquals(part.get(i), dictionary.contains(part.get(i)), answer[i]);
+				}
+			}
+			Assert.assertEquals(0, client.pending());
+			Assert.assertEquals(sent.size(), server.requests());
+		}
+	}
+
+	@Test
+	public void testManyClients() throws Exception {
+		List<String> words = CheckSpelling.loadDictionary();
+		HashSet<String> dictionary = new HashSet<>(words);
+		List<String> book = CheckSpelling.loadBook();
+		try (MembershipServer server = new MembershipServer(dictionary, 0)) {
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			List<Thread> threads = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				Thread thread = new Thread(() -> {
+					try (MembershipClient client = new MembershipClient(server.getPort())) {
+						for (int start = 0; start < book.size(); start += 512) {
+							List<String> part = book.subList(start, Math.min(book.size(), start + 512));
+							boolean[] answer = client.contains(part);
+							for (int i = 0; i < answer.length; i++) {
+								Assert.assertEquals(part.get(i), dictionary.contains(part.get(i)), answer[i]);
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				});
+				threads.add(thread);
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			Assert.assertNull(String.valueOf(failure.get()), failure.get());
+			Assert.assertEquals(4, server.connections());
+			Assert.assertEquals(4L * book.size(), server.words());
+		}
+	}
+
+	@Test
+	public void testBadRequestGetsAnError() throws IOException {
+		HashSet<String> dictionary = new HashSet<>(Arrays.asList("apple"));
+		try (MembershipServer server = new MembershipServer(dictionary, 0);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+			// op 99 doesn't exist
+			out.writeInt(5);
+			out.writeByte(99);
+			out.writeInt(0);
+			// a word that claims to be longer than the request
+			out.writeInt(1 + 4 + 2 + 1);
+			out.writeByte(MembershipProtocol.CONTAINS);
+			out.writeInt(1);
+			out.writeShort(40);
+			out.writeByte('a');
+			// the connection still works afterwards
+			out.writeInt(1 + 4 + 2 + 5);
+			out.writeByte(MembershipProtocol.CONTAINS);
+			out.writeInt(1);
+			out.writeShort(5);
+			out.writeBytes("apple");
+			out.flush();
+
+			for (int i = 0; i < 2; i++) {
+				int length = in.readInt();
+				Assert.assertEquals(MembershipProtocol.ERROR, in.readByte());
+				byte[] message = new byte[in.readUnsignedShort()];
+				Assert.assertEquals(length, 1 + 2 + message.length);
+				in.readFully(message);
+			}
+			Assert.assertEquals(1 + 4 + 1, in.readInt());
+			Assert.assertEquals(MembershipProtocol.OK, in.readByte());
+			Assert.assertEquals(1, in.readInt());
+			Assert.assertEquals(1, in.readByte());
+		}
+	}
+
+	@Test
+	public void testOversizedFrameClosesTheConnection() throws IOException {
+		try (MembershipServer server = new MembershipServer(new HashSet<String>(), 0);
+				Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			out.writeInt(MembershipProtocol.MAX_FRAME + 1);
+			out.flush();
+			try {
+				new DataInputStream(socket.getInputStream()).readInt();
+				Assert.fail("expected the server to hang up");
+			} catch (EOFException e) {
+				// good
+			}
+			// and it still serves everyone else
+			try (MembershipClient client = new MembershipClient(server.getPort())) {
+				Assert.assertFalse(client.contains("apple"));
+			}
+		}
+	}
+
+	@Test
+	public void testOneBatchMethodsWaitForPendingAnswers() throws IOException {
+		try (MembershipServer server = new MembershipServer(new HashSet<String>(), 0);
+				MembershipClient client = new MembershipClient(server.getPort())) {
+			client.sendContains(Arrays.asList("a"));
+			Assert.assertEquals(1, client.pending());
+			try {
+				client.insert(Arrays.asList("b"));
+				Assert.fail("the earlier batch's answer hasn't been received");
+			} catch (IllegalStateException e) {
+				// good
+			}
+			Assert.assertFalse(client.receive()[0]);
+			Assert.assertEquals(0, client.pending());
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package edu.smith.checkSpelling;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+public class TestMemoryFootprint {
+
+	/**
+	 * The estimates assume compressed references; with a huge heap the JVM turns them off and every structure gets bigger.
+	 */
+	@BeforeClass
+	public static void needCompressedReferences() {
+		HotSpotDiagnosticMXBean hotspot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+		Assume.assumeTrue(Boolean.parseBoolean(hotspot.getVMOption("UseCompressedOops").getValue()));
+	}
+
+	/**
+	 * Assert the estimate is within 1% of what the walk measures.
+	 */
+	private static void assertMatches(String name, MemoryFootprint structure) {
+		long estimated = structure.estimatedBytes();
+		long measured = ObjectSizes.deepSize(structure);
+		Assert.assertTrue(name + " estimated " + estimated + " but measured " + measured,
+				Math.abs(estimated - measured) <= measured / 100);
+	}
+
+	@Test
+	public void testSmallStructuresExactly() {
+		BloomFilter bloom = new BloomFilter(1000, 3);
+		bloom.insert("apple");
+		Assert.assertEquals(ObjectSizes.deepSize(bloom), bloom.estimatedBytes());
+
+		CharTrie trie = new CharTrie();
+		trie.insert("apple");
+		trie.insert("apply");
+		Assert.assertEquals(ObjectSizes.deepSize(trie), trie.estimatedBytes());
+
+		LLHash hash = new LLHash(10);
+		hash.add("apple");
+		hash.add("pear");
+		Assert.assertEquals(ObjectSizes.deepSize(hash), hash.estimatedBytes());
+
+		SortedStringListSet sorted = new SortedStringListSet(Arrays.asList("pear", "apple"));
+		Assert.assertEquals(ObjectSizes.deepSize(sorted), sorted.estimatedBytes());
+
+		List<String> words = Arrays.asList("tops", "tap", "taps", "Top", "pear");
+		Dafsa dafsa = new Dafsa(words);
+		Assert.assertEquals(ObjectSizes.deepSize(dafsa), dafsa.estimatedBytes());
+		PackedStringListSet packed = new PackedStringListSet(words);
+		Assert.assertEquals(ObjectSizes.deepSize(packed), packed.estimatedBytes());
+		PerfectHashSet perfect = new PerfectHashSet(words);
+		Assert.assertEquals(ObjectSizes.deepSize(perfect), perfect.estimatedBytes());
+		// "Aa" and "BB" have the same hashCode, so these are 8 colliding pairs: 16 leftovers, enough to grow the map's table once
+		List<String> colliding = new ArrayList<>();
+		for (String end : Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h")) {
+			colliding.add("Aa" + end);
+			colliding.add("BB" + end);
+		}
+		perfect = new PerfectHashSet(colliding);
+		Assert.assertEquals(16, perfect.leftovers());
+		Assert.assertEquals(ObjectSizes.deepSize(perfect), perfect.estimatedBytes());
+	}
+
+	@Test
+	public void testWholeDictionary() {
+		List<String> words = CheckSpelling.loadDictionary();
+		Map<String, MemoryFootprint> structures = new LinkedHashMap<>();
+		BloomFilter bloom = new BloomFilter(1751201, 5);
+		CharTrie trie = new CharTrie();
+		LLHash hash = new LLHash(100000);
+		for (String w : words) {
+			bloom.insert(w);
+			trie.insert(w);
+			hash.add(w);
+		}
+		structures.put("BloomFilter", bloom);
+		structures.put("SortedStringListSet", new SortedStringListSet(words));
+		structures.put("LLHash", hash);
+		structures.put("CharTrie", trie);
+		structures.put("Dafsa", new Dafsa(words));
+		structures.put("PackedStringListSet", new PackedStringListSet(words));
+		structures.put("PerfectHashSet", new PerfectHashSet(words));
+		for (Map.Entry<String, MemoryFootprint> e : structures.entrySet()) {
+			assertMatches(e.getKey(), e.getValue());
+		}
+		// the trade the BloomFilter javadoc promises: far less than anything that keeps the words
+		double bloomBits = MemoryFootprint.bitsPerKey(bloom, words.size());
+		Assert.assertEquals(7.4, bloomBits, 0.1);
+		Assert.assertTrue(bloomBits < MemoryFootprint.bitsPerKey(structures.get("SortedStringListSet"), words.size()));
+		Assert.assertTrue(MemoryFootprint.bitsPerKey(hash, words.size()) < MemoryFootprint.bitsPerKey(trie, words.size()));
+	}
+}
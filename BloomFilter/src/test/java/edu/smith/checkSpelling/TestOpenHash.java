@@ -0,0 +1,151 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestOpenHash {
+
+	@Test
+	public void testAddContains() {
+		OpenHash set = new OpenHash();
+		Assert.assertTrue(set.isEmpty());
+		Assert.assertTrue(set.add("hello"));
+		Assert.assertTrue(set.add("world"));
+		Assert.assertFalse(set.add("hello"));
+		Assert.assertEquals(2, set.size());
+		Assert.assertTrue(set.contains("hello"));
+		Assert.assertFalse(set.contains("Hello"));
+		Assert.assertFalse(set.contains(null));
+		Assert.assertFalse(set.contains(17));
+		// any CharSequence works
+		Assert.assertTrue(set.contains(new StringBuilder("world")));
+	}
+
+	@Test
+	public void testGrowsWithTheDictionary() {
+		List<String> words = CheckSpelling.loadDictionary();
+		OpenHash set = new OpenHash();
+		HashSet<String> expected = new HashSet<>();
+		for (String w : words) {
+			Assert.assertEquals(expected.add(w), set.add(w));
+		}
+		Assert.assertEquals(expected.size(), set.size());
+		Assert.assertTrue(set.size() <= set.capacity() * OpenHash.DEFAULT_MAX_LOAD);
+		for (String w : words) {
+			Assert.assertTrue(w, set.contains(w));
+			Assert.assertFalse(set.contains(w + "zs"));
+		}
+		// the iterator sees every word once
+		HashSet<String> seen = new HashSet<>();
+		for (String w : set) {
+			Assert.assertTrue(seen.add(w));
+		}
+		Assert.assertEquals(expected, seen);
+	}
+
+	@Test
+	public void testPresizedDoesNotGrow() {
+		OpenHash set = new OpenHash(1000);
+		int capacity = set.capacity();
+		for (int i = 0; i < 1000; i++) {
+			set.add("w" + i);
+		}
+		Assert.assertEquals(capacity, set.capacity());
+	}
+
+	@Test
+	public void testProbeStatistics() {
+		OpenHash set = new OpenHash();
+		Assert.assertEquals(0, set.maxProbeLength());
+		Assert.assertEquals(0.0, set.averageProbeLength(), 0.0);
+		// "Aa" and "BB" have the same hashCode, so they must share a home slot.
+		set.addAll(Arrays.asList("Aa", "BB"));
+		Assert.assertEquals(1, set.countCollisions());
+		Assert.assertEquals(2, set.countUsedBuckets());
+		Assert.assertEquals(1, set.maxProbeLength());
+		Assert.assertEquals(0.5, set.averageProbeLength(), 1e-9);
+
+		List<String> words = CheckSpelling.loadDictionary();
+		OpenHash dict = new OpenHash();
+		dict.addAll(words);
+		// linear probing at load <= 0.6: a word should be about half a slot from home on average
+		Assert.assertTrue(dict.averageProbeLength() < 1.5);
+		Assert.assertTrue(dict.countCollisions() < dict.size());
+	}
+
+	@Test
+	public void testIteratorEnds() {
+		OpenHash set = new OpenHash();
+		set.add("a");
+		Iterator<String> it = set.iterator();
+		Assert.assertEquals("a", it.next());
+		Assert.assertFalse(it.hasNext());
+		try {
+			it.next();
+			Assert.fail();
+		} catch (NoSuchElementException expected) {
+			// good
+		}
+		Assert.assertEquals(new ArrayList<>(Arrays.asList("a")), new ArrayList<>(set));
+	}
+
+	@Test
+	public void testIncrementalResize() {
+		List<String> words = CheckSpelling.loadDictionary();
+		OpenHash set = new OpenHash(0, OpenHash.DEFAULT_MAX_LOAD, true);
+		HashSet<String> expected = new HashSet<>();
+		boolean sawResize = false;
+		for (String w : words) {
+			Assert.assertEquals(expected.add(w), set.add(w));
+			if (set.isResizing()) {
+				sawResize = true;
+				// while both tables are live, everything is still found, in one table or the other
+				Assert.assertTrue(set.contains(words.get(0)));
+				Assert.assertTrue(set.contains(w));
+				Assert.assertFalse(set.add(words.get(0)));
+			}
+		}
+		Assert.assertTrue(sawResize);
+		Assert.assertEquals(expected.size(), set.size());
+		for (String w : words) {
+			Assert.assertTrue(w, set.contains(w));
+		}
+		Assert.assertEquals(expected, new HashSet<>(set));
+		Assert.assertEquals(set.size(), new ArrayList<>(set).size());
+		double average = set.averageProbeLength();
+		set.finishResize();
+		Assert.assertFalse(set.isResizing());
+		Assert.assertEquals(expected, new HashSet<>(set));
+		Assert.assertTrue(average < 1.5 && set.averageProbeLength() < 1.5);
+	}
+
+	@Test
+	public void testIteratorDuringResize() {
+		OpenHash set = new OpenHash(0, OpenHash.DEFAULT_MAX_LOAD, true);
+		int i = 0;
+		while (!set.isResizing()) {
+			set.add("w" + i++);
+		}
+		// the add that started the resize put its word in the new table; everything else is still in the old one
+		HashSet<String> seen = new HashSet<>();
+		for (String w : set) {
+			Assert.assertTrue(w, seen.add(w));
+		}
+		Assert.assertEquals(i, seen.size());
+		for (int j = 0; j < i; j++) {
+			Assert.assertTrue(seen.contains("w" + j));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadLoad() {
+		new OpenHash(10, 1.0);
+	}
+}
@@ -0,0 +1,76 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPackedStringListSet {
+
+	@Test
+	public void testEmpty() {
+		PackedStringListSet set = new PackedStringListSet(Arrays.asList());
+		Assert.assertEquals(0, set.size());
+		Assert.assertFalse(set.contains(""));
+		Assert.assertFalse(set.iterator().hasNext());
+	}
+
+	@Test
+	public void testSmall() {
+		// short words, shared prefixes, a prefix that is a whole word, and a duplicate
+		List<String> words = Arrays.asList("b", "apple", "app", "applesauce", "Apple", "", "ab", "apple", "appl\u0000");
+		PackedStringListSet set = new PackedStringListSet(words);
+		TreeSet<String> expected = new TreeSet<>(words);
+		Assert.assertEquals(expected.size(), set.size());
+		// iteration is sorted, just like TreeSet
+		Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(set));
+		for (String w : words) {
+			Assert.assertTrue(w, set.contains(w));
+			Assert.assertTrue(w, set.contains(new StringBuilder(w)));
+		}
+		for (String w : Arrays.asList("a", "appl", "apples", "c", "APPLE", "\uffff", "appl\u0000\u0000")) {
+			Assert.assertFalse(w, set.contains(w));
+		}
+		Assert.assertFalse(set.contains(7));
+	}
+
+	@Test
+	public void testEverySize() {
+		// every shape of the tree, from 1 to 40 words, with hits and misses on each side
+		for (int n = 1; n <= 40; n++) {
+			List<String> words = new ArrayList<>();
+			for (int i = 0; i < n; i++) {
+				words.add(String.format("w%03d", 2 * i));
+			}
+			PackedStringListSet set = new PackedStringListSet(words);
+			Assert.assertEquals(words, new ArrayList<>(set));
+			for (int i = -1; i <= 2 * n; i++) {
+				Assert.assertEquals(i >= 0 && i % 2 == 0 && i < 2 * n, set.contains(String.format("w%03d", i)));
+			}
+		}
+	}
+
+	@Test
+	public void testMatchesSortedStringListSet() {
+		List<String> words = CheckSpelling.loadDictionary();
+		SortedStringListSet sorted = new SortedStringListSet(words);
+		PackedStringListSet packed = new PackedStringListSet(words);
+		for (String q : new WorkloadGenerator(words, 0.5, 1.0, 4).toList(50000)) {
+			Assert.assertEquals(q, sorted.contains(q), packed.contains(q));
+		}
+		Iterator<String> it = packed.iterator();
+		String previous = null;
+		int count = 0;
+		while (it.hasNext()) {
+			String w = it.next();
+			Assert.assertTrue(previous == null || previous.compareTo(w) < 0);
+			previous = w;
+			count++;
+		}
+		Assert.assertEquals(packed.size(), count);
+	}
+}
@@ -0,0 +1,79 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPerfectHashSet {
+
+	@Test
+	public void testEmpty() {
+		PerfectHashSet set = new PerfectHashSet(Arrays.asList());
+		Assert.assertEquals(0, set.size());
+		Assert.assertFalse(set.contains("a"));
+		Assert.assertFalse(set.contains(""));
+		Assert.assertFalse(set.iterator().hasNext());
+	}
+
+	@Test
+	public void testSmall() {
+		List<String> words = Arrays.asList("apple", "Apple", "", "b", "apple", "banana");
+		PerfectHashSet set = new PerfectHashSet(words);
+		Assert.assertEquals(5, set.size());
+		for (String w : words) {
+			Assert.assertTrue(w, set.contains(w));
+			Assert.assertTrue(w, set.contains(new StringBuilder(w)));
+		}
+		for (String w : Arrays.asList("APPLE", "appl", "apples", "c", "bananas")) {
+			Assert.assertFalse(w, set.contains(w));
+		}
+		Assert.assertFalse(set.contains(null));
+		Assert.assertEquals(new HashSet<>(words), new HashSet<>(set));
+	}
+
+	@Test
+	public void testSameHashCode() {
+		// these all have the same String.hashCode, so they can never get bits of their own
+		List<String> words = Arrays.asList("AaAa", "AaBB", "BBAa", "BBBB", "cat");
+		PerfectHashSet set = new PerfectHashSet(words);
+		Assert.assertEquals(4, set.leftovers());
+		for (String w : words) {
+			Assert.assertTrue(w, set.contains(w));
+			Assert.assertTrue(w, set.contains(new StringBuilder(w)));
+		}
+		Assert.assertFalse(set.contains("AaAaAa"));
+		Assert.assertFalse(set.contains("dog"));
+		Assert.assertEquals(new HashSet<>(words), new HashSet<>(set));
+	}
+
+	@Test
+	public void testDictionary() {
+		List<String> words = CheckSpelling.loadDictionary();
+		HashSet<String> expected = new HashSet<>(words);
+		for (double gamma : new double[] {1.0, 2.0, 5.0}) {
+			PerfectHashSet set = new PerfectHashSet(words, gamma);
+			Assert.assertEquals(expected.size(), set.size());
+			for (String w : words) {
+				Assert.assertTrue(w, set.contains(w));
+			}
+			for (String q : new WorkloadGenerator(words, 0.0, 1.0, 3).toList(20000)) {
+				Assert.assertFalse(q, set.contains(q));
+			}
+			// every word comes out once, so the numbers really were 0 to n-1 with no collisions
+			List<String> all = new ArrayList<>(set);
+			Assert.assertEquals(expected.size(), all.size());
+			Assert.assertEquals(expected, new HashSet<>(all));
+			// BBHash needs about e^(1/gamma) * gamma bits per key, plus the rank table
+			Assert.assertTrue(set.bitsPerKey() < Math.exp(1 / gamma) * gamma * 1.2);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadGamma() {
+		new PerfectHashSet(Arrays.asList("a"), 0.5);
+	}
+}
@@ -0,0 +1,86 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSortedStringListSet {
+
+	@Test
+	public void testContainsAll() {
+		SortedStringListSet set = new SortedStringListSet(Arrays.asList("cat", "apple", "dog", "banana"));
+		Assert.assertTrue(set.containsAll(Arrays.asList("dog", "apple", "dog", "cat")));
+		Assert.assertTrue(set.containsAll(Collections.emptyList()));
+		Assert.assertFalse(set.containsAll(Arrays.asList("dog", "cow")));
+		Assert.assertFalse(set.containsAll(Arrays.asList("zebra")));
+		Assert.assertFalse(set.containsAll(Arrays.asList("aardvark")));
+		Assert.assertFalse(set.containsAll(Arrays.asList("dog", 7)));
+	}
+
+	@Test
+	public void testMissingMatchesContains() {
+		List<String> words = CheckSpelling.loadDictionary();
+		SortedStringListSet set = new SortedStringListSet(words);
+		List<String> book = CheckSpelling.loadBook();
+		TreeSet<String> expected = new TreeSet<>();
+		for (String w : book) {
+			if (!set.contains(w)) {
+				expected.add(w);
+			}
+		}
+		Assert.assertEquals(new ArrayList<>(expected), set.missing(book));
+		Assert.assertEquals(expected.isEmpty(), set.containsAll(book));
+		Assert.assertTrue(set.containsAll(words.subList(1000, 5000)));
+		Assert.assertEquals(Collections.emptyList(), set.missing(words));
+	}
+
+	@Test
+	public void testRange() {
+		SortedStringListSet set = new SortedStringListSet(Arrays.asList("b", "d", "f", "h"));
+		Assert.assertEquals(Arrays.asList("d", "f"), set.range("c", "g"));
+		Assert.assertEquals(Arrays.asList("d", "f"), set.range("d", "h"));
+		Assert.assertEquals(Arrays.asList("b", "d", "f", "h"), set.range("", "z"));
+		Assert.assertEquals(Collections.emptyList(), set.range("x", "z"));
+		Assert.assertEquals(Collections.emptyList(), set.range("g", "c"));
+		SortedStringListSet.Span span = set.range("c", "g");
+		Assert.assertEquals(1, span.start());
+		Assert.assertEquals(3, span.end());
+		Assert.assertEquals("f", span.get(1));
+		try {
+			span.get(2);
+			Assert.fail();
+		} catch (IndexOutOfBoundsException expected) {
+			// good
+		}
+	}
+
+	@Test
+	public void testPrefix() {
+		SortedStringListSet set = new SortedStringListSet(Arrays.asList(
+				"car", "card", "care", "cart", "cat", "ca", "c\uffff", "c\uffffa", "d"));
+		Assert.assertEquals(Arrays.asList("car", "card", "care", "cart"), set.prefix("car"));
+		Assert.assertEquals(Arrays.asList("ca", "car", "card", "care", "cart", "cat"), set.prefix("ca"));
+		Assert.assertEquals(Arrays.asList("c\uffff", "c\uffffa"), set.prefix("c\uffff"));
+		Assert.assertEquals(Collections.emptyList(), set.prefix("cb"));
+		Assert.assertEquals(set.size(), set.prefix("").size());
+
+		List<String> words = CheckSpelling.loadDictionary();
+		SortedStringListSet dict = new SortedStringListSet(words);
+		int count = 0;
+		for (String w : words) {
+			if (w.startsWith("inter")) {
+				count++;
+			}
+		}
+		SortedStringListSet.Span inter = dict.prefix("inter");
+		Assert.assertEquals(count, inter.size());
+		for (String w : inter) {
+			Assert.assertTrue(w.startsWith("inter"));
+		}
+	}
+}
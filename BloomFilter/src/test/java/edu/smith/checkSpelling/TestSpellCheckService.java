@@ -0,0 +1,51 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSpellCheckService {
+
+	@Test
+	public void testOneDocument() throws InterruptedException {
+		HashSet<String> dictionary = new HashSet<>(Arrays.asList("the", "cat", "sat"));
+		try (SpellCheckService service = new SpellCheckService(dictionary, null, 1)) {
+			List<SpellCheckService.DocumentResult> results = service.checkAll(
+					Arrays.asList("doc"), Arrays.asList(Arrays.asList("The cat sat.", "The dgo sat")));
+			Assert.assertEquals(1, results.size());
+			Assert.assertEquals("doc", results.get(0).name);
+			Assert.assertEquals(6, results.get(0).words);
+			Assert.assertEquals(Arrays.asList("dgo"), results.get(0).misspelled);
+		}
+	}
+
+	@Test
+	public void testManyDocumentsWithBloom() throws InterruptedException {
+		List<String> words = Arrays.asList("alpha", "beta", "gamma", "delta");
+		BloomFilter bloom = new BloomFilter(1000, 3);
+		for (String w : words) {
+			bloom.insert(w);
+		}
+		List<String> names = new ArrayList<>();
+		List<List<String>> documents = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			names.add("doc" + i);
+			documents.add(Arrays.asList("Alpha beta, gamma; delta!", "wrong" + i));
+		}
+		try (SpellCheckService service = new SpellCheckService(new HashSet<>(words), bloom, 4)) {
+			List<SpellCheckService.DocumentResult> results = service.checkAll(names, documents);
+			for (int i = 0; i < results.size(); i++) {
+				Assert.assertEquals("doc" + i, results.get(i).name);
+				Assert.assertEquals(Arrays.asList("wrong" + i), results.get(i).misspelled);
+			}
+			SpellCheckService.Stats stats = service.stats();
+			Assert.assertEquals(500, stats.documents);
+			Assert.assertEquals(2500, stats.words);
+			Assert.assertEquals(500, stats.misspelled);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package edu.smith.checkSpelling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.smith.checkSpelling.SpellingSuggester.Suggestion;
+
+public class TestSpellingSuggester {
+
+	/**
+	 * The slow, obvious edit distance, to check against.
+	 */
+	private static int editDistance(String a, String b) {
+		int[][] table = new int[a.length() + 1][b.length() + 1];
+		for (int i = 0; i <= a.length(); i++) {
+			for (int j = 0; j <= b.length(); j++) {
+				if (i == 0 || j == 0) {
+					table[i][j] = i + j;
+				} else {
+					int replace = table[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+					table[i][j] = Math.min(replace, Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+				}
+			}
+		}
+		return table[a.length()][b.length()];
+	}
+
+	private static List<String> words(List<Suggestion> suggestions) {
+		List<String> out = new ArrayList<>();
+		for (Suggestion s : suggestions) {
+			out.add(s.getWord());
+		}
+		return out;
+	}
+
+	@Test
+	public void testSmall() {
+		CompactCharTrie trie = new CompactCharTrie(Arrays.asList("cat", "car", "cart", "dog", "cast", "at"));
+		SpellingSuggester suggester = new SpellingSuggester(trie);
+		Assert.assertEquals(Arrays.asList("cat"), words(suggester.suggest("cat", 0, 10)));
+		Assert.assertEquals(Arrays.asList("cat", "at", "car", "cart", "cast"), words(suggester.suggest("Cat", 1, 10)));
+		Assert.assertEquals(Arrays.asList("cat", "at"), words(suggester.suggest("cat", 1, 2)));
+		// swapping two letters is two edits
+		Assert.assertTrue(words(suggester.suggest("cta", 2, 10)).contains("cat"));
+		Assert.assertFalse(words(suggester.suggest("cta", 1, 10)).contains("cat"));
+		Assert.assertTrue(suggester.suggest("zzzzz", 2, 10).isEmpty());
+		Assert.assertTrue(suggester.suggest("", 1, 10).isEmpty());
+		Assert.assertEquals(Arrays.asList("at"), words(suggester.suggest("", 2, 10)));
+		Assert.assertTrue(suggester.suggest("cat", 1, 0).isEmpty());
+	}
+
+	@Test
+	public void testFrequencyBreaksTies() {
+		CompactCharTrie trie = new CompactCharTrie(Arrays.asList("bat", "cat", "hat", "mat"));
+		Map<String, Integer> counts = new HashMap<>();
+		counts.put("hat", 50);
+		counts.put("mat", 10);
+		SpellingSuggester suggester = new SpellingSuggester(trie, w -> counts.getOrDefault(w, 0));
+		List<Suggestion> out = suggester.suggest("xat", 1, 3);
+		Assert.assertEquals(Arrays.asList("hat", "mat", "bat"), words(out));
+		Assert.assertEquals(50, out.get(0).getFrequency());
+	}
+
+	@Test
+	public void testMatchesBruteForce() {
+		List<String> dictionary = CheckSpelling.loadDictionary();
+		CompactCharTrie trie = new CompactCharTrie(dictionary);
+		SpellingSuggester suggester = new SpellingSuggester(trie);
+		Set<String> lower = new TreeSet<>();
+		for (String w : dictionary) {
+			lower.add(w.toLowerCase());
+		}
+		WorkloadGenerator gen = new WorkloadGenerator(dictionary, 0.0, 0.0, 11);
+		gen.setTypoRatio(1.0);
+		for (String query : gen.toList(8)) {
+			for (int d = 1; d <= 2; d++) {
+				// everything within d, best first, the slow way
+				List<Suggestion> expected = new ArrayList<>();
+				for (String w : lower) {
+					int dist = editDistance(query, w);
+					if (dist <= d) {
+						expected.add(new Suggestion(w, dist, 0));
+					}
+				}
+				// (already alphabetical, and the sort is stable)
+				expected.sort((a, b) -> Integer.compare(a.getDistance(), b.getDistance()));
+				List<String> top = words(expected).subList(0, Math.min(5, expected.size()));
+				Assert.assertEquals(query, top, words(suggester.suggest(query, d, 5)));
+				Assert.assertEquals(query, words(expected), words(suggester.suggest(query, d, Integer.MAX_VALUE)));
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package edu.smith.checkSpelling;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestWordTokenizer {
+
+	/**
+	 * The regular expression WordSplitter used to use.
+	 */
+	private static Pattern spacesOrPunctuation = Pattern.compile("(\\s+|\\p{Punct})");
+
+	/**
+	 * The old regular expression splitter, kept here so we can check the tokenizer against it.
+	 * @param text - the text to split.
+	 * @return the words in the text.
+	 */
+	public static List<String> regexSplit(String text) {
+		List<String> words = new ArrayList<String>();
+		for (String token : spacesOrPunctuation.split(text.toLowerCase())) {
+			token = token.trim();
+			if (!token.isEmpty()) {
+				words.add(token);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Run the tokenizer and copy out every word.
+	 * @param text - the text to split.
+	 * @return the words in the text.
+	 */
+	public static List<String> tokenize(String text) {
+		List<String> words = new ArrayList<String>();
+		int count = new WordTokenizer().tokenize(text, token -> words.add(token.toString()));
+		Assert.assertEquals(words.size(), count);
+		return words;
+	}
+
+	@Test
+	public void testEmpty() {
+		Assert.assertEquals(Arrays.asList(), tokenize(""));
+		Assert.assertEquals(Arrays.asList(), tokenize("  ,.;  \t"));
+	}
+
+	@Test
+	public void testSimple() {
+		Assert.assertEquals(Arrays.asList("the", "real", "charlotte"), tokenize("THE REAL CHARLOTTE"));
+		Assert.assertEquals(Arrays.asList("don", "t", "x"), tokenize("Don't...x"));
+		Assert.assertEquals(Arrays.asList("don\u2019t"), tokenize("Don\u2019t"));
+	}
+
+	@Test
+	public void testTrim() {
+		Assert.assertEquals(regexSplit("\u0001ab\u0001c\u0002 d"), tokenize("\u0001ab\u0001c\u0002 d"));
+		Assert.assertEquals(regexSplit("\u0001\u0002"), tokenize("\u0001\u0002"));
+	}
+
+	@Test
+	public void testSpans() {
+		String text = "  Hello, World";
+		List<Integer> spans = new ArrayList<>();
+		new WordTokenizer().tokenize(text, token -> {
+			spans.add(token.start());
+			spans.add(token.end());
+			Assert.assertSame(text, token.source());
+		});
+		Assert.assertEquals(Arrays.asList(2, 7, 9, 14), spans);
+	}
+
+	@Test
+	public void testMatchesRegexOnBook() throws IOException {
+		List<String> lines = Files.readAllLines(new File("src/main/resources/book").toPath());
+		for (String line : lines) {
+			Assert.assertEquals(line, regexSplit(line), tokenize(line));
+			Assert.assertEquals(line, regexSplit(line), WordSplitter.splitTextToWords(line));
+		}
+	}
+
+	@Test
+	public void testMatchesRegexOnAscii() {
+		// every printable and control ASCII character, between and inside words
+		StringBuilder text = new StringBuilder();
+		for (char c = 0; c < 128; c++) {
+			text.append("Ab").append(c).append("cD ").append(c).append(' ');
+		}
+		Assert.assertEquals(regexSplit(text.toString()), tokenize(text.toString()));
+	}
+}
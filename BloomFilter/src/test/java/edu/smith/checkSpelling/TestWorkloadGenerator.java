@@ -0,0 +1,70 @@
+package edu.smith.checkSpelling;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestWorkloadGenerator {
+
+	@Test
+	public void testSameSeedSameQueries() {
+		List<String> words = CheckSpelling.loadDictionary();
+		List<String> a = new WorkloadGenerator(words, 0.5, 1.0, 7).toList(10000);
+		List<String> b = new WorkloadGenerator(words, 0.5, 1.0, 7).toList(10000);
+		List<String> c = new WorkloadGenerator(words, 0.5, 1.0, 8).toList(10000);
+		Assert.assertEquals(a, b);
+		Assert.assertNotEquals(a, c);
+		// the iterator gives the very same stream
+		Iterator<String> it = new WorkloadGenerator(words, 0.5, 1.0, 7).iterator(10000);
+		for (String q : a) {
+			Assert.assertEquals(q, it.next());
+		}
+		Assert.assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testHitRatio() {
+		List<String> words = CheckSpelling.loadDictionary();
+		HashSet<String> dictionary = new HashSet<>(words);
+		for (double hitRatio : new double[] {0.0, 0.3, 1.0}) {
+			int[] hits = new int[1];
+			new WorkloadGenerator(words, hitRatio, 0.0, 1).generate(100000, (query, real) -> {
+				Assert.assertEquals(query, real, dictionary.contains(query));
+				if (real) {
+					hits[0]++;
+				}
+			});
+			Assert.assertEquals(hitRatio, hits[0] / 100000.0, 0.01);
+		}
+	}
+
+	@Test
+	public void testZipfSkew() {
+		List<String> words = CheckSpelling.loadDictionary();
+		WorkloadGenerator zipf = new WorkloadGenerator(words, 1.0, 1.0, 3);
+		Map<String, Integer> counts = new HashMap<>();
+		zipf.generate(100000, (query, real) -> counts.merge(query, 1, Integer::sum));
+		// with s=1 over ~236k words, the top word gets 1/H(n) ~= 7.6% of the queries
+		int top = counts.get(zipf.wordAtRank(0));
+		Assert.assertEquals(0.076, top / 100000.0, 0.01);
+		// and rank 1 gets about half as many as rank 0
+		int second = counts.get(zipf.wordAtRank(1));
+		Assert.assertEquals(0.5, second / (double) top, 0.1);
+	}
+
+	@Test
+	public void testLengthWeights() {
+		List<String> words = CheckSpelling.loadDictionary();
+		WorkloadGenerator gen = new WorkloadGenerator(words, 0.0, 0.0, 5);
+		gen.setTypoRatio(0.0);
+		double[] weights = new double[9];
+		weights[8] = 1.0;
+		gen.setLengthWeights(weights);
+		gen.generate(1000, (query, real) -> Assert.assertEquals(8, query.length()));
+	}
+}
@@ -0,0 +1,91 @@
+package edu.smith.listADT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.smith.listErrors.BadIndexError;
+import edu.smith.listErrors.EmptyListError;
+
+public class TestIntListADT {
+
+	@Test
+	public void testBothEnds() {
+		IntListADT list = new IntListADT(2);
+		list.addBack(2);
+		list.addFront(1);
+		list.addBack(3);
+		list.addFront(0);
+		Assert.assertArrayEquals(new int[] {0, 1, 2, 3}, list.toArray());
+		Assert.assertEquals(0, list.getFront());
+		Assert.assertEquals(3, list.getBack());
+		Assert.assertEquals(0, list.removeFront());
+		Assert.assertEquals(3, list.removeBack());
+		Assert.assertEquals(Arrays.asList(1, 2), list.toJava());
+		Assert.assertEquals("[1, 2]", list.toString());
+		Assert.assertEquals(IntListADT.of(1, 2), list);
+		Assert.assertEquals(IntListADT.of(1, 2).hashCode(), list.hashCode());
+	}
+
+	@Test
+	public void testErrors() {
+		IntListADT list = new IntListADT();
+		try {
+			list.getIndex(0);
+			Assert.fail();
+		} catch (EmptyListError expected) {
+		}
+		try {
+			list.removeBack();
+			Assert.fail();
+		} catch (EmptyListError expected) {
+		}
+		list.addBack(7);
+		try {
+			list.getIndex(-1);
+			Assert.fail();
+		} catch (BadIndexError expected) {
+		}
+	}
+
+	@Test
+	public void testMatchesArrayList() {
+		Random rand = new Random(17);
+		IntListADT list = new IntListADT(1);
+		List<Integer> expected = new ArrayList<>();
+		for (int step = 0; step < 20000; step++) {
+			int op = rand.nextInt(6);
+			int value = rand.nextInt();
+			if (op == 0) {
+				list.addFront(value);
+				expected.add(0, value);
+			} else if (op == 1) {
+				list.addBack(value);
+				expected.add(value);
+			} else if (op == 2) {
+				int index = rand.nextInt(expected.size() + 1);
+				list.addIndex(index, value);
+				expected.add(index, value);
+			} else if (expected.isEmpty()) {
+				continue;
+			} else if (op == 3) {
+				int index = rand.nextInt(expected.size());
+				Assert.assertEquals((int) expected.remove(index), list.removeIndex(index));
+			} else if (op == 4) {
+				Assert.assertEquals((int) expected.remove(0), list.removeFront());
+			} else {
+				int index = rand.nextInt(expected.size());
+				list.setIndex(index, value);
+				expected.set(index, value);
+				Assert.assertEquals(value, list.getIndex(index));
+			}
+		}
+		Assert.assertEquals(expected, list.toJava());
+		list.addAll(list);
+		Assert.assertEquals(2 * expected.size(), list.size());
+	}
+}
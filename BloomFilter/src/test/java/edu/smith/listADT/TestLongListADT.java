@@ -0,0 +1,33 @@
+package edu.smith.listADT;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLongListADT {
+
+	@Test
+	public void testWrapsAndGrows() {
+		LongListADT list = new LongListADT(4);
+		for (long i = 0; i < 100; i++) {
+			// big numbers, so nothing gets cut down to an int
+			list.addBack(i << 40);
+			list.addFront(-(i << 40));
+			Assert.assertEquals(i << 40, list.removeBack());
+			list.addBack(i << 40);
+		}
+		Assert.assertEquals(200, list.size());
+		Assert.assertEquals(-(99L << 40), list.getFront());
+		Assert.assertEquals(99L << 40, list.getBack());
+		Assert.assertEquals(0L, list.getIndex(99));
+		list.addIndex(1, 5L);
+		Assert.assertEquals(5L, list.removeIndex(1));
+		LongListADT copy = LongListADT.of(list.toArray());
+		Assert.assertEquals(list, copy);
+		copy.addAll(LongListADT.of(1L, 2L));
+		Assert.assertEquals(Arrays.asList(1L, 2L), copy.toJava().subList(200, 202));
+		copy.clear();
+		Assert.assertTrue(copy.isEmpty());
+	}
+}
@@ -0,0 +1,131 @@
+package edu.smith.listADT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.smith.listErrors.BadIndexError;
+import edu.smith.listErrors.EmptyListError;
+
+public class TestRingBufferList {
+
+	@Test
+	public void testBothEnds() {
+		RingBufferList<String> list = new RingBufferList<>(2);
+		Assert.assertTrue(list.isEmpty());
+		list.addBack("b");
+		list.addFront("a");
+		list.addBack("c");
+		// this one wraps around, then grows
+		list.addFront("z");
+		Assert.assertEquals(Arrays.asList("z", "a", "b", "c"), list.toJava());
+		Assert.assertEquals("z", list.getFront());
+		Assert.assertEquals("c", list.getBack());
+		Assert.assertEquals("z", list.removeFront());
+		Assert.assertEquals("c", list.removeBack());
+		Assert.assertEquals(2, list.size());
+		Assert.assertEquals("[a, b]", list.toString());
+		Assert.assertEquals(list, Arrays.asList("a", "b"));
+	}
+
+	@Test
+	public void testErrors() {
+		RingBufferList<String> list = new RingBufferList<>();
+		try {
+			list.getIndex(0);
+			Assert.fail();
+		} catch (EmptyListError expected) {
+		}
+		try {
+			list.removeFront();
+			Assert.fail();
+		} catch (EmptyListError expected) {
+		}
+		list.addBack("a");
+		try {
+			list.getIndex(1);
+			Assert.fail();
+		} catch (BadIndexError expected) {
+		}
+		try {
+			list.setIndex(-1, "x");
+			Assert.fail();
+		} catch (BadIndexError expected) {
+		}
+		try {
+			list.addIndex(2, "x");
+			Assert.fail();
+		} catch (BadIndexError expected) {
+		}
+	}
+
+	@Test
+	public void testMatchesArrayList() {
+		Random rand = new Random(13);
+		RingBufferList<Integer> list = new RingBufferList<>(1);
+		List<Integer> expected = new ArrayList<>();
+		for (int step = 0; step < 20000; step++) {
+			int op = rand.nextInt(8);
+			int value = rand.nextInt();
+			if (op == 0) {
+				list.addFront(value);
+				expected.add(0, value);
+			} else if (op == 1) {
+				list.addBack(value);
+				expected.add(value);
+			} else if (op == 2) {
+				int index = rand.nextInt(expected.size() + 1);
+				list.addIndex(index, value);
+				expected.add(index, value);
+			} else if (expected.isEmpty()) {
+				continue;
+			} else if (op == 3) {
+				Assert.assertEquals(expected.remove(0), list.removeFront());
+			} else if (op == 4) {
+				Assert.assertEquals(expected.remove(expected.size() - 1), list.removeBack());
+			} else if (op == 5) {
+				int index = rand.nextInt(expected.size());
+				Assert.assertEquals(expected.remove(index), list.removeIndex(index));
+			} else if (op == 6) {
+				int index = rand.nextInt(expected.size());
+				list.setIndex(index, value);
+				expected.set(index, value);
+			} else {
+				int index = rand.nextInt(expected.size());
+				Assert.assertEquals(expected.get(index), list.getIndex(index));
+			}
+			Assert.assertEquals(expected.size(), list.size());
+		}
+		Assert.assertEquals(expected, list.toJava());
+		List<Integer> iterated = new ArrayList<>();
+		for (Integer x : list) {
+			iterated.add(x);
+		}
+		Assert.assertEquals(expected, iterated);
+	}
+
+	@Test
+	public void testAddAll() {
+		RingBufferList<String> list = new RingBufferList<>(4);
+		list.addBack("c");
+		list.addFront("b");
+		list.addFront("a");
+		RingBufferList<String> other = new RingBufferList<>(Arrays.asList("d", "e", "f"));
+		list.addAll(other);
+		Assert.assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), list.toJava());
+		// adding a list to itself doubles it
+		list.addAll(list);
+		Assert.assertEquals(12, list.size());
+		Assert.assertEquals("f", list.getBack());
+		Assert.assertEquals("a", list.getIndex(6));
+		// and any other ListADT still works
+		list.addAll(new JavaList<>(Arrays.asList("g")));
+		Assert.assertEquals("g", list.getBack());
+		list.clear();
+		Assert.assertTrue(list.isEmpty());
+	}
+}
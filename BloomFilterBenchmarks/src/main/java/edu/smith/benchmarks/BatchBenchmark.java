@@ -0,0 +1,78 @@
+package edu.smith.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.SortedStringListSet;
+
+/**
+ * Spell-checking the book in batches with SortedStringListSet: one binary search per word,
+ * or one sorted merge per batch (SortedStringListSet.missing).
+ * The score is time per batch; divide by batch for time per word.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BatchBenchmark {
+	/**
+	 * How many words of the book are checked together.
+	 */
+	@Param({"1024", "16384", "152485"})
+	int batch;
+
+	SortedStringListSet dictionary;
+	String[] book;
+	int cursor;
+
+	@Setup
+	public void setup() {
+		dictionary = new SortedStringListSet(Workloads.loadWords());
+		book = Workloads.loadBook().toArray(new String[0]);
+		batch = Math.min(batch, book.length);
+	}
+
+	/**
+	 * @return the next batch words of the book, wrapping around.
+	 */
+	List<String> nextChunk() {
+		if (cursor + batch > book.length) {
+			cursor = 0;
+		}
+		List<String> out = Arrays.asList(book).subList(cursor, cursor + batch);
+		cursor += batch;
+		return out;
+	}
+
+	@Benchmark
+	public int perWord() {
+		int missing = 0;
+		for (String w : nextChunk()) {
+			if (!dictionary.contains(w)) {
+				missing++;
+			}
+		}
+		return missing;
+	}
+
+	@Benchmark
+	public int merged() {
+		return dictionary.missing(nextChunk()).size();
+	}
+}
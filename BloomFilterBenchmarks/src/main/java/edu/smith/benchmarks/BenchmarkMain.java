@@ -0,0 +1,36 @@
+package edu.smith.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of benchmarks.jar: the normal JMH command line, with the GC profiler always on,
+ * so every result also reports allocation per operation (gc.alloc.rate.norm) and GC counts.
+ * Example: java -jar BloomFilterBenchmarks/target/benchmarks.jar ContainsBenchmark -p structure=CharTrie
+ * @author sivan
+ */
+public class BenchmarkMain {
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions command = new CommandLineOptions(args);
+		if (command.shouldHelp() || command.shouldList() || command.shouldListProfilers()
+				|| command.shouldListResultFormats() || command.shouldListWithParams()) {
+			// let JMH handle the informational flags itself
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		Options options = new OptionsBuilder()
+				.parent(command)
+				.addProfiler(GCProfiler.class)
+				.build();
+		try {
+			new Runner(options).run();
+		} catch (RunnerException e) {
+			System.err.println("Benchmarks failed: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
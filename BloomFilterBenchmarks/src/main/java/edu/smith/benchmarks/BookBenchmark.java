@@ -0,0 +1,77 @@
+package edu.smith.benchmarks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ns per contains for every dictionary structure, looking up the words of the book in order,
+ * with or without the Bloom Filter checked first (like CheckSpelling.timeLookupBloom).
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BookBenchmark {
+	/**
+	 * How many words of the book one invocation looks up.
+	 */
+	static final int BATCH = 1024;
+
+	@Param({"BloomFilter", "CharTrie", "CompactCharTrie", "Dafsa", "LLHash", "OpenHash", "PerfectHashSet", "SortedStringListSet", "PackedStringListSet", "DictionaryImage", "HashSet", "TreeSet"})
+	String structure;
+
+	@Param({"false", "true"})
+	boolean bloomFirst;
+
+	Collection<String> dictionary;
+	Collection<String> bloom;
+	String[] book;
+	int cursor;
+
+	@Setup
+	public void setup() {
+		List<String> words = Workloads.loadWords();
+		dictionary = Structures.build(structure, words);
+		bloom = Structures.build("BloomFilter", words);
+		book = Workloads.loadBook().toArray(new String[0]);
+	}
+
+	/**
+	 * Look up the next BATCH words of the book, wrapping around at the end.
+	 * @return how many were found, so none of the lookups can be optimized away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int contains() {
+		int found = 0;
+		int i = cursor;
+		for (int n = 0; n < BATCH; n++) {
+			String w = book[i];
+			if ((!bloomFirst || bloom.contains(w)) && dictionary.contains(w)) {
+				found++;
+			}
+			if (++i == book.length) {
+				i = 0;
+			}
+		}
+		cursor = i;
+		return found;
+	}
+}
@@ -0,0 +1,48 @@
+package edu.smith.benchmarks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How long it takes to build each structure from the whole dictionary (every insert included).
+ * Run with -prof gc to see how many bytes each build allocates.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BuildBenchmark {
+	@Param({"BloomFilter", "CharTrie", "CompactCharTrie", "Dafsa", "LLHash", "OpenHash", "PerfectHashSet", "SortedStringListSet", "PackedStringListSet", "DictionaryImage", "HashSet", "TreeSet"})
+	String structure;
+
+	List<String> words;
+
+	@Setup
+	public void setup() {
+		words = Workloads.loadWords();
+	}
+
+	/**
+	 * @return the new structure, so JMH keeps it alive.
+	 */
+	@Benchmark
+	public Collection<String> build() {
+		return Structures.build(structure, words);
+	}
+}
@@ -0,0 +1,88 @@
+package edu.smith.benchmarks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.LookupCache;
+
+/**
+ * ns per contains looking up the words of the book in order (like BookBenchmark),
+ * with a LookupCache of cacheSize answers in front of the dictionary (0 means no cache).
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CacheBenchmark {
+	static final int BATCH = BookBenchmark.BATCH;
+
+	@Param({"CharTrie", "SortedStringListSet", "HashSet", "TreeSet"})
+	String structure;
+
+	@Param({"0", "1024", "16384"})
+	int cacheSize;
+
+	Collection<String> dictionary;
+	String[] book;
+	int cursor;
+
+	@Setup
+	public void setup() {
+		List<String> words = Workloads.loadWords();
+		dictionary = Structures.build(structure, words);
+		if (cacheSize > 0) {
+			dictionary = new LookupCache(dictionary, cacheSize);
+		}
+		book = Workloads.loadBook().toArray(new String[0]);
+	}
+
+	/**
+	 * Look up the next BATCH words of the book, wrapping around at the end.
+	 * @return how many were found, so none of the lookups can be optimized away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int contains() {
+		int found = 0;
+		int i = cursor;
+		for (int n = 0; n < BATCH; n++) {
+			if (dictionary.contains(book[i])) {
+				found++;
+			}
+			if (++i == book.length) {
+				i = 0;
+			}
+		}
+		cursor = i;
+		return found;
+	}
+
+	/**
+	 * Print the hit ratio, so the times can be explained.
+	 */
+	@TearDown
+	public void report() {
+		if (dictionary instanceof LookupCache) {
+			System.out.println();
+			System.out.println(dictionary);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package edu.smith.benchmarks;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.ConcurrentLLHash;
+
+/**
+ * Lookup throughput of thread-safe dictionaries, shared by every benchmark thread.
+ * contains is readers only: run it with -t 1, 2, 4, ... to see how it scales with cores.
+ * readWrite is three readers and one writer adding new words (and then re-adding them) the whole time.
+ * Example: java -jar benchmarks.jar ConcurrentReadBenchmark.contains -t 4
+ * @author sivan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConcurrentReadBenchmark {
+	/**
+	 * How many lookups one invocation does.
+	 */
+	static final int BATCH = 1024;
+	/**
+	 * How many different words the writer adds.
+	 */
+	static final int NEW_WORDS = 1 << 16;
+
+	@Param({"ConcurrentLLHash", "ConcurrentHashMap", "SynchronizedHashSet"})
+	String structure;
+
+	Set<String> dictionary;
+	String[] queries;
+	String[] newWords;
+
+	@Setup
+	public void setup() {
+		List<String> words = Workloads.loadWords();
+		switch (structure) {
+		case "ConcurrentLLHash":
+			dictionary = new ConcurrentLLHash(words.size());
+			break;
+		case "ConcurrentHashMap":
+			dictionary = ConcurrentHashMap.newKeySet();
+			break;
+		case "SynchronizedHashSet":
+			dictionary = Collections.synchronizedSet(new HashSet<>());
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown structure: " + structure);
+		}
+		dictionary.addAll(words);
+		queries = Workloads.mixed(words, 1 << 16, 0.5, 42);
+		newWords = new String[NEW_WORDS];
+		for (int i = 0; i < NEW_WORDS; i++) {
+			newWords[i] = "new" + i;
+		}
+	}
+
+	/**
+	 * Where each thread is in the queries (or new words).
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		int next;
+	}
+
+	int lookups(Cursor cursor) {
+		int found = 0;
+		int i = cursor.next;
+		for (int n = 0; n < BATCH; n++) {
+			if (dictionary.contains(queries[i])) {
+				found++;
+			}
+			i = (i + 1) & (queries.length - 1);
+		}
+		cursor.next = i;
+		return found;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int contains(Cursor cursor) {
+		return lookups(cursor);
+	}
+
+	/**
+	 * One lookup per call, so the reader and writer numbers of the group are in the same units.
+	 */
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(3)
+	public boolean reader(Cursor cursor) {
+		boolean found = dictionary.contains(queries[cursor.next]);
+		cursor.next = (cursor.next + 1) & (queries.length - 1);
+		return found;
+	}
+
+	@Benchmark
+	@Group("readWrite")
+	@GroupThreads(1)
+	public boolean writer(Cursor cursor) {
+		boolean added = dictionary.add(newWords[cursor.next]);
+		cursor.next = (cursor.next + 1) & (NEW_WORDS - 1);
+		return added;
+	}
+}
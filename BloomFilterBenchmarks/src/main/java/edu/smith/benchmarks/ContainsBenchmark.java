@@ -0,0 +1,81 @@
+package edu.smith.benchmarks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ns per contains for every dictionary structure, over a mix of real and fake words.
+ * This replaces the mixed data set part of CheckSpelling.main.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ContainsBenchmark {
+	/**
+	 * How many queries one invocation looks up.
+	 */
+	static final int BATCH = 1024;
+	/**
+	 * How many different queries there are (a power of two, so we can wrap with a mask).
+	 */
+	static final int QUERIES = 1 << 16;
+
+	@Param({"BloomFilter", "CharTrie", "CompactCharTrie", "Dafsa", "LLHash", "OpenHash", "PerfectHashSet", "SortedStringListSet", "PackedStringListSet", "DictionaryImage", "HashSet", "TreeSet"})
+	String structure;
+
+	@Param({"0.0", "0.5", "1.0"})
+	double hitRatio;
+
+	/**
+	 * Zipf exponent of word popularity; try -p zipf=1.0 for text-like skew.
+	 */
+	@Param({"0.0"})
+	double zipf;
+
+	Collection<String> dictionary;
+	String[] queries;
+	int cursor;
+
+	@Setup
+	public void setup() {
+		List<String> words = Workloads.loadWords();
+		dictionary = Structures.build(structure, words);
+		queries = Workloads.mixed(words, QUERIES, hitRatio, zipf, 42);
+	}
+
+	/**
+	 * Look up the next BATCH queries.
+	 * @return how many were found, so none of the lookups can be optimized away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int contains() {
+		int found = 0;
+		int start = cursor;
+		for (int i = 0; i < BATCH; i++) {
+			if (dictionary.contains(queries[(start + i) & (QUERIES - 1)])) {
+				found++;
+			}
+		}
+		cursor = (start + BATCH) & (QUERIES - 1);
+		return found;
+	}
+}
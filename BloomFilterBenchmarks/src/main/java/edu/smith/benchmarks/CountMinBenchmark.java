@@ -0,0 +1,137 @@
+package edu.smith.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.bloom.CountMinSketch;
+
+/**
+ * ns per word counting the words of the book: exactly with a HashMap, or with a CountMinSketch
+ * (conservative update, or the concurrent mode).
+ * Setup counts the book once each way and prints the memory each takes and how far off the sketch's counts are.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CountMinBenchmark {
+	static final int BATCH = BookBenchmark.BATCH;
+
+	@Param({"HashMap", "CountMin", "ConcurrentCountMin"})
+	String counter;
+
+	/**
+	 * The sketch's epsilon: answers within this fraction of the book's length.
+	 */
+	@Param({"0.001"})
+	double epsilon;
+
+	Map<String, Integer> exact;
+	CountMinSketch<String> sketch;
+	String[] book;
+	int cursor;
+
+	CountMinSketch<String> newSketch() {
+		return CountMinSketch.forError(epsilon, 0.01, 17, counter.equals("ConcurrentCountMin"));
+	}
+
+	@Setup
+	public void setup() {
+		book = Workloads.loadBook().toArray(new String[0]);
+		// Count the book once each way, so estimate has something to find, and to compare memory and accuracy.
+		// The map's keys are the book's Strings, so it is only charged for its entries and Integers.
+		long before = Footprint.settledHeap();
+		Map<String, Integer> counts = new HashMap<>();
+		for (String w : book) {
+			counts.merge(w, 1, Integer::sum);
+		}
+		long mapBytes = Footprint.settledHeap() - before;
+		if (counter.equals("HashMap")) {
+			exact = counts;
+			return;
+		}
+		CountMinSketch<String> once = newSketch();
+		for (String w : book) {
+			once.add(w);
+		}
+		sketch = once;
+		long totalError = 0;
+		long maxError = 0;
+		int exactAnswers = 0;
+		for (Map.Entry<String, Integer> e : counts.entrySet()) {
+			long error = once.estimate(e.getKey()) - e.getValue();
+			totalError += error;
+			maxError = Math.max(maxError, error);
+			if (error == 0) {
+				exactAnswers++;
+			}
+		}
+		// (add keeps going from here, so these numbers are for the one pass)
+		System.out.println();
+		System.out.printf("%d words, %d distinct: HashMap %,d bytes; %s %,d bytes%n",
+				book.length, counts.size(), mapBytes, once, once.estimatedBytes());
+		System.out.printf("sketch error: mean %.3f, max %d (bound %.1f), exact for %.1f%% of words%n",
+				(double) totalError / counts.size(), maxError, once.errorBound(), 100.0 * exactAnswers / counts.size());
+	}
+
+	/**
+	 * Count the next BATCH words of the book, wrapping around at the end.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void add() {
+		int i = cursor;
+		for (int n = 0; n < BATCH; n++) {
+			if (exact != null) {
+				exact.merge(book[i], 1, Integer::sum);
+			} else {
+				sketch.add(book[i]);
+			}
+			if (++i == book.length) {
+				i = 0;
+			}
+		}
+		cursor = i;
+	}
+
+	/**
+	 * Look up the counts of the next BATCH words of the book.
+	 * @return their sum, so none of the lookups can be optimized away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long estimate() {
+		long sum = 0;
+		int i = cursor;
+		for (int n = 0; n < BATCH; n++) {
+			if (exact != null) {
+				Integer count = exact.get(book[i]);
+				sum += count == null ? 0 : count;
+			} else {
+				sum += sketch.estimate(book[i]);
+			}
+			if (++i == book.length) {
+				i = 0;
+			}
+		}
+		cursor = i;
+		return sum;
+	}
+}
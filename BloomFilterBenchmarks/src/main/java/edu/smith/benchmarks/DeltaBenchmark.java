@@ -0,0 +1,90 @@
+package edu.smith.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.BloomFilter;
+
+/**
+ * Updating a copy of the dictionary filter after changed words were added to the original:
+ * sending the whole filter (toBytes, fromBytes) against sending a delta (deltaSince, applyDelta).
+ * Setup prints how many bytes each one is.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeltaBenchmark {
+	@Param({"100", "1000", "10000"})
+	int changed;
+
+	BloomFilter original;
+	BloomFilter published;
+	BloomFilter replica;
+	byte[] full;
+	byte[] delta;
+
+	@Setup
+	public void setup() {
+		List<String> words = Workloads.loadWords();
+		// the filter the CheckSpelling harness uses, holding all but the last words of the dictionary
+		original = new BloomFilter(1751201, 5);
+		int split = words.size() - changed;
+		for (String w : words.subList(0, split)) {
+			original.insert(w);
+		}
+		published = original.copy();
+		for (String w : words.subList(split, words.size())) {
+			original.insert(w);
+		}
+		full = original.toBytes();
+		delta = original.deltaSince(published);
+		System.out.println();
+		System.out.println("full: " + full.length + " bytes, delta for " + changed + " words: " + delta.length + " bytes");
+	}
+
+	/**
+	 * applyDelta only works once on a replica, so start each call from the old version again (not timed).
+	 */
+	@Setup(Level.Invocation)
+	public void resetReplica() {
+		replica = published.copy();
+	}
+
+	@Benchmark
+	public byte[] encodeFull() {
+		return original.toBytes();
+	}
+
+	@Benchmark
+	public BloomFilter applyFull() {
+		return BloomFilter.fromBytes(full);
+	}
+
+	@Benchmark
+	public byte[] encodeDelta() {
+		return original.deltaSince(published);
+	}
+
+	@Benchmark
+	public BloomFilter applyDelta() {
+		replica.applyDelta(delta);
+		return replica;
+	}
+}
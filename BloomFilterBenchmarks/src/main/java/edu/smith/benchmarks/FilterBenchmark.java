@@ -0,0 +1,92 @@
+package edu.smith.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.BloomFilter;
+
+/**
+ * insert and contains on the Bloom Filter, for different sizes (bits per word) and numbers of hashes.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FilterBenchmark {
+	/**
+	 * How many queries one invocation looks up.
+	 */
+	static final int BATCH = 1024;
+	/**
+	 * How many different queries there are (a power of two, so we can wrap with a mask).
+	 */
+	static final int QUERIES = 1 << 16;
+
+	@Param({"7", "10"})
+	int bitsPerKey;
+
+	@Param({"3", "5", "7"})
+	int numHash;
+
+	@Param({"0.0", "1.0"})
+	double hitRatio;
+
+	BloomFilter bloom;
+	String[] queries;
+	int cursor;
+
+	@Setup
+	public void setup() {
+		List<String> words = Workloads.loadWords();
+		bloom = Structures.bloom(words, words.size() * bitsPerKey, numHash);
+		queries = Workloads.mixed(words, QUERIES, hitRatio, 42);
+	}
+
+	/**
+	 * @return how many of the next BATCH queries the filter might contain.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int contains() {
+		int found = 0;
+		int start = cursor;
+		for (int i = 0; i < BATCH; i++) {
+			if (bloom.contains(queries[(start + i) & (QUERIES - 1)])) {
+				found++;
+			}
+		}
+		cursor = (start + BATCH) & (QUERIES - 1);
+		return found;
+	}
+
+	/**
+	 * Insert the next BATCH queries (setting bits that are mostly set already, which is fine for timing).
+	 * @return the filter, so the inserts cannot be optimized away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public BloomFilter insert() {
+		int start = cursor;
+		for (int i = 0; i < BATCH; i++) {
+			bloom.insert(queries[(start + i) & (QUERIES - 1)]);
+		}
+		cursor = (start + BATCH) & (QUERIES - 1);
+		return bloom;
+	}
+}
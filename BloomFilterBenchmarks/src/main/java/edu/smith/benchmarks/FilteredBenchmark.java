@@ -0,0 +1,110 @@
+package edu.smith.benchmarks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.BloomFilter;
+import edu.smith.checkSpelling.FilteredSet;
+
+/**
+ * ns per contains for a dictionary on its own, always behind a Bloom Filter (what CheckSpelling.timeLookupBloom does),
+ * and behind a FilteredSet that decides for itself. The FilteredSet should be close to the better of the other two
+ * at every hitRatio.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FilteredBenchmark {
+	static final int BATCH = ContainsBenchmark.BATCH;
+	static final int QUERIES = ContainsBenchmark.QUERIES;
+
+	@Param({"HashSet", "TreeSet"})
+	String structure;
+
+	/**
+	 * "none" is the dictionary alone, "always" checks the filter first every time, "adaptive" is a FilteredSet.
+	 */
+	@Param({"none", "always", "adaptive"})
+	String mode;
+
+	@Param({"0.0", "0.5", "0.9", "1.0"})
+	double hitRatio;
+
+	Collection<String> dictionary;
+	BloomFilter bloom;
+	FilteredSet filtered;
+	String[] queries;
+	int cursor;
+
+	@Setup
+	public void setup() {
+		List<String> words = Workloads.loadWords();
+		dictionary = Structures.build(structure, words);
+		bloom = new BloomFilter(1751201, 5);
+		for (String w : words) {
+			bloom.insert(w);
+		}
+		filtered = new FilteredSet(dictionary, new BloomFilter(1751201, 5));
+		queries = Workloads.mixed(words, QUERIES, hitRatio, 0.0, 42);
+	}
+
+	/**
+	 * Look up the next BATCH queries.
+	 * @return how many were found, so none of the lookups can be optimized away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int contains() {
+		int found = 0;
+		int start = cursor;
+		for (int i = 0; i < BATCH; i++) {
+			String q = queries[(start + i) & (QUERIES - 1)];
+			boolean hit;
+			switch (mode) {
+			case "always":
+				hit = bloom.contains(q) && dictionary.contains(q);
+				break;
+			case "adaptive":
+				hit = filtered.contains(q);
+				break;
+			default:
+				hit = dictionary.contains(q);
+			}
+			if (hit) {
+				found++;
+			}
+		}
+		cursor = (start + BATCH) & (QUERIES - 1);
+		return found;
+	}
+
+	/**
+	 * Say what the FilteredSet ended up doing, so the numbers can be explained.
+	 */
+	@TearDown
+	public void report() {
+		if (mode.equals("adaptive")) {
+			System.out.println();
+			System.out.println(filtered);
+		}
+	}
+}
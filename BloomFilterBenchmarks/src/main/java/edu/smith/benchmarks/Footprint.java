@@ -0,0 +1,48 @@
+package edu.smith.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JMH measures time and allocation, not how much memory a finished structure keeps alive.
+ * This measures that the blunt way: used heap after a full GC, before and after building each structure.
+ * Run it with a fixed heap (e.g. -Xms2g -Xmx2g) so the numbers are stable.
+ * The word Strings themselves are shared with the loaded word list, so structures that keep
+ * references to them (HashSet, TreeSet, SortedStringListSet, LLHash) are only charged for their own overhead.
+ * @author sivan
+ */
+public class Footprint {
+	/**
+	 * @return the heap in use once the garbage collector has settled down.
+	 */
+	static long settledHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long used = Long.MAX_VALUE;
+		// keep collecting until the number stops going down
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			long now = memory.getHeapMemoryUsage().getUsed();
+			if (now >= used) {
+				break;
+			}
+			used = now;
+		}
+		return used;
+	}
+
+	public static void main(String[] args) {
+		List<String> words = Workloads.loadWords();
+		String[] names = args.length > 0 ? args : Structures.NAMES;
+		for (String name : names) {
+			long before = settledHeap();
+			Collection<String> structure = Structures.build(name, words);
+			long after = settledHeap();
+			long bytes = after - before;
+			// printing its size keeps the structure reachable until after we measured it
+			System.out.printf("%-20s size=%-8d %,12d bytes %8.2f bits/word%n",
+					name, structure.size(), bytes, bytes * 8.0 / words.size());
+		}
+	}
+}
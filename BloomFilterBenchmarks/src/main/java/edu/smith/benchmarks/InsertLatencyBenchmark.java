@@ -0,0 +1,71 @@
+package edu.smith.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.OpenHash;
+
+/**
+ * The latency distribution of single adds to a growing {@link OpenHash}, with and without incremental resizing.
+ * SampleTime mode reports percentiles: the average hardly changes, but without incremental resizing
+ * p99.9 and the max are the adds that had to move the whole table.
+ * Example: java -jar benchmarks.jar InsertLatencyBenchmark
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class InsertLatencyBenchmark {
+	/**
+	 * How many words go in before we start over with an empty set; the last resize moves about 0.6 of this many.
+	 */
+	static final int WORDS = 1 << 20;
+
+	@Param({"false", "true"})
+	boolean incremental;
+
+	String[] words;
+	OpenHash set;
+	int next;
+
+	@Setup
+	public void setup() {
+		words = new String[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			words[i] = "word" + i;
+			// cache the hash code now, so computing it isn't part of the measurement
+			words[i].hashCode();
+		}
+		set = newSet();
+	}
+
+	OpenHash newSet() {
+		return new OpenHash(0, OpenHash.DEFAULT_MAX_LOAD, incremental);
+	}
+
+	/**
+	 * Add one new word.
+	 */
+	@Benchmark
+	public boolean add() {
+		if (next == WORDS) {
+			set = newSet();
+			next = 0;
+		}
+		return set.add(words[next++]);
+	}
+}
@@ -0,0 +1,85 @@
+package edu.smith.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.listADT.JavaList;
+import edu.smith.listADT.ListADT;
+import edu.smith.listADT.RingBufferList;
+
+/**
+ * ns per operation for JavaList and RingBufferList holding size items:
+ * using the list as a queue (addBack, removeFront), as a stack at the front (addFront, removeFront),
+ * and reading every item with getIndex.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ListBenchmark {
+	static final int BATCH = 1024;
+
+	@Param({"JavaList", "RingBufferList"})
+	String list;
+
+	@Param({"16", "4096"})
+	int size;
+
+	ListADT<Integer> items;
+
+	@Setup
+	public void setup() {
+		items = list.equals("JavaList") ? new JavaList<Integer>() : new RingBufferList<Integer>();
+		for (int i = 0; i < size; i++) {
+			items.addBack(i);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int queue() {
+		int sum = 0;
+		for (int i = 0; i < BATCH; i++) {
+			items.addBack(i);
+			sum += items.removeFront();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int front() {
+		int sum = 0;
+		for (int i = 0; i < BATCH; i++) {
+			items.addFront(i);
+			sum += items.removeFront();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int getIndex() {
+		int sum = 0;
+		int n = items.size();
+		for (int i = 0; i < BATCH; i++) {
+			sum += items.getIndex(i & (n - 1));
+		}
+		return sum;
+	}
+}
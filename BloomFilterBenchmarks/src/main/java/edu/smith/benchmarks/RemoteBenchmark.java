@@ -0,0 +1,92 @@
+package edu.smith.benchmarks;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.MembershipClient;
+import edu.smith.checkSpelling.MembershipServer;
+
+/**
+ * ns per word asking a MembershipServer (in this JVM, over loopback) about the words of the book,
+ * batchSize words per request, with up to depth requests sent before reading the first answer.
+ * Compare batchSize 1, depth 1 (a round trip per word) with the bigger ones.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RemoteBenchmark {
+	static final int WORDS = 4096;
+
+	@Param({"1", "64", "1024"})
+	int batchSize;
+
+	@Param({"1", "8"})
+	int depth;
+
+	MembershipServer server;
+	MembershipClient client;
+	List<String> book;
+	int cursor;
+
+	@Setup
+	public void setup() throws IOException {
+		server = new MembershipServer(new HashSet<>(Workloads.loadWords()), 0);
+		client = new MembershipClient(server.getPort());
+		book = Workloads.loadBook();
+	}
+
+	/**
+	 * Ask about the next WORDS words of the book, wrapping around at the end.
+	 * @return how many were found.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(WORDS)
+	public int contains() throws IOException {
+		int found = 0;
+		int sent = 0;
+		while (sent < WORDS || client.pending() > 0) {
+			while (sent < WORDS && client.pending() < depth) {
+				if (cursor + batchSize > book.size()) {
+					cursor = 0;
+				}
+				client.sendContains(book.subList(cursor, cursor + batchSize));
+				cursor += batchSize;
+				sent += batchSize;
+			}
+			for (boolean yes : client.receive()) {
+				if (yes) {
+					found++;
+				}
+			}
+		}
+		return found;
+	}
+
+	@TearDown
+	public void close() throws IOException {
+		client.close();
+		server.close();
+		System.out.println();
+		System.out.println(server.requests() + " requests, " + server.words() + " words");
+	}
+}
@@ -0,0 +1,90 @@
+package edu.smith.benchmarks;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+import edu.smith.checkSpelling.BloomFilter;
+import edu.smith.checkSpelling.CharTrie;
+import edu.smith.checkSpelling.CompactCharTrie;
+import edu.smith.checkSpelling.Dafsa;
+import edu.smith.checkSpelling.DictionaryImage;
+import edu.smith.checkSpelling.LLHash;
+import edu.smith.checkSpelling.OpenHash;
+import edu.smith.checkSpelling.PackedStringListSet;
+import edu.smith.checkSpelling.PerfectHashSet;
+import edu.smith.checkSpelling.SortedStringListSet;
+
+/**
+ * Builds each of the dictionary structures by name, configured the same way CheckSpelling.main builds them.
+ * @author sivan
+ */
+public class Structures {
+	/**
+	 * Every name build understands; handy as a JMH @Param list.
+	 */
+	public static final String[] NAMES = {"BloomFilter", "CharTrie", "CompactCharTrie", "Dafsa", "LLHash", "OpenHash", "PerfectHashSet", "SortedStringListSet", "PackedStringListSet", "DictionaryImage", "HashSet", "TreeSet"};
+
+	/**
+	 * Build a dictionary structure from some words.
+	 * @param name - one of NAMES.
+	 * @param words - what to put in it.
+	 * @return the structure, ready for contains.
+	 */
+	public static Collection<String> build(String name, List<String> words) {
+		switch (name) {
+		case "BloomFilter":
+			return bloom(words, 1751201, 5);
+		case "CharTrie":
+			CharTrie trie = new CharTrie();
+			for (String w : words) {
+				trie.insert(w);
+			}
+			return trie;
+		case "CompactCharTrie":
+			return new CompactCharTrie(words);
+		case "Dafsa":
+			return new Dafsa(words);
+		case "LLHash":
+			LLHash hash = new LLHash(100000);
+			for (String w : words) {
+				hash.add(w);
+			}
+			return hash;
+		case "OpenHash":
+			OpenHash open = new OpenHash();
+			open.addAll(words);
+			return open;
+		case "PerfectHashSet":
+			return new PerfectHashSet(words);
+		case "SortedStringListSet":
+			return new SortedStringListSet(words);
+		case "PackedStringListSet":
+			return new PackedStringListSet(words);
+		case "DictionaryImage":
+			return DictionaryImage.build(words);
+		case "HashSet":
+			return new HashSet<>(words);
+		case "TreeSet":
+			return new TreeSet<>(words);
+		default:
+			throw new IllegalArgumentException("Unknown structure: " + name);
+		}
+	}
+
+	/**
+	 * Build a Bloom Filter.
+	 * @param words - what to insert.
+	 * @param size - the number of bits.
+	 * @param numHash - the number of hash functions.
+	 * @return the filled-in filter.
+	 */
+	public static BloomFilter bloom(List<String> words, int size, int numHash) {
+		BloomFilter bloom = new BloomFilter(size, numHash);
+		for (String w : words) {
+			bloom.insert(w);
+		}
+		return bloom;
+	}
+}
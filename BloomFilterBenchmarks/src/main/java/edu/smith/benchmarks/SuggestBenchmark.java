@@ -0,0 +1,63 @@
+package edu.smith.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smith.checkSpelling.CompactCharTrie;
+import edu.smith.checkSpelling.SpellingSuggester;
+import edu.smith.checkSpelling.WorkloadGenerator;
+
+/**
+ * us per spelling suggestion, for typos (real words with two letters inserted) from a {@link WorkloadGenerator}.
+ * @author sivan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SuggestBenchmark {
+	/**
+	 * How many different typos to cycle through.
+	 */
+	static final int QUERIES = 1 << 12;
+
+	@Param({"1", "2"})
+	int maxDistance;
+
+	@Param({"5"})
+	int limit;
+
+	SpellingSuggester suggester;
+	String[] queries;
+	int cursor;
+
+	@Setup
+	public void setup() {
+		List<String> words = Workloads.loadWords();
+		suggester = new SpellingSuggester(new CompactCharTrie(words));
+		WorkloadGenerator generator = new WorkloadGenerator(words, 0.0, 1.0, 42);
+		generator.setTypoRatio(1.0);
+		queries = generator.toList(QUERIES).toArray(new String[0]);
+	}
+
+	@Benchmark
+	public Object suggest() {
+		String q = queries[cursor];
+		cursor = (cursor + 1) & (QUERIES - 1);
+		return suggester.suggest(q, maxDistance, limit);
+	}
+}
@@ -0,0 +1,86 @@
+package edu.smith.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.smith.checkSpelling.WordTokenizer;
+import edu.smith.checkSpelling.WorkloadGenerator;
+
+/**
+ * Loads the words and book resources (from the BloomFilter jar) and makes query sets out of them.
+ * Everything random here takes a seed, so every fork of a benchmark sees the same queries.
+ * @author sivan
+ */
+public class Workloads {
+	/**
+	 * Read every line of a resource that lives next to the BloomFilter classes.
+	 * @param name - the resource name, like "words".
+	 * @return the lines.
+	 */
+	public static List<String> readLines(String name) {
+		InputStream in = Workloads.class.getResourceAsStream("/" + name);
+		if (in == null) {
+			throw new IllegalStateException("Couldn't find resource " + name + " on the classpath.");
+		}
+		List<String> lines = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return lines;
+	}
+
+	/**
+	 * @return the UNIX dictionary.
+	 */
+	public static List<String> loadWords() {
+		return readLines("words");
+	}
+
+	/**
+	 * @return every word of the book, split the same way CheckSpelling.loadBook does.
+	 */
+	public static List<String> loadBook() {
+		List<String> words = new ArrayList<>();
+		WordTokenizer tokenizer = new WordTokenizer();
+		for (String line : readLines("book")) {
+			tokenizer.tokenize(line, token -> words.add(token.toString()));
+		}
+		return words;
+	}
+
+	/**
+	 * A mix of real and fake words, with uniform popularity.
+	 * @param words - the real words to draw from.
+	 * @param count - how many queries to make.
+	 * @param hitRatio - the fraction of queries that should be real words.
+	 * @param seed - the random seed.
+	 * @return the queries.
+	 */
+	public static String[] mixed(List<String> words, int count, double hitRatio, long seed) {
+		return mixed(words, count, hitRatio, 0.0, seed);
+	}
+
+	/**
+	 * A mix of real and fake words from a {@link WorkloadGenerator}.
+	 * @param words - the real words to draw from.
+	 * @param count - how many queries to make.
+	 * @param hitRatio - the fraction of queries that should be real words.
+	 * @param zipf - the Zipf exponent of word popularity (0 for uniform).
+	 * @param seed - the random seed.
+	 * @return the queries.
+	 */
+	public static String[] mixed(List<String> words, int count, double hitRatio, double zipf, long seed) {
+		return new WorkloadGenerator(words, hitRatio, zipf, seed).toList(count).toArray(new String[0]);
+	}
+}